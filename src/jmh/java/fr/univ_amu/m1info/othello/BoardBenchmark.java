@@ -0,0 +1,85 @@
+package fr.univ_amu.m1info.othello;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link OthelloBoard} move primitives. Each invocation works on the
+ * next position of the {@link MidGameCorpus} and leaves it unchanged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private List<OthelloGame> corpus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        corpus = MidGameCorpus.games();
+    }
+
+    private OthelloGame nextGame() {
+        OthelloGame game = corpus.get(next);
+        next = (next + 1) % corpus.size();
+        return game;
+    }
+
+    /** Tests every square of the board. */
+    @Benchmark
+    public int isValidMove() {
+        OthelloGame game = nextGame();
+        OthelloBoard board = game.getBoard();
+        int valid = 0;
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int column = 0; column < board.getSize(); column++) {
+                if (board.isValidMove(row, column, game.getCurrentPlayer())) {
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /** Lists the flipped pieces of every legal move. */
+    @Benchmark
+    public void findAllFlippablePieces(Blackhole blackhole) {
+        OthelloGame game = nextGame();
+        OthelloBoard board = game.getBoard();
+        for (long moves = game.getValidMovesMask(game.getCurrentPlayer()); moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            blackhole.consume(board.findAllFlippablePieces(square / 8, square % 8, game.getCurrentPlayer()));
+        }
+    }
+
+    /** Plays and takes back every legal move. */
+    @Benchmark
+    public int executeMove() {
+        OthelloGame game = nextGame();
+        OthelloBoard board = game.getBoard();
+        Player player = game.getCurrentPlayer();
+        int flipped = 0;
+        for (long moves = game.getValidMovesMask(player); moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = board.getFlipMask(square / 8, square % 8, player);
+            flipped += board.executeMove(square / 8, square % 8, player);
+            board.undoMove(square / 8, square % 8, flips, player);
+        }
+        return flipped;
+    }
+}
@@ -0,0 +1,85 @@
+package fr.univ_amu.m1info.othello;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of a leaf evaluation on the {@link MidGameCorpus} positions: the square weights,
+ * the patterns computed from scratch, and the patterns kept up to date along a move
+ * (play, evaluate, undo, as the search does at its last ply).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    private final PatternEvaluator patterns = PatternEvaluator.withDefaultWeights();
+    private Position[] positions;
+    private Evaluator.State[] states;
+    private int[] moves;
+    private long[] flips;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<OthelloGame> corpus = MidGameCorpus.games();
+        positions = new Position[corpus.size()];
+        states = new Evaluator.State[corpus.size()];
+        moves = new int[corpus.size()];
+        flips = new long[corpus.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Position position = corpus.get(i).getPosition();
+            positions[i] = position;
+            states[i] = patterns.newState(position.black(), position.white());
+            moves[i] = Long.numberOfTrailingZeros(position.legalMoves());
+            flips[i] = BitBoard.flips(moves[i], position.own(), position.opponent());
+        }
+    }
+
+    private Position nextPosition() {
+        Position position = positions[next];
+        next = (next + 1) % positions.length;
+        return position;
+    }
+
+    /** The default square weights and mobility evaluation. */
+    @Benchmark
+    public int squareWeights() {
+        Position position = nextPosition();
+        return Evaluator.SQUARE_WEIGHTS.evaluate(position.own(), position.opponent());
+    }
+
+    /** The pattern codes computed from the masks. */
+    @Benchmark
+    public int patternsFromScratch() {
+        Position position = nextPosition();
+        return patterns.evaluate(position.own(), position.opponent());
+    }
+
+    /** The pattern codes updated by a move, then restored. */
+    @Benchmark
+    public int patternsIncremental() {
+        int i = next;
+        Position position = nextPosition();
+        Evaluator.State state = states[i];
+        long placed = flips[i] | (1L << moves[i]);
+        state.play(moves[i], flips[i], position.toMove());
+        int score = state.evaluate(position.opponent() ^ flips[i], position.own() ^ placed,
+                position.toMove().getOpponent());
+        state.undo(moves[i], flips[i], position.toMove());
+        return score;
+    }
+}
@@ -0,0 +1,56 @@
+package fr.univ_amu.m1info.othello;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link OthelloGame} operations used by the controller on every turn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private List<OthelloGame> corpus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        corpus = MidGameCorpus.games();
+    }
+
+    private OthelloGame nextGame() {
+        OthelloGame game = corpus.get(next);
+        next = (next + 1) % corpus.size();
+        return game;
+    }
+
+    @Benchmark
+    public List<Coordinates> getValidMoves() {
+        OthelloGame game = nextGame();
+        return game.getValidMoves(game.getCurrentPlayer());
+    }
+
+    /** Plays the first legal move and undoes it. */
+    @Benchmark
+    public MoveResult playMoveAndUndo() {
+        OthelloGame game = nextGame();
+        int square = Long.numberOfTrailingZeros(game.getValidMovesMask(game.getCurrentPlayer()));
+        MoveResult result = game.playMove(square / 8, square % 8, 0);
+        game.undo();
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package fr.univ_amu.m1info.othello;
+
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDimensions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fixed corpus of mid-game positions shared by the benchmarks, so that results
+ * stay comparable across commits.
+ */
+final class MidGameCorpus {
+    static final int GAMES = 32;
+    static final int PLIES = 24;
+    private static final long SEED = 0xBE7CL;
+
+    private MidGameCorpus() {
+    }
+
+    /**
+     * Builds the games of the corpus: each one is played randomly (with a fixed seed)
+     * from the start position and is still in progress.
+     *
+     * @return new games, in the same positions at every call
+     */
+    static List<OthelloGame> games() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<OthelloGame> games = new ArrayList<>(GAMES);
+        while (games.size() < GAMES) {
+            OthelloGame game = new OthelloGame(new BoardGameDimensions(8, 8));
+            for (int ply = 0; ply < PLIES && game.getStatus() == GameStatus.IN_PROGRESS; ply++) {
+                List<Coordinates> moves = game.getValidMoves(game.getCurrentPlayer());
+                Coordinates move = moves.get(random.nextInt(moves.size()));
+                game.playMove(move.row(), move.column(), 0);
+            }
+            if (game.getStatus() == GameStatus.IN_PROGRESS && game.hasValidMoves(game.getCurrentPlayer())) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,66 @@
+package fr.univ_amu.m1info.othello;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of a robot move decision for each {@link RobotDifficulty}.
+ * The expert search runs to a fixed depth instead of a time budget, so that its
+ * time measures the work done rather than the budget, and starts from an empty
+ * transposition table, so that the corpus positions are not answered from the previous rounds.
+ * The Monte Carlo search likewise runs a fixed number of playouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RobotBenchmark {
+    private static final int EXPERT_DEPTH = 6;
+    private static final int TABLE_SIZE_LOG2 = 16;
+    private static final int MCTS_PLAYOUTS = 2000;
+
+    @Param({"EASY", "HARD", "EXPERT", "MCTS"})
+    private RobotDifficulty difficulty;
+
+    private List<OthelloGame> corpus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        corpus = MidGameCorpus.games();
+        for (OthelloGame game : corpus) {
+            game.getSearchEngine().setMaxDepth(EXPERT_DEPTH);
+            game.getSearchEngine().setTimeBudgetMillis(TimeUnit.MINUTES.toMillis(1));
+            game.getSearchEngine().setTranspositionTable(new TranspositionTable(TABLE_SIZE_LOG2));
+            game.getMctsEngine().setPlayoutBudget(MCTS_PLAYOUTS);
+            game.getMctsEngine().setTimeBudgetMillis(TimeUnit.MINUTES.toMillis(1));
+        }
+    }
+
+    /** Lets the robot play in the next position, then takes the move back. */
+    @Benchmark
+    public Coordinates robotMove() {
+        OthelloGame game = corpus.get(next);
+        next = (next + 1) % corpus.size();
+        if (difficulty == RobotDifficulty.EXPERT) {
+            game.getSearchEngine().getTranspositionTable().clear();
+        }
+        Coordinates move = game.playRobotMove(difficulty, 0);
+        game.undo();
+        return move;
+    }
+}
@@ -7,6 +7,18 @@ package fr.univ_amu.m1info.board_game_library.graphics;
  */
 public interface BoardGameView {
 
+    /**
+     * Applies a group of updates (cell colors, shapes, labels...) as a single change of the view:
+     * implementations may defer redrawing until all of them are applied, so that a whole move
+     * is displayed in one frame.
+     * The default implementation simply runs the updates.
+     *
+     * @param updates the calls to make on this view.
+     */
+    default void batchUpdate(Runnable updates) {
+        updates.run();
+    }
+
     /**
      * Updates the text of a labeled element in the game view.
      *
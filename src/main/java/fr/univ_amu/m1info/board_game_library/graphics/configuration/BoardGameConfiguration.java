@@ -4,14 +4,37 @@ import java.util.List;
 
 /**
  * Record that represents the configuration of a board game.
- * It stores essential information such as the game's title, dimensions, and labeled elements.
+ * It stores essential information such as the game's title, dimensions, labeled elements
+ * and how the board is rendered.
  *
  * @param title the title of the board game.
  * @param dimensions the dimensions of the board, represented by {@link BoardGameDimensions}.
  * @param labeledElementConfigurations the list of configurations for labeled elements in the game,
  *                                     represented by {@link LabeledElementConfiguration}.
+ * @param boardRenderer the renderer of the board, represented by {@link BoardRenderer}
+ *                      ({@link BoardRenderer#GRID} if null).
  */
 public record BoardGameConfiguration(String title,
                                      BoardGameDimensions dimensions,
-                                     List<LabeledElementConfiguration> labeledElementConfigurations) {
+                                     List<LabeledElementConfiguration> labeledElementConfigurations,
+                                     BoardRenderer boardRenderer) {
+
+    public BoardGameConfiguration {
+        if (boardRenderer == null) {
+            boardRenderer = BoardRenderer.GRID;
+        }
+    }
+
+    /**
+     * Creates a configuration whose board is rendered as a grid of nodes.
+     *
+     * @param title the title of the board game.
+     * @param dimensions the dimensions of the board.
+     * @param labeledElementConfigurations the list of configurations for labeled elements in the game.
+     */
+    public BoardGameConfiguration(String title,
+                                  BoardGameDimensions dimensions,
+                                  List<LabeledElementConfiguration> labeledElementConfigurations) {
+        this(title, dimensions, labeledElementConfigurations, BoardRenderer.GRID);
+    }
 }
@@ -0,0 +1,16 @@
+package fr.univ_amu.m1info.board_game_library.graphics.configuration;
+
+/**
+ * Enum representing the ways the board of a game can be rendered.
+ */
+public enum BoardRenderer {
+
+    /** One JavaFX node per square, laid out in a grid (the default). */
+    GRID,
+
+    /**
+     * A single canvas on which only the changed squares are redrawn.
+     * It avoids layout passes, for very large boards and fast replays.
+     */
+    CANVAS
+}
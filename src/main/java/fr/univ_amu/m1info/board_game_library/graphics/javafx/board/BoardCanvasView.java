@@ -0,0 +1,288 @@
+package fr.univ_amu.m1info.board_game_library.graphics.javafx.board;
+
+import fr.univ_amu.m1info.board_game_library.graphics.Color;
+import fr.univ_amu.m1info.board_game_library.graphics.Shape;
+import fr.univ_amu.m1info.board_game_library.graphics.javafx.color.JavaFXColorMapper;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+import java.util.Arrays;
+
+/**
+ * Board drawn on a single {@link Canvas}: no node, layout or picking per square.
+ * The view keeps the color and shapes of every square and redraws only the square
+ * changed by each call; between {@link #beginUpdate()} and {@link #endUpdate()} changed squares
+ * are only recorded, and each of them is redrawn once at the end.
+ * Clicks are mapped back to a square from their coordinates.
+ * Squares shrink on large boards so that the canvas stays at most {@value #MAX_BOARD_SIZE} pixels wide.
+ */
+public class BoardCanvasView extends Canvas implements BoardView {
+    private final static int BASE_SQUARE_SIZE = 65;
+    private final static int MIN_SQUARE_SIZE = 4;
+    private final static int MAX_BOARD_SIZE = 1040;
+    private final static double SUGGESTION_OPACITY = 0.5;
+    private final static int SHAPE_KINDS = Shape.values().length;
+
+    private int rowCount;
+    private int columnCount;
+    private int squareSize = BASE_SQUARE_SIZE;
+    private javafx.scene.paint.Color[] squareColors;
+    // shapes of each square, in drawing order (at most one per kind, as in SquareView)
+    private Shape[][] squareShapes;
+    private javafx.scene.paint.Color[][] shapeColors;
+    private int[] shapeCounts;
+    // geometry of each shape kind at the current square size, by ordinal
+    private final double[][] shapeGeometries = new double[SHAPE_KINDS][];
+    private BoardActionOnClick boardActionOnClick;
+    // squares changed during the current group of updates
+    private int updateDepth;
+    private boolean[] dirty;
+    private int[] dirtySquares;
+    private int dirtyCount;
+
+    // scratch buffers of the polygon being drawn
+    private final double[] xPoints = new double[10];
+    private final double[] yPoints = new double[10];
+
+    public BoardCanvasView() {
+        setOnMouseClicked(event -> {
+            int row = (int) (event.getY() / squareSize);
+            int column = (int) (event.getX() / squareSize);
+            if (boardActionOnClick != null && isOnBoard(row, column)) {
+                boardActionOnClick.onClick(row, column);
+            }
+        });
+    }
+
+    @Override
+    public void setDimensions(int rowCount, int columnCount) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        int largest = Math.max(1, Math.max(rowCount, columnCount));
+        squareSize = Math.max(MIN_SQUARE_SIZE, Math.min(BASE_SQUARE_SIZE, MAX_BOARD_SIZE / largest));
+        setWidth((double) columnCount * squareSize);
+        setHeight((double) rowCount * squareSize);
+        for (Shape shape : Shape.values()) {
+            shapeGeometries[shape.ordinal()] = ShapeFactory.prototype(shape, squareSize);
+        }
+        int squares = rowCount * columnCount;
+        squareColors = new javafx.scene.paint.Color[squares];
+        Arrays.fill(squareColors, javafx.scene.paint.Color.WHITE);
+        squareShapes = new Shape[squares][SHAPE_KINDS];
+        shapeColors = new javafx.scene.paint.Color[squares][SHAPE_KINDS];
+        shapeCounts = new int[squares];
+        dirty = new boolean[squares];
+        dirtySquares = new int[squares];
+        dirtyCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                drawSquare(row, column);
+            }
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Gets the side of a square in pixels.
+     *
+     * @return the square size
+     */
+    public int getSquareSize() {
+        return squareSize;
+    }
+
+    @Override
+    public void setColorSquare(int row, int column, Color color) {
+        squareColors[index(row, column)] = JavaFXColorMapper.getJavaFXColor(color);
+        drawSquare(row, column);
+    }
+
+    @Override
+    public void setAction(BoardActionOnClick boardActionOnClick) {
+        this.boardActionOnClick = boardActionOnClick;
+    }
+
+    @Override
+    public void addShapeAtSquare(int row, int column, Shape shape, Color color) {
+        int index = index(row, column);
+        Shape[] shapes = squareShapes[index];
+        javafx.scene.paint.Color[] colors = shapeColors[index];
+        int count = shapeCounts[index];
+        // a shape already present is moved on top with its new color
+        int position = 0;
+        while (position < count && shapes[position] != shape) {
+            position++;
+        }
+        if (position == count) {
+            count++;
+        }
+        for (int i = position; i < count - 1; i++) {
+            shapes[i] = shapes[i + 1];
+            colors[i] = colors[i + 1];
+        }
+        shapes[count - 1] = shape;
+        colors[count - 1] = JavaFXColorMapper.getJavaFXColor(color);
+        shapeCounts[index] = count;
+        drawSquare(row, column);
+    }
+
+    @Override
+    public void removeShapesAtSquare(int row, int column) {
+        int index = index(row, column);
+        if (shapeCounts[index] != 0) {
+            shapeCounts[index] = 0;
+            drawSquare(row, column);
+        }
+    }
+
+    @Override
+    public void beginUpdate() {
+        updateDepth++;
+    }
+
+    @Override
+    public void endUpdate() {
+        if (updateDepth == 0 || --updateDepth > 0) {
+            return;
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtySquares[i];
+            dirty[index] = false;
+            drawSquare(index / columnCount, index % columnCount);
+        }
+        dirtyCount = 0;
+    }
+
+    @Override
+    public void clearSuggestions() {
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                removeSuggestion(row, column);
+            }
+        }
+    }
+
+    @Override
+    public Node getNode() {
+        return this;
+    }
+
+    private void removeSuggestion(int row, int column) {
+        int index = index(row, column);
+        Shape[] shapes = squareShapes[index];
+        javafx.scene.paint.Color[] colors = shapeColors[index];
+        int count = shapeCounts[index];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (shapes[i] != Shape.SUGGESTION) {
+                shapes[kept] = shapes[i];
+                colors[kept] = colors[i];
+                kept++;
+            }
+        }
+        if (kept != count) {
+            shapeCounts[index] = kept;
+            drawSquare(row, column);
+        }
+    }
+
+    private boolean isOnBoard(int row, int column) {
+        return row >= 0 && row < rowCount && column >= 0 && column < columnCount;
+    }
+
+    private int index(int row, int column) {
+        return row * columnCount + column;
+    }
+
+    /**
+     * Redraws one square: background, border, then its shapes in order
+     * (or records it for the end of the current group of updates).
+     */
+    private void drawSquare(int row, int column) {
+        int index = index(row, column);
+        if (updateDepth > 0) {
+            if (!dirty[index]) {
+                dirty[index] = true;
+                dirtySquares[dirtyCount++] = index;
+            }
+            return;
+        }
+        GraphicsContext graphics = getGraphicsContext2D();
+        double x = (double) column * squareSize;
+        double y = (double) row * squareSize;
+        graphics.setFill(squareColors[index]);
+        graphics.fillRect(x, y, squareSize, squareSize);
+        graphics.setStroke(javafx.scene.paint.Color.BLACK);
+        graphics.setLineWidth(1);
+        graphics.strokeRect(x + 0.5, y + 0.5, squareSize - 1, squareSize - 1);
+        double centerX = x + squareSize / 2.;
+        double centerY = y + squareSize / 2.;
+        for (int i = 0; i < shapeCounts[index]; i++) {
+            Shape shape = squareShapes[index][i];
+            graphics.setGlobalAlpha(shape == Shape.SUGGESTION ? SUGGESTION_OPACITY : 1);
+            graphics.setFill(shapeColors[index][i]);
+            drawShape(graphics, shape, centerX, centerY);
+        }
+        graphics.setGlobalAlpha(1);
+    }
+
+    private void drawShape(GraphicsContext graphics, Shape shape, double centerX, double centerY) {
+        double[] geometry = shapeGeometries[shape.ordinal()];
+        switch (shape) {
+            case CIRCLE, SUGGESTION -> {
+                double radius = geometry[0];
+                graphics.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+            }
+            case SQUARE -> graphics.fillRect(centerX - geometry[0] / 2, centerY - geometry[1] / 2,
+                    geometry[0], geometry[1]);
+            case DIAMOND -> {
+                // a square rotated by 45 degrees
+                double halfDiagonal = geometry[0] / Math.sqrt(2);
+                xPoints[0] = centerX;
+                yPoints[0] = centerY - halfDiagonal;
+                xPoints[1] = centerX + halfDiagonal;
+                yPoints[1] = centerY;
+                xPoints[2] = centerX;
+                yPoints[2] = centerY + halfDiagonal;
+                xPoints[3] = centerX - halfDiagonal;
+                yPoints[3] = centerY;
+                graphics.fillPolygon(xPoints, yPoints, 4);
+            }
+            case TRIANGLE, STAR -> fillCenteredPolygon(graphics, geometry, centerX, centerY);
+        }
+    }
+
+    /**
+     * Fills a polygon centered on a point, as a {@code StackPane} centers a shape node.
+     */
+    private void fillCenteredPolygon(GraphicsContext graphics, double[] points, double centerX, double centerY) {
+        int count = points.length / 2;
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, points[2 * i]);
+            maxX = Math.max(maxX, points[2 * i]);
+            minY = Math.min(minY, points[2 * i + 1]);
+            maxY = Math.max(maxY, points[2 * i + 1]);
+        }
+        double offsetX = centerX - (minX + maxX) / 2;
+        double offsetY = centerY - (minY + maxY) / 2;
+        for (int i = 0; i < count; i++) {
+            xPoints[i] = points[2 * i] + offsetX;
+            yPoints[i] = points[2 * i + 1] + offsetY;
+        }
+        graphics.fillPolygon(xPoints, yPoints, count);
+    }
+}
@@ -3,10 +3,11 @@ package fr.univ_amu.m1info.board_game_library.graphics.javafx.board;
 import fr.univ_amu.m1info.board_game_library.graphics.Color;
 import fr.univ_amu.m1info.board_game_library.graphics.Shape;
 import fr.univ_amu.m1info.board_game_library.graphics.javafx.color.JavaFXColorMapper;
+import javafx.scene.Node;
 import javafx.scene.layout.GridPane;
 
 
-public class BoardGridView extends GridPane {
+public class BoardGridView extends GridPane implements BoardView {
     private final static int BASE_SQUARE_SIZE = 65;
     private SquareView[][] squareViews;
     private int rowCount;
@@ -16,6 +17,7 @@ public class BoardGridView extends GridPane {
     public BoardGridView() {
     }
 
+    @Override
     public void setDimensions(int rowCount, int columnCount) {
         squareViews = new SquareView[rowCount][columnCount];
         this.rowCount = rowCount;
@@ -33,10 +35,12 @@ public class BoardGridView extends GridPane {
         this.add(squareViews[row][column], column, row);
     }
 
+    @Override
     public void setColorSquare(int row, int column, Color color) {
         squareViews[row][column].setColor(JavaFXColorMapper.getJavaFXColor(color));
     }
 
+    @Override
     public void setAction(BoardActionOnClick boardActionOnClick) {
         this.boardActionOnClick = boardActionOnClick;
         setActionOnSquares();
@@ -50,16 +54,18 @@ public class BoardGridView extends GridPane {
         }
     }
 
+    @Override
     public void addShapeAtSquare(int row, int column, Shape shape, Color color) {
         squareViews[row][column].addShape(shape, color);
     }
 
+    @Override
     public void removeShapesAtSquare(int row, int column) {
         squareViews[row][column].removeShapes();
     }
 
 
-    /** Remove all suggestion overlays from every square. */
+    @Override
     public void clearSuggestions() {
         for (int r = 0; r < rowCount; r++) {
             for (int c = 0; c < columnCount; c++) {
@@ -67,5 +73,9 @@ public class BoardGridView extends GridPane {
             }
         }
     }
-}
 
+    @Override
+    public Node getNode() {
+        return this;
+    }
+}
@@ -0,0 +1,46 @@
+package fr.univ_amu.m1info.board_game_library.graphics.javafx.board;
+
+import fr.univ_amu.m1info.board_game_library.graphics.Color;
+import fr.univ_amu.m1info.board_game_library.graphics.Shape;
+import javafx.scene.Node;
+
+/**
+ * The board part of the JavaFX view, implemented by {@link BoardGridView} and {@link BoardCanvasView}.
+ */
+public interface BoardView {
+    void setDimensions(int rowCount, int columnCount);
+
+    int getRowCount();
+
+    int getColumnCount();
+
+    void setColorSquare(int row, int column, Color color);
+
+    void setAction(BoardActionOnClick boardActionOnClick);
+
+    void addShapeAtSquare(int row, int column, Shape shape, Color color);
+
+    void removeShapesAtSquare(int row, int column);
+
+    /**
+     * Starts a group of updates: an implementation may defer drawing until {@link #endUpdate()}.
+     */
+    default void beginUpdate() {
+    }
+
+    /**
+     * Ends a group of updates started by {@link #beginUpdate()}.
+     */
+    default void endUpdate() {
+    }
+
+    /** Remove all suggestion overlays from every square. */
+    void clearSuggestions();
+
+    /**
+     * Gets the node to add to the scene.
+     *
+     * @return the node displaying the board
+     */
+    Node getNode();
+}
@@ -1,65 +1,80 @@
 package fr.univ_amu.m1info.board_game_library.graphics.javafx.board;
 
 import fr.univ_amu.m1info.board_game_library.graphics.Shape;
-import javafx.collections.ObservableList;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.transform.Rotate;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the JavaFX nodes of the board shapes.
+ * The geometry of each shape (radius, sides or polygon points) is computed once per square size
+ * and kept as a prototype: a JavaFX node can only have one parent, so every call still returns
+ * a new node, but built from the cached geometry.
+ */
 public class ShapeFactory {
 
     public static final double SHAPE_SIZE_RATIO = (3. / 4);
 
-    public static javafx.scene.shape.Shape makeShape(Shape shape, double squareSize){
-        return switch (shape) {
-            case CIRCLE -> makeCircle(squareSize);
-            case SQUARE -> makeSquare(squareSize);
-            case DIAMOND -> makeDiamond(squareSize);
-            case TRIANGLE -> makeTriangle(squareSize);
-            case STAR -> makeStar(squareSize);
-            case SUGGESTION -> makeSuggestion(squareSize);
-        };
+    private record PrototypeKey(Shape shape, double squareSize) {
     }
 
-    private static javafx.scene.shape.Shape makeStar(double squareSize) {
-        Polygon polygon = new Polygon();
-        var points = polygon.getPoints();
-        for (int i = 0; i < 10; i++) {
-            double radius = (i%2 == 0) ? SHAPE_SIZE_RATIO /2 * squareSize : SHAPE_SIZE_RATIO /4 * squareSize;
-            double angle = Math.PI * i / 5 + Math.PI / 10;
-            points.add(radius * Math.cos(angle));
-            points.add(radius * Math.sin(angle));
-        }
-        return polygon;
-    }
+    private static final Map<PrototypeKey, double[]> PROTOTYPES = new ConcurrentHashMap<>();
 
-    private static javafx.scene.shape.Shape makeTriangle(double squareSize) {
-        Polygon polygon = new Polygon();
-        ObservableList<Double> points = polygon.getPoints();
-        points.addAll(0.0, 0.0);
-        points.addAll(SHAPE_SIZE_RATIO * squareSize, 0.);
-        points.addAll(SHAPE_SIZE_RATIO / 2 * squareSize, SHAPE_SIZE_RATIO * squareSize);
-        return polygon;
+    public static javafx.scene.shape.Shape makeShape(Shape shape, double squareSize){
+        double[] geometry = prototype(shape, squareSize);
+        return switch (shape) {
+            case CIRCLE, SUGGESTION -> new Circle(geometry[0]);
+            case SQUARE -> new Rectangle(geometry[0], geometry[1]);
+            case DIAMOND -> {
+                Rectangle rectangle = new Rectangle(geometry[0], geometry[1]);
+                rectangle.getTransforms().add(new Rotate(45, 0, 0));
+                yield rectangle;
+            }
+            case TRIANGLE, STAR -> new Polygon(geometry);
+        };
     }
 
-    private static Rectangle makeDiamond(double squareSize) {
-        Rectangle rectangle = new Rectangle(SHAPE_SIZE_RATIO /Math.sqrt(2) * squareSize,
-                SHAPE_SIZE_RATIO /Math.sqrt(2) * squareSize);
-        rectangle.getTransforms().add(new Rotate(45, 0, 0));
-        return rectangle;
+    /**
+     * Gets the geometry of a shape for a square size, computing it on first use.
+     */
+    static double[] prototype(Shape shape, double squareSize) {
+        return PROTOTYPES.computeIfAbsent(new PrototypeKey(shape, squareSize),
+                key -> makeGeometry(key.shape(), key.squareSize()));
     }
 
-    private static Rectangle makeSquare(double squareSize) {
-        return new Rectangle(SHAPE_SIZE_RATIO * squareSize, SHAPE_SIZE_RATIO * squareSize);
+    private static double[] makeGeometry(Shape shape, double squareSize) {
+        return switch (shape) {
+            case CIRCLE -> new double[] {(3. / 8) * squareSize};
+            // smaller than a normal piece
+            case SUGGESTION -> new double[] {(1. / 4) * squareSize};
+            case SQUARE -> new double[] {SHAPE_SIZE_RATIO * squareSize, SHAPE_SIZE_RATIO * squareSize};
+            case DIAMOND -> new double[] {SHAPE_SIZE_RATIO / Math.sqrt(2) * squareSize,
+                    SHAPE_SIZE_RATIO / Math.sqrt(2) * squareSize};
+            case TRIANGLE -> makeTrianglePoints(squareSize);
+            case STAR -> makeStarPoints(squareSize);
+        };
     }
 
-    private static Circle makeCircle(double squareSize) {
-        return new Circle((3. / 8) * squareSize);
+    private static double[] makeStarPoints(double squareSize) {
+        double[] points = new double[20];
+        for (int i = 0; i < 10; i++) {
+            double radius = (i%2 == 0) ? SHAPE_SIZE_RATIO /2 * squareSize : SHAPE_SIZE_RATIO /4 * squareSize;
+            double angle = Math.PI * i / 5 + Math.PI / 10;
+            points[2 * i] = radius * Math.cos(angle);
+            points[2 * i + 1] = radius * Math.sin(angle);
+        }
+        return points;
     }
 
-    private static Circle makeSuggestion(double squareSize) {
-        // smaller than a normal piece
-        return new Circle((1. / 4) * squareSize);
+    private static double[] makeTrianglePoints(double squareSize) {
+        return new double[] {
+                0.0, 0.0,
+                SHAPE_SIZE_RATIO * squareSize, 0.,
+                SHAPE_SIZE_RATIO / 2 * squareSize, SHAPE_SIZE_RATIO * squareSize
+        };
     }
 }
@@ -7,12 +7,22 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A square of the board. Each square owns at most one node per shape kind: adding a shape
+ * shows and recolors the pooled node instead of creating one, removing it only hides it,
+ * so redrawing a square allocates no node once every kind it displays has been shown.
+ * The disc ({@link Shape#CIRCLE}) and suggestion nodes are built with the square.
+ */
 public class SquareView extends StackPane {
     private final int column;
     private final int row;
     private final Rectangle squareBackground;
     private final Group shapes = new Group();
     private final int squareSize;
+    private final Map<Shape, javafx.scene.shape.Shape> pooledShapes = new EnumMap<>(Shape.class);
 
 
     public SquareView(int column, int row, int squareSize) {
@@ -26,6 +36,8 @@ public class SquareView extends StackPane {
         this.getChildren().add(shapes);
         squareBackground.setStroke(Color.BLACK);
         setColor(Color.WHITE);
+        pooledShape(Shape.CIRCLE);
+        pooledShape(Shape.SUGGESTION);
     }
 
     public void setColor(Color backgroundColor) {
@@ -37,30 +49,45 @@ public class SquareView extends StackPane {
     }
 
     void addShape(Shape shape, fr.univ_amu.m1info.board_game_library.graphics.Color color){
-        javafx.scene.shape.Shape shapeFX = ShapeFactory.makeShape(shape, squareSize);
+        javafx.scene.shape.Shape shapeFX = pooledShape(shape);
         shapeFX.setFill(JavaFXColorMapper.getJavaFXColor(color));
-        // Special-case suggestion shapes: make them semi-transparent 
-        if (shape == fr.univ_amu.m1info.board_game_library.graphics.Shape.SUGGESTION) {
-            shapeFX.setOpacity(0.5);
-            shapeFX.setMouseTransparent(true);
-            // mark so we can remove suggestion shapes without touching pieces
-            shapeFX.setId("suggestion");
+        if (!shapeFX.isVisible()) {
+            shapeFX.setVisible(true);
+            // the last added shape is drawn on top, as when shapes were appended
+            shapeFX.toFront();
         }
-        shapes.getChildren().add(shapeFX);
     }
 
     public void removeShapes() {
-        shapes.getChildren().clear();
+        for (javafx.scene.shape.Shape shapeFX : pooledShapes.values()) {
+            shapeFX.setVisible(false);
+        }
     }
 
     /**
      * Remove only suggestion overlay shapes from this square, keeping piece shapes.
      */
     public void removeSuggestionShapes() {
-        // removeIf : supprime tous les enfants du groupe shapes dont l'id est "suggestion"
-        // Autrement dit, on parcourt tous les éléments graphiques de la case,
-        // et on retire uniquement ceux qui ont été marqués comme suggestion (les overlays d'aide).
-        // Cela permet de garder les vrais pions et d'effacer seulement les ronds d'aide.
-        shapes.getChildren().removeIf(n -> "suggestion".equals(n.getId()));
+        pooledShapes.get(Shape.SUGGESTION).setVisible(false);
+    }
+
+    /**
+     * Gets the node of a shape kind, building it (hidden) on first use.
+     */
+    private javafx.scene.shape.Shape pooledShape(Shape shape) {
+        javafx.scene.shape.Shape shapeFX = pooledShapes.get(shape);
+        if (shapeFX == null) {
+            shapeFX = ShapeFactory.makeShape(shape, squareSize);
+            // Special-case suggestion shapes: make them semi-transparent
+            if (shape == Shape.SUGGESTION) {
+                shapeFX.setOpacity(0.5);
+                shapeFX.setMouseTransparent(true);
+                shapeFX.setId("suggestion");
+            }
+            shapeFX.setVisible(false);
+            pooledShapes.put(shape, shapeFX);
+            shapes.getChildren().add(shapeFX);
+        }
+        return shapeFX;
     }
 }
@@ -7,6 +7,7 @@ public class BoardGameConfigurator {
     public void configure(BoardGameViewBuilder boardGameViewBuilder,
                    BoardGameConfiguration boardGameConfiguration) {
         boardGameViewBuilder = boardGameViewBuilder
+                .setBoardRenderer(boardGameConfiguration.boardRenderer())
                 .resetView()
                 .setTitle(boardGameConfiguration.title())
                 .setBoardGameDimensions(boardGameConfiguration.dimensions().rowCount(),
@@ -1,6 +1,10 @@
 package fr.univ_amu.m1info.board_game_library.graphics.javafx.view;
 
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardRenderer;
+
 public interface BoardGameViewBuilder {
+    /** Chooses how the board is rendered; takes effect at the next {@link #resetView()}. */
+    BoardGameViewBuilder setBoardRenderer(BoardRenderer boardRenderer);
     BoardGameViewBuilder resetView();
     BoardGameViewBuilder setBoardGameDimensions(int rowCount, int columnCount);
     BoardGameViewBuilder setTitle(String title);
@@ -2,7 +2,10 @@ package fr.univ_amu.m1info.board_game_library.graphics.javafx.view;
 
 import fr.univ_amu.m1info.board_game_library.graphics.BoardGameController;
 import fr.univ_amu.m1info.board_game_library.graphics.javafx.bar.Bar;
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardRenderer;
+import fr.univ_amu.m1info.board_game_library.graphics.javafx.board.BoardCanvasView;
 import fr.univ_amu.m1info.board_game_library.graphics.javafx.board.BoardGridView;
+import fr.univ_amu.m1info.board_game_library.graphics.javafx.board.BoardView;
 import fr.univ_amu.m1info.board_game_library.graphics.Color;
 import fr.univ_amu.m1info.board_game_library.graphics.Shape;
 import javafx.application.Platform;
@@ -10,9 +13,14 @@ import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+/**
+ * JavaFX implementation of the view. Like every JavaFX node it is confined to the JavaFX
+ * application thread, so its methods take no lock; {@link #batchUpdate(Runnable)} hands the
+ * updates over to that thread when called from another one.
+ */
 public class JavaFXBoardGameView implements BoardGameControllableView {
     private final Stage stage;
-    private BoardGridView boardGridView;
+    private BoardView boardView;
     private Bar bar;
     private BoardGameController controller;
 
@@ -35,12 +43,19 @@ public class JavaFXBoardGameView implements BoardGameControllableView {
         stage.sizeToScene();
     }
 
-    public synchronized void reset() {
+    public void reset() {
+        reset(BoardRenderer.GRID);
+    }
+
+    public void reset(BoardRenderer boardRenderer) {
         VBox vBox = new VBox();
         bar = new Bar();
-        boardGridView = new BoardGridView();
+        boardView = switch (boardRenderer) {
+            case GRID -> new BoardGridView();
+            case CANVAS -> new BoardCanvasView();
+        };
         vBox.getChildren().add(bar);
-        vBox.getChildren().add(boardGridView);
+        vBox.getChildren().add(boardView.getNode());
         Scene scene = new Scene(vBox);
         stage.setScene(scene);
         // Ajuster la taille de la fenêtre au contenu pour limiter les marges blanches
@@ -49,37 +64,55 @@ public class JavaFXBoardGameView implements BoardGameControllableView {
 
 
 
+    /**
+     * Applies the updates in one go on the JavaFX application thread, so they are all shown
+     * by the same pulse; the canvas board redraws each changed square once, at the end.
+     */
+    @Override
+    public void batchUpdate(Runnable updates) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> batchUpdate(updates));
+            return;
+        }
+        boardView.beginUpdate();
+        try {
+            updates.run();
+        } finally {
+            boardView.endUpdate();
+        }
+    }
+
     @Override
-    public synchronized void updateLabeledElement(String id, String newText) {
+    public void updateLabeledElement(String id, String newText) {
         bar.updateLabel(id, newText);
     }
 
     @Override
-    public synchronized void setCellColor(int row, int column, Color color) {
-        boardGridView.setColorSquare(row, column, color);
+    public void setCellColor(int row, int column, Color color) {
+        boardView.setColorSquare(row, column, color);
     }
 
     @Override
-    public synchronized void addShapeAtCell(int row, int column, Shape shape, Color color) {
-        boardGridView.addShapeAtSquare(row, column, shape, color);
+    public void addShapeAtCell(int row, int column, Shape shape, Color color) {
+        boardView.addShapeAtSquare(row, column, shape, color);
     }
 
     @Override
-    public synchronized void removeShapesAtCell(int row, int column) {
-        boardGridView.removeShapesAtSquare(row, column);
+    public void removeShapesAtCell(int row, int column) {
+        boardView.removeShapesAtSquare(row, column);
     }
 
     @Override
-    public synchronized void resetBoard() {
-        for(int row = 0; row < boardGridView.getRowCount(); row++){
-            for(int column = 0; column < boardGridView.getColumnCount(); column++){
+    public void resetBoard() {
+        for(int row = 0; row < boardView.getRowCount(); row++){
+            for(int column = 0; column < boardView.getColumnCount(); column++){
                 removeShapesAtCell(row, column);
             }
         }
     }
 
-    public BoardGridView getBoardGridView() {
-        return boardGridView;
+    public BoardView getBoardView() {
+        return boardView;
     }
 
     public Stage getStage() {
@@ -90,31 +123,31 @@ public class JavaFXBoardGameView implements BoardGameControllableView {
         return bar;
     }
 
-    public synchronized void buttonActionOnclick(String id){
+    public void buttonActionOnclick(String id){
         controller.buttonActionOnClick(id);
     }
 
-    public synchronized void boardActionOnclick(int row, int column){
+    public void boardActionOnclick(int row, int column){
         controller.boardActionOnClick(row, column);
     }
 
     @Override
-    public synchronized void removeLabeledElement(String id) {
+    public void removeLabeledElement(String id) {
         bar.removeLabeledElement(id);
     }
 
     @Override
-    public synchronized void addLabel(String label, String id) {
+    public void addLabel(String label, String id) {
         bar.addLabel(label, id);
     }
 
     @Override
-    public synchronized void addButton(String label, String id) {
+    public void addButton(String label, String id) {
         bar.addButton(id,label);
         bar.setButtonAction(id, () -> buttonActionOnclick(id));
     }
     @Override
-    public synchronized void clearSuggestions() {
-        boardGridView.clearSuggestions();
+    public void clearSuggestions() {
+        boardView.clearSuggestions();
     }
 }
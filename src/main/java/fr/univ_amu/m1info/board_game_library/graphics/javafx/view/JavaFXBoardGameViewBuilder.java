@@ -1,24 +1,32 @@
 package fr.univ_amu.m1info.board_game_library.graphics.javafx.view;
 
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardRenderer;
 import javafx.stage.Stage;
 
 public class JavaFXBoardGameViewBuilder implements BoardGameViewBuilder {
     JavaFXBoardGameView boardGameView;
+    private BoardRenderer boardRenderer = BoardRenderer.GRID;
 
     public JavaFXBoardGameViewBuilder(Stage primaryStage) {
         boardGameView = new JavaFXBoardGameView(primaryStage);
     }
 
+    @Override
+    public BoardGameViewBuilder setBoardRenderer(BoardRenderer boardRenderer) {
+        this.boardRenderer = boardRenderer;
+        return this;
+    }
+
     public BoardGameViewBuilder resetView(){
-        boardGameView.reset();
-        boardGameView.getBoardGridView().setAction(boardGameView::boardActionOnclick);
+        boardGameView.reset(boardRenderer);
+        boardGameView.getBoardView().setAction(boardGameView::boardActionOnclick);
         return this;
     }
 
 
     @Override
     public BoardGameViewBuilder setBoardGameDimensions(int rowCount, int columnCount) {
-        boardGameView.getBoardGridView().setDimensions(rowCount, columnCount);
+        boardGameView.getBoardView().setDimensions(rowCount, columnCount);
         return this;
     }
 
@@ -0,0 +1,432 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Bitboard engine behind {@link OthelloBoard}.
+ * The board is stored as two 64-bit masks (one per color); square {@code row * 8 + column}
+ * maps to bit {@code 1L << square}. Move validation, flipping and counting are computed
+ * with shift-and-mask flood fills instead of walking the cells one by one.
+ * The {@link Zobrist} hash of the discs is maintained incrementally by every change.
+ */
+public final class BitBoard {
+    /** Number of rows and columns of the board. */
+    public static final int SIZE = 8;
+
+    /** Number of squares of the board. */
+    public static final int SQUARES = SIZE * SIZE;
+
+    private static final long NOT_FILE_A = 0xFEFEFEFEFEFEFEFEL; // every column but the first
+    private static final long NOT_FILE_H = 0x7F7F7F7F7F7F7F7FL; // every column but the last
+
+    // directions : N, NE, E, SE, S, SW, W, NW (same order as the former dr/dc arrays)
+    private static final int[] SHIFTS = {-8, -7, 1, 9, 8, 7, -1, -9};
+    private static final long[] WRAP_MASKS = {-1L, NOT_FILE_A, NOT_FILE_A, NOT_FILE_A, -1L, NOT_FILE_H, NOT_FILE_H, NOT_FILE_H};
+
+    /** Initial black discs: (3,4) and (4,3). */
+    public static final long INITIAL_BLACK = (1L << 28) | (1L << 35);
+
+    /** Initial white discs: (3,3) and (4,4). */
+    public static final long INITIAL_WHITE = (1L << 27) | (1L << 36);
+
+    private long black;
+    private long white;
+    private long hash;
+    // disc counts, maintained incrementally like the hash
+    private int blackCount;
+    private int whiteCount;
+
+    /**
+     * Creates a bitboard with the standard starting position.
+     */
+    public BitBoard() {
+        reset();
+    }
+
+    /**
+     * Resets the masks to the standard starting position.
+     */
+    public void reset() {
+        black = INITIAL_BLACK;
+        white = INITIAL_WHITE;
+        hash = Zobrist.hash(black, white);
+        recount();
+    }
+
+    /**
+     * Converts a (row, column) position to a square index.
+     *
+     * @param row the row (0-7).
+     * @param column the column (0-7).
+     * @return the square index (0-63).
+     */
+    public static int square(int row, int column) {
+        return row * SIZE + column;
+    }
+
+    /**
+     * Gets the mask of the discs of the given player.
+     *
+     * @param player the player.
+     * @return the mask of the player's discs.
+     */
+    public long discs(Player player) {
+        return player == Player.BLACK ? black : white;
+    }
+
+    /**
+     * Gets the mask of the black discs.
+     *
+     * @return the black mask.
+     */
+    public long black() {
+        return black;
+    }
+
+    /**
+     * Gets the mask of the white discs.
+     *
+     * @return the white mask.
+     */
+    public long white() {
+        return white;
+    }
+
+    /**
+     * Gets the Zobrist hash of the discs (the player to move is not included).
+     *
+     * @return the hash.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Gets the mask of the empty squares.
+     *
+     * @return the empty mask.
+     */
+    public long empty() {
+        return ~(black | white);
+    }
+
+    /**
+     * Replaces both masks.
+     *
+     * @param black the new black mask.
+     * @param white the new white mask.
+     * @throws IllegalArgumentException if the two masks overlap.
+     */
+    public void setMasks(long black, long white) {
+        if ((black & white) != 0) {
+            throw new IllegalArgumentException("Black and white masks overlap");
+        }
+        this.black = black;
+        this.white = white;
+        this.hash = Zobrist.hash(black, white);
+        recount();
+    }
+
+    /**
+     * Gets the state of a square.
+     *
+     * @param square the square index.
+     * @return the cell state of this square.
+     */
+    public CellState get(int square) {
+        long bit = 1L << square;
+        if ((black & bit) != 0) {
+            return CellState.BLACK;
+        }
+        if ((white & bit) != 0) {
+            return CellState.WHITE;
+        }
+        return CellState.EMPTY;
+    }
+
+    /**
+     * Sets the state of a square.
+     *
+     * @param square the square index.
+     * @param state the new cell state.
+     */
+    public void set(int square, CellState state) {
+        long bit = 1L << square;
+        CellState previous = get(square);
+        if (previous != CellState.EMPTY) {
+            hash ^= Zobrist.discKey(square, previous.toPlayer());
+            addCount(previous.toPlayer(), -1);
+        }
+        black &= ~bit;
+        white &= ~bit;
+        if (state == CellState.BLACK) {
+            black |= bit;
+        } else if (state == CellState.WHITE) {
+            white |= bit;
+        }
+        if (state != null && state != CellState.EMPTY) {
+            hash ^= Zobrist.discKey(square, state.toPlayer());
+            addCount(state.toPlayer(), 1);
+        }
+        assert countsMatchMasks() : "Disc counts out of sync after set(" + square + ")";
+    }
+
+    /**
+     * Checks if a square is empty.
+     *
+     * @param square the square index.
+     * @return true if no disc is on this square.
+     */
+    public boolean isEmpty(int square) {
+        return ((black | white) & (1L << square)) == 0;
+    }
+
+    /**
+     * Counts the discs of a player, in constant time: the counts are maintained
+     * by every change of the masks.
+     *
+     * @param player the player.
+     * @return the number of discs of this player.
+     */
+    public int countPieces(Player player) {
+        return player == Player.BLACK ? blackCount : whiteCount;
+    }
+
+    /**
+     * Counts the empty squares, in constant time.
+     *
+     * @return the number of empty squares.
+     */
+    public int countEmpty() {
+        return SQUARES - blackCount - whiteCount;
+    }
+
+    /**
+     * Checks that the maintained counts match the masks (used by assertions, run the tests with {@code -ea}).
+     *
+     * @return true if both counts are those of the masks.
+     */
+    boolean countsMatchMasks() {
+        return blackCount == Long.bitCount(black) && whiteCount == Long.bitCount(white);
+    }
+
+    private void recount() {
+        blackCount = Long.bitCount(black);
+        whiteCount = Long.bitCount(white);
+    }
+
+    private void addCount(Player player, int delta) {
+        if (player == Player.BLACK) {
+            blackCount += delta;
+        } else {
+            whiteCount += delta;
+        }
+    }
+
+    /**
+     * Checks if the player may play on the given square.
+     *
+     * @param square the square index.
+     * @param player the player making the move.
+     * @return true if the square is empty and at least one disc would be flipped.
+     */
+    public boolean isValidMove(int square, Player player) {
+        return isEmpty(square) && flips(square, discs(player), discs(player.getOpponent())) != 0;
+    }
+
+    /**
+     * Checks if the player has at least one legal move.
+     *
+     * @param player the player.
+     * @return true if the player can move.
+     */
+    public boolean hasValidMoves(Player player) {
+        return legalMoves(discs(player), discs(player.getOpponent())) != 0;
+    }
+
+    /**
+     * Places a disc and flips every bracketed opponent disc.
+     * The move is assumed to be legal (see {@link #isValidMove(int, Player)}).
+     *
+     * @param square the square index.
+     * @param player the player making the move.
+     * @return the number of flipped discs.
+     */
+    public int executeMove(int square, Player player) {
+        return makeMove(square, flips(square, discs(player), discs(player.getOpponent())), player);
+    }
+
+    /**
+     * Applies a move whose flips are already known, with one XOR per mask
+     * (plus the hash update). Nothing is validated and nothing is allocated.
+     *
+     * @param square the square index of the placed disc.
+     * @param flips the mask of the flipped discs (see {@link #flips(int, long, long)}).
+     * @param player the player making the move.
+     * @return the number of flipped discs.
+     */
+    public int makeMove(int square, long flips, Player player) {
+        int flipped = Long.bitCount(flips);
+        toggleMove(square, flips, player, flipped + 1, flipped);
+        assert countsMatchMasks() : "Disc counts out of sync after a move on " + square;
+        return flipped;
+    }
+
+    /**
+     * Takes back a move applied with {@link #makeMove(int, long, Player)}:
+     * the same two XORs restore the previous masks.
+     *
+     * @param square the square index of the placed disc.
+     * @param flips the mask of the discs flipped by the move.
+     * @param player the player who made the move.
+     */
+    public void undoMove(int square, long flips, Player player) {
+        int flipped = Long.bitCount(flips);
+        toggleMove(square, flips, player, -flipped - 1, -flipped);
+        assert countsMatchMasks() : "Disc counts out of sync after undoing a move on " + square;
+    }
+
+    /**
+     * XORs a move into the masks and the hash (playing it or taking it back)
+     * and adds the count differences of both players.
+     */
+    private void toggleMove(int square, long flips, Player player, int ownDelta, int flippedDelta) {
+        long placed = 1L << square;
+        if (player == Player.BLACK) {
+            black ^= flips | placed;
+            white ^= flips;
+            blackCount += ownDelta;
+            whiteCount -= flippedDelta;
+        } else {
+            white ^= flips | placed;
+            black ^= flips;
+            whiteCount += ownDelta;
+            blackCount -= flippedDelta;
+        }
+        hash ^= Zobrist.moveKey(square, flips, player);
+    }
+
+    /**
+     * Shifts every disc of a mask one step in a direction, dropping the discs
+     * that would wrap around the board edge.
+     *
+     * @param discs the mask to shift.
+     * @param direction the direction index (N, NE, E, SE, S, SW, W, NW).
+     * @return the shifted mask.
+     */
+    static long shift(long discs, int direction) {
+        int amount = SHIFTS[direction];
+        long shifted = amount > 0 ? discs << amount : discs >>> -amount;
+        return shifted & WRAP_MASKS[direction];
+    }
+
+    /**
+     * Gets the squares next to a disc of a mask, in any of the eight directions.
+     *
+     * @param discs the discs.
+     * @return the mask of the neighbouring squares (the discs themselves included if they touch each other).
+     */
+    static long neighbours(long discs) {
+        long neighbours = 0;
+        for (int d = 0; d < SHIFTS.length; d++) {
+            neighbours |= shift(discs, d);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Computes all the legal moves of a player as a mask, flooding the eight
+     * directions in parallel from the player's discs across opponent discs.
+     *
+     * @param own the discs of the player to move.
+     * @param opponent the discs of the opponent.
+     * @return the mask of the legal moves.
+     */
+    public static long legalMoves(long own, long opponent) {
+        long empty = ~(own | opponent);
+        long moves = 0;
+        for (int d = 0; d < SHIFTS.length; d++) {
+            // at most 6 opponent discs can stand between a move and a bracketing disc
+            long line = shift(own, d) & opponent;
+            line |= shift(line, d) & opponent;
+            line |= shift(line, d) & opponent;
+            line |= shift(line, d) & opponent;
+            line |= shift(line, d) & opponent;
+            line |= shift(line, d) & opponent;
+            moves |= shift(line, d) & empty;
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the index of the n-th set square of a mask, in ascending order.
+     *
+     * @param mask the mask.
+     * @param n the rank of the square (0 for the lowest one).
+     * @return the square index.
+     * @throws IllegalArgumentException if the mask has less than n + 1 squares.
+     */
+    public static int nthSquare(long mask, int n) {
+        if (n < 0 || n >= Long.bitCount(mask)) {
+            throw new IllegalArgumentException("No square of rank " + n + " in mask");
+        }
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Iterates over the squares set in a mask, in ascending order.
+     *
+     * @param mask the mask (for instance the result of {@link #legalMoves(long, long)}).
+     * @return an iterator over the square indexes.
+     */
+    public static PrimitiveIterator.OfInt squares(long mask) {
+        return new PrimitiveIterator.OfInt() {
+            private long remaining = mask;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return square;
+            }
+        };
+    }
+
+    /**
+     * Computes the discs that would be flipped by a move, as a mask.
+     * Emptiness of the square is not checked.
+     *
+     * @param square the square index of the move.
+     * @param own the discs of the player making the move.
+     * @param opponent the discs of the opponent.
+     * @return the mask of the bracketed opponent discs (0 if the move captures nothing).
+     */
+    public static long flips(int square, long own, long opponent) {
+        long placed = 1L << square;
+        long flipped = 0;
+        for (int d = 0; d < SHIFTS.length; d++) {
+            long line = 0;
+            long cursor = shift(placed, d);
+            while ((cursor & opponent) != 0) {
+                line |= cursor;
+                cursor = shift(cursor, d);
+            }
+            if ((cursor & own) != 0) {
+                flipped |= line;
+            }
+        }
+        return flipped;
+    }
+}
@@ -0,0 +1,11 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * A candidate move of the opening book in a position.
+ *
+ * @param square the square index of the move
+ * @param games the number of recorded games that played this move in the position
+ * @param score the score of the player to move in these games, between 0 and 1 (a draw counting as half a win)
+ */
+public record BookMove(int square, int games, double score) {
+}
@@ -0,0 +1,63 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * The canonical form of a position: the representative shared by its 8 symmetric versions
+ * (see {@link Symmetry#canonical(long, long)}), and the symmetry that maps the original position to it.
+ * Caches and books keyed on the canonical form store each position once instead of up to 8 times;
+ * the moves they hold are mapped back to the original board with {@link #fromCanonical(int)}.
+ *
+ * @param position the canonical position
+ * @param symmetry the symmetry from the original position to the canonical one
+ */
+public record CanonicalPosition(Position position, Symmetry symmetry) {
+
+    /**
+     * Computes the canonical form of a position.
+     *
+     * @param original the position
+     * @return its canonical form
+     */
+    public static CanonicalPosition of(Position original) {
+        Symmetry symmetry = Symmetry.canonical(original.black(), original.white());
+        return new CanonicalPosition(original.transform(symmetry), symmetry);
+    }
+
+    /**
+     * Gets the hash of the canonical position, the same for all the symmetric versions of a position.
+     *
+     * @return the Zobrist hash of the canonical position
+     */
+    public long hash() {
+        return position.hash();
+    }
+
+    /**
+     * Maps a move of the original position to the canonical board.
+     * When the canonical position is its own symmetric (the start position for example), its equivalent
+     * moves are all mapped to the same square, the smallest one.
+     *
+     * @param square the square index on the original board
+     * @return the square index on the canonical board
+     */
+    public int toCanonical(int square) {
+        int canonical = symmetry.apply(square);
+        long black = position.black();
+        long white = position.white();
+        for (Symmetry other : Symmetry.values()) {
+            if (other.apply(black) == black && other.apply(white) == white) {
+                canonical = Math.min(canonical, other.apply(symmetry.apply(square)));
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Maps a move of the canonical board back to the original position.
+     *
+     * @param square the square index on the canonical board
+     * @return the square index on the original board
+     */
+    public int fromCanonical(int square) {
+        return symmetry.inverse().apply(square);
+    }
+}
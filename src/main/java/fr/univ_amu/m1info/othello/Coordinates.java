@@ -3,5 +3,20 @@ package fr.univ_amu.m1info.othello;
 /**
  * Représente des coordonnées (ligne, colonne) sur le plateau d'Othello.
  */
-public record Coordinates(int row, int column) { }
+public record Coordinates(int row, int column) {
+
+    /**
+     * Crée les coordonnées correspondant à un indice de case du {@link BitBoard}.
+     */
+    public static Coordinates fromSquare(int square) {
+        return new Coordinates(square / BitBoard.SIZE, square % BitBoard.SIZE);
+    }
+
+    /**
+     * Convertit ces coordonnées en indice de case du {@link BitBoard}.
+     */
+    public int toSquare() {
+        return BitBoard.square(row, column);
+    }
+}
 
@@ -0,0 +1,55 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Represents the outcome of an exact endgame solve.
+ *
+ * @param square the square index of a best move, or -1 if the player has to pass
+ * @param score the final disc differential under perfect play, from the point of view of the player to move
+ *              (only its sign is meaningful when {@code exact} is false)
+ * @param exact true if the score is the exact disc differential, false for a win/loss/draw solve
+ * @param nodes the number of positions visited
+ * @param elapsedMillis the duration of the solve in milliseconds
+ */
+public record EndgameResult(
+    int square,
+    int score,
+    boolean exact,
+    long nodes,
+    long elapsedMillis
+) {
+    /**
+     * Gets the best move.
+     *
+     * @return the coordinates of the move, or null if the player has to pass
+     */
+    public Coordinates move() {
+        return square < 0 ? null : Coordinates.fromSquare(square);
+    }
+
+    /**
+     * Tells if the player to move wins with perfect play.
+     *
+     * @return true for a forced win
+     */
+    public boolean isWin() {
+        return score > 0;
+    }
+
+    /**
+     * Tells if perfect play by both sides ends in a draw.
+     *
+     * @return true for a draw
+     */
+    public boolean isDraw() {
+        return score == 0;
+    }
+
+    /**
+     * Tells if the player to move loses against perfect play.
+     *
+     * @return true for a forced loss
+     */
+    public boolean isLoss() {
+        return score < 0;
+    }
+}
@@ -0,0 +1,391 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Perfect-play endgame solver: searches every line to the end of the game and returns
+ * the exact final disc differential (or only win/loss/draw, which is faster).
+ * Moves are ordered fastest-first (fewest opponent replies) far from the end, by quadrant
+ * parity close to the end, and the last four empty squares are solved by dedicated code
+ * that tries the remaining squares directly instead of generating moves.
+ * A solver is not thread-safe: each searching thread needs its own.
+ */
+public class EndgameSolver {
+    private static final int INFINITY = 100; // above any disc differential
+
+    // below this number of empties, moves are ordered by parity instead of mobility
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+    // from this number of empties, results are kept in the transposition table
+    private static final int TABLE_EMPTIES = 8;
+
+    private static final long[] QUADRANTS = {
+        0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+
+    private final TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_LOG2);
+    // move ordering buffers, one row per number of empties so that recursion never shares a row
+    private final int[][] orderedSquares = new int[BitBoard.SQUARES + 1][32];
+    private final int[][] orderKeys = new int[BitBoard.SQUARES + 1][32];
+
+    private long nodes;
+    // stop flag of the request in progress, only read
+    private volatile AtomicBoolean stop = new AtomicBoolean();
+    // raised by cancel() to stop the solve in progress
+    private volatile AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * Solves a position exactly.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return a best move and the final disc differential under perfect play
+     */
+    public EndgameResult solve(long own, long opponent) {
+        return solve(own, opponent, new AtomicBoolean());
+    }
+
+    /**
+     * Solves a position exactly, unless a stop flag is raised: the flag belongs to the request
+     * and is only read, so raising it before the solve starts is not lost.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param stop the flag that stops the solve (the result is then only the best move found so far)
+     * @return a best move and the final disc differential under perfect play
+     */
+    public EndgameResult solve(long own, long opponent, AtomicBoolean stop) {
+        this.stop = stop;
+        cancelled = new AtomicBoolean();
+        // the win/loss/draw solve is cheap and halves the score range
+        EndgameResult outcome = solve(own, opponent, -1, 1, -1);
+        long nodesSum = outcome.nodes();
+        long elapsed = outcome.elapsedMillis();
+        if (outcome.isDraw() || stopped()) {
+            return new EndgameResult(outcome.square(), outcome.score(), !stopped(), nodesSum, elapsed);
+        }
+        // bisection with null windows: each probe proves the score is above or below a guess,
+        // which costs about as much as a win/loss/draw solve
+        int lower = outcome.isWin() ? 0 : -BitBoard.SQUARES - 1;
+        int upper = outcome.isWin() ? BitBoard.SQUARES : 0;
+        int bestSquare = outcome.square();
+        while (lower < upper && !stopped()) {
+            int guess = (lower + upper) >> 1;
+            EndgameResult probe = solve(own, opponent, guess, guess + 1, bestSquare);
+            nodesSum += probe.nodes();
+            elapsed += probe.elapsedMillis();
+            if (probe.score() > guess) {
+                lower = probe.score();
+                bestSquare = probe.square();
+            } else {
+                upper = probe.score();
+            }
+        }
+        return new EndgameResult(bestSquare, lower, !stopped(), nodesSum, elapsed);
+    }
+
+    /**
+     * Solves a position for the game result only (win, loss or draw), which prunes much more
+     * than an exact solve.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return a best move, and a score whose sign gives the result under perfect play
+     */
+    public EndgameResult solveOutcome(long own, long opponent) {
+        stop = new AtomicBoolean();
+        cancelled = new AtomicBoolean();
+        return solve(own, opponent, -1, 1, -1);
+    }
+
+    /**
+     * Stops the solve in progress, if any. Its result is then only the best move found so far.
+     * A solve that has not started yet is not affected: pass a stop flag to
+     * {@link #solve(long, long, AtomicBoolean)} to cancel a request before it runs.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    private boolean stopped() {
+        return stop.get() || cancelled.get();
+    }
+
+    private EndgameResult solve(long own, long opponent, int alpha, int beta, int firstSquare) {
+        long start = System.currentTimeMillis();
+        nodes = 0;
+        table.newSearch();
+
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            int score = BitBoard.legalMoves(opponent, own) == 0
+                    ? difference(own, opponent)
+                    : -solve(opponent, own, -beta, -alpha, true);
+            return new EndgameResult(-1, score, false, nodes, System.currentTimeMillis() - start);
+        }
+
+        int empties = Long.bitCount(~(own | opponent));
+        int count = orderMoves(own, opponent, moves, empties, firstSquare);
+        int[] squares = orderedSquares[empties];
+        int best = -INFINITY;
+        int bestSquare = squares[0];
+        for (int i = 0; i < count && best < beta && !stopped(); i++) {
+            int square = squares[i];
+            long flips = BitBoard.flips(square, own, opponent);
+            int score = -solve(opponent ^ flips, own ^ (flips | (1L << square)), -beta, -Math.max(alpha, best), false);
+            if (score > best) {
+                best = score;
+                bestSquare = square;
+            }
+        }
+        return new EndgameResult(bestSquare, best, false, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Fail-soft negamax to the end of the game.
+     *
+     * @param passed true if the opponent has just passed
+     * @return the final disc differential for the player owning {@code own}, or a bound outside the window
+     */
+    private int solve(long own, long opponent, int alpha, int beta, boolean passed) {
+        long empty = ~(own | opponent);
+        int empties = Long.bitCount(empty);
+        if (empties <= 4) {
+            return solveLastSquares(own, opponent, alpha, beta, empty, empties);
+        }
+
+        nodes++;
+        if (stopped()) {
+            return 0;
+        }
+
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return difference(own, opponent);
+            }
+            return -solve(opponent, own, -beta, -alpha, true);
+        }
+
+        long key = 0;
+        int hashSquare = -1;
+        if (empties >= TABLE_EMPTIES) {
+            key = Zobrist.hash(own, opponent);
+            long entry = table.probe(key);
+            if (entry != 0) {
+                hashSquare = TranspositionTable.move(entry);
+                int stored = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && stored >= beta)
+                        || (bound == TranspositionTable.UPPER && stored <= alpha)) {
+                    return stored;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestSquare = -1;
+        if (empties >= FASTEST_FIRST_EMPTIES) {
+            int count = orderMoves(own, opponent, moves, empties, hashSquare);
+            int[] squares = orderedSquares[empties];
+            for (int i = 0; i < count; i++) {
+                int square = squares[i];
+                long flips = BitBoard.flips(square, own, opponent);
+                int score = -solve(opponent ^ flips, own ^ (flips | (1L << square)),
+                        -beta, -Math.max(alpha, best), false);
+                if (score > best) {
+                    best = score;
+                    bestSquare = square;
+                    if (best >= beta) {
+                        break;
+                    }
+                }
+            }
+        } else {
+            // parity: first the moves in quadrants with an odd number of empties
+            long odd = oddQuadrants(empty);
+            for (int round = 0; round < 2; round++) {
+                long candidates = moves & (round == 0 ? odd : ~odd);
+                while (candidates != 0 && best < beta) {
+                    int square = Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    long flips = BitBoard.flips(square, own, opponent);
+                    int score = -solve(opponent ^ flips, own ^ (flips | (1L << square)),
+                            -beta, -Math.max(alpha, best), false);
+                    if (score > best) {
+                        best = score;
+                        bestSquare = square;
+                    }
+                }
+            }
+        }
+
+        if (empties >= TABLE_EMPTIES && !stopped()) {
+            int bound = best >= beta ? TranspositionTable.LOWER
+                    : best <= originalAlpha ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+            table.store(key, empties, bound, best, bestSquare);
+        }
+        return best;
+    }
+
+    /**
+     * Sorts the moves fastest-first: the fewer replies the opponent has (corners counting double),
+     * the earlier the move is tried. The hash move, if any, comes first.
+     *
+     * @return the number of moves, stored in {@code orderedSquares[empties]}
+     */
+    private int orderMoves(long own, long opponent, long moves, int empties, int hashSquare) {
+        int[] squares = orderedSquares[empties];
+        int[] keys = orderKeys[empties];
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = BitBoard.flips(square, own, opponent);
+            long replies = BitBoard.legalMoves(opponent ^ flips, own ^ (flips | (1L << square)));
+            int key = square == hashSquare ? -1 : Long.bitCount(replies) + Long.bitCount(replies & SearchEngine.CORNERS);
+            // insertion sort, the lists are short
+            int i = count++;
+            while (i > 0 && keys[i - 1] > key) {
+                squares[i] = squares[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            squares[i] = square;
+            keys[i] = key;
+        }
+        return count;
+    }
+
+    /**
+     * Solves a position with at most four empty squares, ordered by parity.
+     */
+    private int solveLastSquares(long own, long opponent, int alpha, int beta, long empty, int empties) {
+        if (empties == 0) {
+            nodes++;
+            return difference(own, opponent);
+        }
+        // squares alone in their quadrant first
+        long odd = oddQuadrants(empty);
+        int s1 = 0;
+        int s2 = 0;
+        int s3 = 0;
+        int s4 = 0;
+        int n = 0;
+        for (int round = 0; round < 2; round++) {
+            long candidates = empty & (round == 0 ? odd : ~odd);
+            for (; candidates != 0; candidates &= candidates - 1) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                switch (n++) {
+                    case 0 -> s1 = square;
+                    case 1 -> s2 = square;
+                    case 2 -> s3 = square;
+                    default -> s4 = square;
+                }
+            }
+        }
+        return switch (empties) {
+            case 1 -> solve1(own, opponent, s1);
+            case 2 -> solve2(own, opponent, alpha, beta, s1, s2, false);
+            case 3 -> solve3(own, opponent, alpha, beta, s1, s2, s3, false);
+            default -> solve4(own, opponent, alpha, beta, s1, s2, s3, s4, false);
+        };
+    }
+
+    private int solve4(long own, long opponent, int alpha, int beta, int s1, int s2, int s3, int s4,
+                       boolean passed) {
+        nodes++;
+        int best = -INFINITY;
+        long flips = BitBoard.flips(s1, own, opponent);
+        if (flips != 0) {
+            best = -solve3(opponent ^ flips, own ^ (flips | (1L << s1)), -beta, -alpha, s2, s3, s4, false);
+        }
+        if (best < beta && (flips = BitBoard.flips(s2, own, opponent)) != 0) {
+            best = Math.max(best, -solve3(opponent ^ flips, own ^ (flips | (1L << s2)),
+                    -beta, -Math.max(alpha, best), s1, s3, s4, false));
+        }
+        if (best < beta && (flips = BitBoard.flips(s3, own, opponent)) != 0) {
+            best = Math.max(best, -solve3(opponent ^ flips, own ^ (flips | (1L << s3)),
+                    -beta, -Math.max(alpha, best), s1, s2, s4, false));
+        }
+        if (best < beta && (flips = BitBoard.flips(s4, own, opponent)) != 0) {
+            best = Math.max(best, -solve3(opponent ^ flips, own ^ (flips | (1L << s4)),
+                    -beta, -Math.max(alpha, best), s1, s2, s3, false));
+        }
+        if (best == -INFINITY) {
+            return passed ? difference(own, opponent)
+                    : -solve4(opponent, own, -beta, -alpha, s1, s2, s3, s4, true);
+        }
+        return best;
+    }
+
+    private int solve3(long own, long opponent, int alpha, int beta, int s1, int s2, int s3, boolean passed) {
+        nodes++;
+        int best = -INFINITY;
+        long flips = BitBoard.flips(s1, own, opponent);
+        if (flips != 0) {
+            best = -solve2(opponent ^ flips, own ^ (flips | (1L << s1)), -beta, -alpha, s2, s3, false);
+        }
+        if (best < beta && (flips = BitBoard.flips(s2, own, opponent)) != 0) {
+            best = Math.max(best, -solve2(opponent ^ flips, own ^ (flips | (1L << s2)),
+                    -beta, -Math.max(alpha, best), s1, s3, false));
+        }
+        if (best < beta && (flips = BitBoard.flips(s3, own, opponent)) != 0) {
+            best = Math.max(best, -solve2(opponent ^ flips, own ^ (flips | (1L << s3)),
+                    -beta, -Math.max(alpha, best), s1, s2, false));
+        }
+        if (best == -INFINITY) {
+            return passed ? difference(own, opponent)
+                    : -solve3(opponent, own, -beta, -alpha, s1, s2, s3, true);
+        }
+        return best;
+    }
+
+    private int solve2(long own, long opponent, int alpha, int beta, int s1, int s2, boolean passed) {
+        nodes++;
+        int best = -INFINITY;
+        long flips = BitBoard.flips(s1, own, opponent);
+        if (flips != 0) {
+            best = -solve1(opponent ^ flips, own ^ (flips | (1L << s1)), s2);
+        }
+        if (best < beta && (flips = BitBoard.flips(s2, own, opponent)) != 0) {
+            best = Math.max(best, -solve1(opponent ^ flips, own ^ (flips | (1L << s2)), s1));
+        }
+        if (best == -INFINITY) {
+            return passed ? difference(own, opponent)
+                    : -solve2(opponent, own, -beta, -alpha, s1, s2, true);
+        }
+        return best;
+    }
+
+    /**
+     * Last empty square: whoever can play it does, otherwise the game ends as it is.
+     */
+    private int solve1(long own, long opponent, int square) {
+        nodes++;
+        int difference = difference(own, opponent);
+        long flips = BitBoard.flips(square, own, opponent);
+        if (flips != 0) {
+            return difference + 2 * Long.bitCount(flips) + 1;
+        }
+        flips = BitBoard.flips(square, opponent, own);
+        if (flips != 0) {
+            return difference - 2 * Long.bitCount(flips) - 1;
+        }
+        return difference;
+    }
+
+    private static long oddQuadrants(long empty) {
+        long odd = 0;
+        for (long quadrant : QUADRANTS) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        return odd;
+    }
+
+    private static int difference(long own, long opponent) {
+        return Long.bitCount(own) - Long.bitCount(opponent);
+    }
+}
@@ -0,0 +1,83 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Heuristic evaluation of the positions where the search stops (see {@link SearchEngine#setEvaluator(Evaluator)}).
+ * Scores are from the point of view of the player to move, and must stay strictly between
+ * {@code -SearchEngine.WIN_SCORE} and {@code SearchEngine.WIN_SCORE} so that any won game scores better.
+ * <p>
+ * Evaluators that maintain data along the moves of the search (like the pattern codes of
+ * {@link PatternEvaluator}) provide a {@link State} per search thread; the others only implement
+ * {@link #evaluate(long, long)}.
+ */
+public interface Evaluator {
+    /** The square weights and mobility heuristic of {@link SearchEngine#evaluate(long, long)}. */
+    Evaluator SQUARE_WEIGHTS = SearchEngine::evaluate;
+
+    /**
+     * Evaluates a position from scratch.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return the score for the player to move
+     */
+    int evaluate(long own, long opponent);
+
+    /**
+     * Creates the state of one search thread, starting from a position.
+     * The default state keeps nothing and evaluates from scratch.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @return the state
+     */
+    default State newState(long black, long white) {
+        return new State() {
+            @Override
+            public void play(int square, long flips, Player player) {
+            }
+
+            @Override
+            public void undo(int square, long flips, Player player) {
+            }
+
+            @Override
+            public int evaluate(long own, long opponent, Player player) {
+                return Evaluator.this.evaluate(own, opponent);
+            }
+        };
+    }
+
+    /**
+     * Evaluation data of one search thread, updated on each move played and taken back by the search.
+     * A state is not thread-safe.
+     */
+    interface State {
+        /**
+         * Updates the state for a move.
+         *
+         * @param square the square of the move
+         * @param flips the discs flipped by the move
+         * @param player the player of the move
+         */
+        void play(int square, long flips, Player player);
+
+        /**
+         * Takes back a move given to {@link #play(int, long, Player)}.
+         *
+         * @param square the square of the move
+         * @param flips the discs flipped by the move
+         * @param player the player of the move
+         */
+        void undo(int square, long flips, Player player);
+
+        /**
+         * Evaluates the current position of the state.
+         *
+         * @param own the discs of the player to move
+         * @param opponent the discs of the opponent
+         * @param player the color of the player to move
+         * @return the score for the player to move
+         */
+        int evaluate(long own, long opponent, Player player);
+    }
+}
@@ -0,0 +1,463 @@
+package fr.univ_amu.m1info.othello;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only database of recorded games: a game file ({@link GameRecordWriter}) and its position index,
+ * both memory-mapped, so that the data lives in the page cache rather than on the heap and can be
+ * larger than it.
+ * <p>
+ * The index is a table of slots sorted by position hash, each holding the win/draw/loss statistics of the
+ * games reaching the position and the list of these games (offset in the game file and ply):
+ * a lookup is a binary search over the slots.
+ * Positions are keyed by the hash of their canonical form ({@link CanonicalPosition#hash()}), so the
+ * symmetric versions of a position share one slot: the statistics of a position count the games
+ * reaching it or any of its symmetric versions, and the index holds up to 8 times fewer slots.
+ * Index file format: a 40-byte header (magic {@code "OTDB"}, version, number of slots, size of the indexed
+ * game file, number of occurrences, number of games), the slots (32 bytes each: hash, black wins,
+ * draws, white wins, number of games, first occurrence), then the occurrences (8 bytes each:
+ * {@code gameOffset << 8 | ply}) grouped by position, in the order of the game file.
+ * <p>
+ * Building the index does not hold the positions on the heap: every occurrence is written to a temporary
+ * file next to the index, which is sorted in place through its mapping and then read once to write the
+ * slots and the occurrences, so the game file can hold more positions than the heap.
+ * Run it with {@code ./gradlew gameDatabase --args="games.otgr"}.
+ */
+public class GameDatabase implements Closeable {
+    static final byte[] MAGIC = {'O', 'T', 'D', 'B'};
+    static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 40;
+    private static final int SLOT_SIZE = 32;
+    private static final int OCCURRENCE_SIZE = 8;
+
+    // offsets in the header
+    private static final long HEADER_VERSION = 4;
+    private static final long HEADER_SLOTS = 8;
+    private static final long HEADER_GAME_FILE_SIZE = 16;
+    private static final long HEADER_OCCURRENCES = 24;
+    private static final long HEADER_GAMES = 32;
+
+    // offsets in a slot
+    private static final long SLOT_KEY = 0;
+    private static final long SLOT_BLACK_WINS = 8;
+    private static final long SLOT_DRAWS = 12;
+    private static final long SLOT_WHITE_WINS = 16;
+    private static final long SLOT_COUNT = 20;
+    private static final long SLOT_FIRST = 24;
+
+    // records of the temporary file of the build: hash, then gameOffset << 8 | (blackOutcome + 1) << 6 | ply
+    private static final int RECORD_SIZE = 16;
+    private static final int OUTCOME_SHIFT = 6;
+    private static final long PLY_MASK = (1L << OUTCOME_SHIFT) - 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final long INSERTION_SORT_RECORDS = 16;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+
+    private final Arena arena;
+    private final MemorySegment games;
+    private final MemorySegment index;
+    private final long slotCount;
+    private final int gameCount;
+    private final long occurrencesStart;
+
+    private GameDatabase(Arena arena, MemorySegment games, MemorySegment index) {
+        this.arena = arena;
+        this.games = games;
+        this.index = index;
+        this.slotCount = index.get(LONG, HEADER_SLOTS);
+        this.gameCount = index.get(INT, HEADER_GAMES);
+        this.occurrencesStart = HEADER_SIZE + slotCount * SLOT_SIZE;
+    }
+
+    /**
+     * Opens a game file and its index (built by {@link #buildIndex(Path, Path)}).
+     * The database can be queried from several threads; close it to unmap the files.
+     *
+     * @param gameFile the game file
+     * @param indexFile the index of this game file
+     * @return the database
+     * @throws IOException if a file cannot be mapped, is not of the expected format,
+     *                     or the index was built from another version of the game file
+     */
+    public static GameDatabase open(Path gameFile, Path indexFile) throws IOException {
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment games = map(gameFile, arena);
+            MemorySegment index = map(indexFile, arena);
+            checkMagic(games, GameRecordWriter.MAGIC, "Not a game record file: " + gameFile);
+            checkMagic(index, MAGIC, "Not a game index file: " + indexFile);
+            if (games.byteSize() < GameRecordWriter.HEADER_SIZE
+                    || games.get(ValueLayout.JAVA_BYTE, GameRecordWriter.MAGIC.length) != GameRecordWriter.VERSION) {
+                throw new IOException("Unsupported game record version: " + gameFile);
+            }
+            if (index.byteSize() < HEADER_SIZE || index.get(INT, HEADER_VERSION) != VERSION) {
+                throw new IOException("Unsupported game index version: " + indexFile);
+            }
+            if (index.byteSize() != HEADER_SIZE + index.get(LONG, HEADER_SLOTS) * SLOT_SIZE
+                    + index.get(LONG, HEADER_OCCURRENCES) * OCCURRENCE_SIZE) {
+                throw new IOException("Truncated game index: " + indexFile);
+            }
+            if (index.get(LONG, HEADER_GAME_FILE_SIZE) != games.byteSize()) {
+                throw new IOException("The index " + indexFile + " was built from another version of " + gameFile);
+            }
+            return new GameDatabase(arena, games, index);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the position index of a game file, replacing the index file if it exists.
+     *
+     * @param gameFile the game file
+     * @param indexFile the index file to write
+     * @throws IOException if a file cannot be read or written, or a game is invalid
+     */
+    public static void buildIndex(Path gameFile, Path indexFile) throws IOException {
+        Path recordFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (Arena arena = Arena.ofConfined()) {
+            // first pass: one record per position of each game, appended to the temporary file
+            int gameCount = 0;
+            long occurrences = 0;
+            try (GameRecordReader reader = new GameRecordReader(gameFile);
+                 FileChannel channel = FileChannel.open(recordFile, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.nativeOrder());
+                long gameOffset = reader.getOffset();
+                for (GameRecord game = reader.read(); game != null; game = reader.read()) {
+                    long[] hashes = positionHashes(game);
+                    long outcome = game.blackOutcome() + 1;
+                    for (int ply = 0; ply < hashes.length; ply++) {
+                        if (buffer.remaining() < RECORD_SIZE) {
+                            writeFully(channel, buffer);
+                        }
+                        buffer.putLong(hashes[ply]).putLong(gameOffset << 8 | outcome << OUTCOME_SHIFT | ply);
+                    }
+                    occurrences += hashes.length;
+                    gameCount++;
+                    gameOffset = reader.getOffset();
+                }
+                writeFully(channel, buffer);
+            }
+
+            // the records of a position become contiguous, in the order of the game file
+            MemorySegment records;
+            try (FileChannel channel = FileChannel.open(recordFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                records = channel.map(FileChannel.MapMode.READ_WRITE, 0, occurrences * RECORD_SIZE, arena);
+            }
+            sort(records, 0, occurrences);
+            long slots = 0;
+            for (long record = 0; record < occurrences; record++) {
+                if (record == 0 || hashAt(records, record) != hashAt(records, record - 1)) {
+                    slots++;
+                }
+            }
+
+            // second pass over the sorted records: one slot per position, then its occurrences
+            long size = HEADER_SIZE + slots * SLOT_SIZE + occurrences * OCCURRENCE_SIZE;
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MemorySegment index = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+                MemorySegment.copy(MAGIC, 0, index, ValueLayout.JAVA_BYTE, 0, MAGIC.length);
+                index.set(INT, HEADER_VERSION, VERSION);
+                index.set(LONG, HEADER_SLOTS, slots);
+                index.set(LONG, HEADER_GAME_FILE_SIZE, Files.size(gameFile));
+                index.set(LONG, HEADER_OCCURRENCES, occurrences);
+                index.set(INT, HEADER_GAMES, gameCount);
+                long occurrencesStart = HEADER_SIZE + slots * SLOT_SIZE;
+                long slot = HEADER_SIZE - SLOT_SIZE;
+                for (long record = 0; record < occurrences; record++) {
+                    long hash = hashAt(records, record);
+                    long value = valueAt(records, record);
+                    if (record == 0 || hash != hashAt(records, record - 1)) {
+                        slot += SLOT_SIZE;
+                        index.set(LONG, slot + SLOT_KEY, hash);
+                        index.set(LONG, slot + SLOT_FIRST, record);
+                    }
+                    long outcome = (value >>> OUTCOME_SHIFT & 3) - 1;
+                    long counter = slot + (outcome > 0 ? SLOT_BLACK_WINS : outcome == 0 ? SLOT_DRAWS : SLOT_WHITE_WINS);
+                    index.set(INT, counter, index.get(INT, counter) + 1);
+                    index.set(INT, slot + SLOT_COUNT, index.get(INT, slot + SLOT_COUNT) + 1);
+                    index.set(LONG, occurrencesStart + record * OCCURRENCE_SIZE, value >>> 8 << 8 | value & PLY_MASK);
+                }
+                index.force();
+            }
+        } finally {
+            Files.deleteIfExists(recordFile);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Sorts records in place by hash, then by game offset and ply: a quicksort, whose partitions scan
+     * the mapped file from both ends, so that more records than the memory can hold sort through the
+     * page cache.
+     */
+    private static void sort(MemorySegment records, long from, long to) {
+        while (to - from > INSERTION_SORT_RECORDS) {
+            // median of three, against the worst case on already sorted records
+            long middle = (from + to) >>> 1;
+            orderPair(records, from, middle);
+            orderPair(records, middle, to - 1);
+            orderPair(records, from, middle);
+            long pivotHash = hashAt(records, middle);
+            long pivotValue = valueAt(records, middle);
+            long low = from - 1;
+            long high = to;
+            while (true) {
+                do {
+                    low++;
+                } while (compare(records, low, pivotHash, pivotValue) < 0);
+                do {
+                    high--;
+                } while (compare(records, high, pivotHash, pivotValue) > 0);
+                if (low >= high) {
+                    break;
+                }
+                swap(records, low, high);
+            }
+            // recursing on the smaller part keeps the stack depth logarithmic
+            if (high + 1 - from < to - high - 1) {
+                sort(records, from, high + 1);
+                from = high + 1;
+            } else {
+                sort(records, high + 1, to);
+                to = high + 1;
+            }
+        }
+        for (long record = from + 1; record < to; record++) {
+            for (long other = record; other > from
+                    && compare(records, other - 1, hashAt(records, other), valueAt(records, other)) > 0; other--) {
+                swap(records, other - 1, other);
+            }
+        }
+    }
+
+    private static int compare(MemorySegment records, long record, long hash, long value) {
+        long recordHash = hashAt(records, record);
+        return recordHash != hash ? Long.compare(recordHash, hash) : Long.compare(valueAt(records, record), value);
+    }
+
+    private static void orderPair(MemorySegment records, long first, long second) {
+        if (compare(records, first, hashAt(records, second), valueAt(records, second)) > 0) {
+            swap(records, first, second);
+        }
+    }
+
+    private static void swap(MemorySegment records, long first, long second) {
+        long hash = hashAt(records, first);
+        long value = valueAt(records, first);
+        records.set(LONG, first * RECORD_SIZE, hashAt(records, second));
+        records.set(LONG, first * RECORD_SIZE + 8, valueAt(records, second));
+        records.set(LONG, second * RECORD_SIZE, hash);
+        records.set(LONG, second * RECORD_SIZE + 8, value);
+    }
+
+    private static long hashAt(MemorySegment records, long record) {
+        return records.get(LONG, record * RECORD_SIZE);
+    }
+
+    private static long valueAt(MemorySegment records, long record) {
+        return records.get(LONG, record * RECORD_SIZE + 8);
+    }
+
+    /**
+     * Gets the canonical hash of every position of a game, from the start position (ply 0) to the final one.
+     * When the player to move has to pass, the position is taken with the other player to move.
+     */
+    static long[] positionHashes(GameRecord game) {
+        long[] hashes = new long[game.moveCount() + 1];
+        Position position = Position.initial();
+        for (int ply = 0; ; ply++) {
+            if (position.legalMoves() == 0 && !position.isGameOver()) {
+                position = position.pass();
+            }
+            hashes[ply] = position.canonical().hash();
+            if (ply == game.moveCount()) {
+                return hashes;
+            }
+            position = position.play(game.square(ply));
+        }
+    }
+
+    /**
+     * Gets the number of indexed games.
+     *
+     * @return the number of games
+     */
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Gets the results of the games that reached a position or one of its symmetric versions.
+     *
+     * @param position the position
+     * @return the statistics, {@link PositionStats#NONE} if no game reached it
+     */
+    public PositionStats stats(Position position) {
+        return stats(position.canonical().hash());
+    }
+
+    /**
+     * Gets the results of the games that reached a position or one of its symmetric versions.
+     *
+     * @param hash the hash of the canonical form of the position ({@link CanonicalPosition#hash()})
+     * @return the statistics, {@link PositionStats#NONE} if no game reached it
+     */
+    public PositionStats stats(long hash) {
+        long slot = findSlot(hash);
+        if (slot < 0) {
+            return PositionStats.NONE;
+        }
+        return new PositionStats(index.get(INT, slot + SLOT_BLACK_WINS), index.get(INT, slot + SLOT_DRAWS),
+                index.get(INT, slot + SLOT_WHITE_WINS));
+    }
+
+    /**
+     * Gets the games that reached a position or one of its symmetric versions, in the order of the game file.
+     *
+     * @param position the position
+     * @param limit the maximum number of games to return
+     * @return the games
+     */
+    public List<GameRecord> gamesReaching(Position position, int limit) {
+        long slot = findSlot(position.canonical().hash());
+        if (slot < 0) {
+            return List.of();
+        }
+        int count = Math.min(limit, index.get(INT, slot + SLOT_COUNT));
+        long first = index.get(LONG, slot + SLOT_FIRST);
+        List<GameRecord> reaching = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long occurrence = index.get(LONG, occurrencesStart + (first + i) * OCCURRENCE_SIZE);
+            reaching.add(readGame(occurrence >>> 8));
+        }
+        return reaching;
+    }
+
+    /**
+     * Unmaps the files. The database must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Finds the slot of a position (binary search).
+     *
+     * @return the offset of the slot in the index, or -1 if the position is not indexed
+     */
+    private long findSlot(long hash) {
+        long low = 0;
+        long high = slotCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (index.get(LONG, HEADER_SIZE + middle * SLOT_SIZE + SLOT_KEY) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        long offset = HEADER_SIZE + low * SLOT_SIZE;
+        return low < slotCount && index.get(LONG, offset + SLOT_KEY) == hash ? offset : -1;
+    }
+
+    private GameRecord readGame(long offset) {
+        int players = games.get(ValueLayout.JAVA_BYTE, offset) & 0xFF;
+        int moves = games.get(ValueLayout.JAVA_BYTE, offset + 1) & 0xFF;
+        int discDifference = games.get(ValueLayout.JAVA_BYTE, offset + 2);
+        byte[] squares = new byte[moves];
+        MemorySegment.copy(games, ValueLayout.JAVA_BYTE, offset + 3, squares, 0, moves);
+        long[] elapsedMillis = new long[moves];
+        long position = offset + 3 + moves;
+        long elapsed = 0;
+        for (int i = 0; i < moves; i++) {
+            long value = 0;
+            int b;
+            int shift = 0;
+            do {
+                b = games.get(ValueLayout.JAVA_BYTE, position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            elapsed += GameRecordWriter.unzigzag(value);
+            elapsedMillis[i] = elapsed;
+        }
+        try {
+            return new GameRecord(GameRecordWriter.robotOf(players & GameRecordWriter.PLAYER_MASK),
+                    GameRecordWriter.robotOf(players >>> GameRecordWriter.PLAYER_BITS), squares, elapsedMillis,
+                    discDifference);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt game at offset " + offset, e);
+        }
+    }
+
+    private static MemorySegment map(Path file, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+    }
+
+    private static void checkMagic(MemorySegment segment, byte[] magic, String message) throws IOException {
+        if (segment.byteSize() < magic.length
+                || !Arrays.equals(segment.asSlice(0, magic.length).toArray(ValueLayout.JAVA_BYTE), magic)) {
+            throw new IOException(message);
+        }
+    }
+
+    /**
+     * Builds the index of a game file and prints the statistics of the replies to the first move.
+     *
+     * @param args the game file, then optionally the index file (default: the game file name + ".idx")
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: GameDatabase GAME_FILE [INDEX_FILE]");
+            System.exit(2);
+        }
+        Path gameFile = Path.of(args[0]);
+        Path indexFile = Path.of(args.length > 1 ? args[1] : args[0] + ".idx");
+        long start = System.currentTimeMillis();
+        buildIndex(gameFile, indexFile);
+        System.out.printf("Indexed %s in %d ms (%d bytes)%n", gameFile, System.currentTimeMillis() - start,
+                Files.size(indexFile));
+        try (GameDatabase database = open(gameFile, indexFile)) {
+            // the 4 first moves are symmetric: the replies to one of them cover every game
+            Position first = Position.initial().play(BitBoard.nthSquare(Position.initial().legalMoves(), 0));
+            System.out.println(database.getGameCount() + " games, after the first move: " + database.stats(first));
+            for (var squares = BitBoard.squares(first.legalMoves()); squares.hasNext(); ) {
+                int square = squares.nextInt();
+                PositionStats stats = database.stats(first.play(square));
+                System.out.printf("  (%d, %d): %d games, White scores %.1f%%%n", square / BitBoard.SIZE,
+                        square % BitBoard.SIZE, stats.games(), 100 * stats.score(Player.WHITE));
+            }
+        }
+    }
+}
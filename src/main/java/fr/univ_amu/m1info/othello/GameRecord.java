@@ -0,0 +1,149 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.Arrays;
+
+/**
+ * A finished (or abandoned) game in compact form: who played each color, the squares
+ * of the moves in order and the elapsed game time of each move.
+ * Passes are not stored: replaying the moves from the start position finds them.
+ * Records are written and read by {@link GameRecordWriter} and {@link GameRecordReader},
+ * in about 3 bytes per move.
+ *
+ * @param blackRobot the robot level that played Black, or null for a human
+ * @param whiteRobot the robot level that played White, or null for a human
+ * @param squares the square index of each move, in the order they were played
+ * @param elapsedMillis the elapsed game time when each move was played
+ * @param discDifference the final number of black discs minus the number of white discs
+ */
+public record GameRecord(
+    RobotDifficulty blackRobot,
+    RobotDifficulty whiteRobot,
+    byte[] squares,
+    long[] elapsedMillis,
+    int discDifference
+) {
+    /** Maximum number of moves of a game (every empty square of the start position). */
+    public static final int MAX_MOVES = BitBoard.SQUARES - 4;
+
+    /**
+     * Creates a record.
+     *
+     * @throws IllegalArgumentException if the moves and times do not match or are out of range
+     */
+    public GameRecord {
+        if (squares.length != elapsedMillis.length) {
+            throw new IllegalArgumentException("One time per move is required: " + squares.length
+                    + " moves, " + elapsedMillis.length + " times");
+        }
+        if (squares.length > MAX_MOVES) {
+            throw new IllegalArgumentException("Too many moves: " + squares.length);
+        }
+        for (byte square : squares) {
+            if (square < 0 || square >= BitBoard.SQUARES) {
+                throw new IllegalArgumentException("Invalid square: " + square);
+            }
+        }
+        if (Math.abs(discDifference) > BitBoard.SQUARES) {
+            throw new IllegalArgumentException("Invalid disc difference: " + discDifference);
+        }
+    }
+
+    /**
+     * Records the moves played so far in a game.
+     *
+     * @param game the game
+     * @param blackRobot the robot level that played Black, or null for a human
+     * @param whiteRobot the robot level that played White, or null for a human
+     * @return the record of the game
+     */
+    public static GameRecord of(OthelloGame game, RobotDifficulty blackRobot, RobotDifficulty whiteRobot) {
+        MoveHistory history = game.getHistory();
+        byte[] squares = new byte[history.size()];
+        long[] elapsedMillis = new long[history.size()];
+        for (int i = 0; i < history.size(); i++) {
+            MoveSnapshot move = history.get(i);
+            squares[i] = (byte) move.square();
+            elapsedMillis[i] = move.elapsedMillis();
+        }
+        return new GameRecord(blackRobot, whiteRobot, squares, elapsedMillis,
+                game.countPieces(Player.BLACK) - game.countPieces(Player.WHITE));
+    }
+
+    /**
+     * Gets the number of moves (passes excluded).
+     *
+     * @return the number of moves
+     */
+    public int moveCount() {
+        return squares.length;
+    }
+
+    /**
+     * Gets the square of a move.
+     *
+     * @param index the index of the move, the first move having index 0
+     * @return the square index
+     */
+    public int square(int index) {
+        return squares[index];
+    }
+
+    /**
+     * Gets the outcome for Black.
+     *
+     * @return 1 if Black won, 0 for a draw, -1 if White won
+     */
+    public int blackOutcome() {
+        return Integer.signum(discDifference);
+    }
+
+    /**
+     * Replays the first moves from the start position, passing whenever the player to move cannot play.
+     *
+     * @param moves the number of moves to replay
+     * @return the position after these moves
+     * @throws IllegalArgumentException if a move is not legal
+     */
+    public Position positionAfter(int moves) {
+        Position position = Position.initial();
+        for (int i = 0; i < moves; i++) {
+            if (position.legalMoves() == 0) {
+                position = position.pass();
+            }
+            position = position.play(squares[i]);
+        }
+        return position;
+    }
+
+    /**
+     * Replays every move from the start position.
+     *
+     * @return the final position
+     * @throws IllegalArgumentException if a move is not legal
+     */
+    public Position replay() {
+        return positionAfter(squares.length);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GameRecord record
+                && blackRobot == record.blackRobot
+                && whiteRobot == record.whiteRobot
+                && discDifference == record.discDifference
+                && Arrays.equals(squares, record.squares)
+                && Arrays.equals(elapsedMillis, record.elapsedMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(squares) + discDifference;
+    }
+
+    @Override
+    public String toString() {
+        return "GameRecord[" + (blackRobot == null ? "HUMAN" : blackRobot) + " vs "
+                + (whiteRobot == null ? "HUMAN" : whiteRobot) + ", " + squares.length
+                + " moves, disc difference " + discDifference + "]";
+    }
+}
@@ -0,0 +1,153 @@
+package fr.univ_amu.m1info.othello;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the games of a file written by {@link GameRecordWriter}, one at a time:
+ * only a small buffer of the file is in memory, whatever its size.
+ */
+public class GameRecordReader implements Closeable, Iterable<GameRecord> {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataInputStream input;
+    private long gamesRead;
+    private long offset = GameRecordWriter.HEADER_SIZE;
+    private int varIntBytes;
+
+    /**
+     * Opens a game file and checks its header.
+     *
+     * @param file the game file
+     * @throws IOException if the file cannot be opened or is not a game file
+     */
+    public GameRecordReader(Path file) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+        try {
+            GameRecordWriter.readHeader(input);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the file
+     * @throws IOException if the file cannot be read or a game is truncated or invalid (including an illegal move)
+     */
+    public GameRecord read() throws IOException {
+        int players = input.read();
+        if (players < 0) {
+            return null;
+        }
+        try {
+            int moves = input.readUnsignedByte();
+            int discDifference = input.readByte();
+            if (moves > GameRecord.MAX_MOVES) {
+                throw new IOException("Invalid number of moves: " + moves);
+            }
+            byte[] squares = new byte[moves];
+            input.readFully(squares);
+            long[] elapsedMillis = new long[moves];
+            long elapsed = 0;
+            varIntBytes = 0;
+            for (int i = 0; i < moves; i++) {
+                elapsed += GameRecordWriter.unzigzag(readVarLong());
+                elapsedMillis[i] = elapsed;
+            }
+            GameRecord record = new GameRecord(GameRecordWriter.robotOf(players & GameRecordWriter.PLAYER_MASK),
+                    GameRecordWriter.robotOf(players >>> GameRecordWriter.PLAYER_BITS), squares, elapsedMillis,
+                    discDifference);
+            // a move onto an occupied square or flipping nothing would corrupt every position built from the game
+            record.replay();
+            gamesRead++;
+            offset += 3 + moves + varIntBytes;
+            return record;
+        } catch (EOFException e) {
+            throw new IOException("Truncated game record after " + gamesRead + " games", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid game record after " + gamesRead + " games", e);
+        }
+    }
+
+    /**
+     * Gets the number of games read so far.
+     *
+     * @return the number of games read
+     */
+    public long getGamesRead() {
+        return gamesRead;
+    }
+
+    /**
+     * Gets the position in the file of the next game (the end of the file once every game is read).
+     *
+     * @return the offset of the next game, in bytes from the start of the file
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Iterates over the remaining games. The iteration consumes the reader, so it can only be done once;
+     * read errors are thrown as {@link UncheckedIOException}.
+     *
+     * @return an iterator over the remaining games
+     */
+    @Override
+    public Iterator<GameRecord> iterator() {
+        return new Iterator<>() {
+            private GameRecord next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = read();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public GameRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                GameRecord record = next;
+                next = null;
+                return record;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            varIntBytes++;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+}
@@ -0,0 +1,155 @@
+package fr.univ_amu.m1info.othello;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends {@link GameRecord}s to a game file, without ever reading the games already in it.
+ * <p>
+ * File format: a 5-byte header ({@code "OTGR"} then the format version), followed by the games
+ * one after another. Each game is
+ * <ul>
+ *     <li>1 byte: the players (bits 0-3 Black, bits 4-7 White: 0 human, 1 + robot level ordinal);</li>
+ *     <li>1 byte: the number of moves {@code n} (passes excluded);</li>
+ *     <li>1 byte: the final disc difference, Black minus White (signed);</li>
+ *     <li>{@code n} bytes: the square of each move;</li>
+ *     <li>{@code n} varints: the time of each move, as the zigzag-encoded difference with the previous one.</li>
+ * </ul>
+ * A game thus takes 3 bytes, plus per move 1 byte for the square and 2 bytes for a time
+ * under 8 seconds after the previous move (3 bytes under 17 minutes).
+ */
+public class GameRecordWriter implements Closeable, Flushable {
+    static final byte[] MAGIC = {'O', 'T', 'G', 'R'};
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = MAGIC.length + 1;
+    // bits of each player code in the players byte (version 1 had 2, too few for a fourth robot level)
+    static final int PLAYER_BITS = 4;
+    static final int PLAYER_MASK = (1 << PLAYER_BITS) - 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream output;
+    private long gamesWritten;
+
+    private GameRecordWriter(OutputStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Opens a game file for appending, creating it (with its header) if it does not exist or is empty.
+     *
+     * @param file the game file
+     * @return a writer positioned at the end of the file
+     * @throws IOException if the file cannot be opened or is not a game file
+     */
+    public static GameRecordWriter open(Path file) throws IOException {
+        boolean hasHeader = Files.exists(file) && Files.size(file) > 0;
+        if (hasHeader) {
+            try (InputStream input = Files.newInputStream(file)) {
+                readHeader(new DataInputStream(input));
+            }
+        }
+        OutputStream output = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), BUFFER_SIZE);
+        if (!hasHeader) {
+            output.write(MAGIC);
+            output.write(VERSION);
+        }
+        return new GameRecordWriter(output);
+    }
+
+    /**
+     * Appends a game.
+     *
+     * @param record the game
+     * @throws IOException if the game cannot be written
+     */
+    public void write(GameRecord record) throws IOException {
+        int moves = record.moveCount();
+        output.write(playerCode(record.blackRobot()) | playerCode(record.whiteRobot()) << PLAYER_BITS);
+        output.write(moves);
+        output.write(record.discDifference());
+        output.write(record.squares(), 0, moves);
+        long previous = 0;
+        for (long elapsed : record.elapsedMillis()) {
+            writeVarLong(zigzag(elapsed - previous));
+            previous = elapsed;
+        }
+        gamesWritten++;
+    }
+
+    /**
+     * Gets the number of games written by this writer (not counting the games already in the file).
+     *
+     * @return the number of games written
+     */
+    public long getGamesWritten() {
+        return gamesWritten;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    /**
+     * Reads and checks the header of a game file.
+     *
+     * @throws IOException if the header is missing or not the one of a supported game file
+     */
+    static void readHeader(DataInputStream input) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a game record file");
+        }
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported game record version: " + version);
+        }
+    }
+
+    private static int playerCode(RobotDifficulty robot) {
+        return robot == null ? 0 : 1 + robot.ordinal();
+    }
+
+    static RobotDifficulty robotOf(int code) throws IOException {
+        if (code == 0) {
+            return null;
+        }
+        if (code > RobotDifficulty.values().length) {
+            throw new IOException("Invalid player code: " + code);
+        }
+        return RobotDifficulty.values()[code - 1];
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,272 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Robot search by Monte Carlo tree search (UCT): the moves are compared on the results of
+ * random games finished with the policy of the random robot, the tree steering the playouts
+ * towards the most promising moves. The search stops at its time budget or after its
+ * playout budget, whichever comes first, and plays the most visited move.
+ * <p>
+ * The tree is a node pool of primitive arrays ({@link MctsTree}) allocated on the first search
+ * and reused by the next ones; with several threads, every thread runs playouts in the same tree
+ * (tree parallelism, with virtual loss).
+ */
+public class MctsEngine {
+    /** Default time budget of a move decision. */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+
+    /** Default number of nodes of the tree (about 14 bytes each). */
+    public static final int DEFAULT_TREE_CAPACITY = 1 << 20;
+
+    /** Default UCT exploration constant (rewards between 0 and 1). */
+    public static final double DEFAULT_EXPLORATION = 0.7;
+
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private long playoutBudget;
+    private int threads = 1;
+    private int treeCapacity = DEFAULT_TREE_CAPACITY;
+    private double exploration = DEFAULT_EXPLORATION;
+    private MctsTree tree;
+    private ExecutorService helperPool;
+    private volatile AtomicBoolean currentStop;
+
+    /**
+     * Gets the time budget of a move decision.
+     *
+     * @return the time budget in milliseconds
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Sets the time budget of a move decision.
+     *
+     * @param timeBudgetMillis the time budget in milliseconds
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive: " + timeBudgetMillis);
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Gets the maximum number of playouts of a move decision.
+     *
+     * @return the playout budget (0 if only the time budget applies)
+     */
+    public long getPlayoutBudget() {
+        return playoutBudget;
+    }
+
+    /**
+     * Sets the maximum number of playouts of a move decision. A fixed number of playouts
+     * makes the strength of the robot independent of the machine and of its load.
+     *
+     * @param playoutBudget the playout budget (0 for the time budget only)
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        if (playoutBudget < 0) {
+            throw new IllegalArgumentException("Playout budget cannot be negative: " + playoutBudget);
+        }
+        this.playoutBudget = playoutBudget;
+    }
+
+    /**
+     * Gets the number of threads running playouts for each move decision.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads running playouts for each move decision (the calling thread
+     * plus helper threads, all sharing the tree).
+     *
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if the number is less than 1
+     */
+    public synchronized void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is needed: " + threads);
+        }
+        this.threads = threads;
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+    }
+
+    /**
+     * Sets the number of nodes of the tree. Once they are all used, the leaves stop
+     * being expanded and the playouts go on from them.
+     *
+     * @param treeCapacity the number of nodes
+     * @throws IllegalArgumentException if the capacity is less than 64 nodes
+     */
+    public void setTreeCapacity(int treeCapacity) {
+        if (treeCapacity < BitBoard.SQUARES) {
+            throw new IllegalArgumentException("The tree needs at least 64 nodes: " + treeCapacity);
+        }
+        this.treeCapacity = treeCapacity;
+        tree = null;
+    }
+
+    /**
+     * Sets the UCT exploration constant: higher values spread the playouts over more moves.
+     *
+     * @param exploration the exploration constant
+     * @throws IllegalArgumentException if the constant is negative
+     */
+    public void setExploration(double exploration) {
+        if (!(exploration >= 0)) {
+            throw new IllegalArgumentException("Exploration cannot be negative: " + exploration);
+        }
+        this.exploration = exploration;
+    }
+
+    /**
+     * Searches the best move of the player owning {@code own}. Only one search at a time:
+     * the searches share the tree.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return the chosen move with search statistics (playouts of every thread)
+     */
+    public MctsResult search(long own, long opponent) {
+        return search(own, opponent, new AtomicBoolean());
+    }
+
+    /**
+     * Searches the best move of the player owning {@code own}, unless a stop flag is raised.
+     * The flag belongs to the request and is only read: raising it before the search starts is not
+     * lost, the search then returns after a single playout.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param stop the flag that stops the search
+     * @return the chosen move with search statistics (playouts of every thread)
+     */
+    public synchronized MctsResult search(long own, long opponent, AtomicBoolean stop) {
+        long start = System.currentTimeMillis();
+        long legal = BitBoard.legalMoves(own, opponent);
+        if (legal == 0) {
+            return new MctsResult(-1, 0, 0, 0, System.currentTimeMillis() - start);
+        }
+        if (Long.bitCount(legal) == 1) {
+            return new MctsResult(Long.numberOfTrailingZeros(legal), 0.5, 0, 1, System.currentTimeMillis() - start);
+        }
+
+        long deadline = start + timeBudgetMillis;
+        long budget = playoutBudget == 0 ? Long.MAX_VALUE : playoutBudget;
+        // stops the helpers once the calling thread is done, without touching the request's flag
+        AtomicBoolean searchStop = new AtomicBoolean();
+        currentStop = searchStop;
+        if (tree == null) {
+            tree = new MctsTree(treeCapacity);
+        }
+        MctsTree searchTree = tree;
+        searchTree.reset(own, opponent, exploration);
+        AtomicLong playouts = new AtomicLong();
+
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int id = 1; id < threads; id++) {
+            long seed = ThreadLocalRandom.current().nextLong();
+            helpers.add(getHelperPool().submit(() ->
+                    runPlayouts(searchTree, own, opponent, seed, playouts, budget, deadline, stop, searchStop)));
+        }
+        runPlayouts(searchTree, own, opponent, ThreadLocalRandom.current().nextLong(), playouts, budget, deadline,
+                stop, searchStop);
+        searchStop.set(true);
+        for (Future<?> helper : helpers) {
+            waitFor(helper);
+        }
+
+        int best = searchTree.bestChild();
+        return new MctsResult(searchTree.move(best), searchTree.score(best), Math.min(playouts.get(), budget),
+                searchTree.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Runs playouts until the budget, the deadline or one of the stop flags (at least one).
+     */
+    private static void runPlayouts(MctsTree tree, long own, long opponent, long seed, AtomicLong playouts,
+                                    long budget, long deadline, AtomicBoolean stop, AtomicBoolean searchStop) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] path = MctsTree.newPath();
+        while (playouts.getAndIncrement() < budget) {
+            tree.playout(own, opponent, random, path);
+            if (stop.get() || searchStop.get() || System.currentTimeMillis() >= deadline) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Stops the search in progress, if any: it returns as soon as possible with the move
+     * most visited so far. A search that has not started yet is not affected: pass a stop flag
+     * to {@link #search(long, long, AtomicBoolean)} to cancel a request before it runs.
+     */
+    public void cancel() {
+        AtomicBoolean stop = currentStop;
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    private synchronized ExecutorService getHelperPool() {
+        if (helperPool == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads - 1, threads - 1,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "othello-mcts-helper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // idle helpers are released between games
+            pool.allowCoreThreadTimeOut(true);
+            helperPool = pool;
+        }
+        return helperPool;
+    }
+
+    /**
+     * Waits for a stopped helper, even if the calling thread is interrupted: the helper must leave
+     * the tree before the next search resets it. The interrupt is raised again afterwards.
+     */
+    private static void waitFor(Future<?> helper) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    helper.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
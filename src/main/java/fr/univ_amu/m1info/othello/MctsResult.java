@@ -0,0 +1,37 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Represents the outcome of a Monte Carlo tree search.
+ *
+ * @param square the square index of the chosen move, or -1 if the player has to pass
+ * @param score the average result of the playouts of the chosen move for the player to move,
+ *              between 0 (always lost) and 1 (always won)
+ * @param playouts the number of random games played
+ * @param treeSize the number of tree nodes used
+ * @param elapsedMillis the duration of the search in milliseconds
+ */
+public record MctsResult(
+    int square,
+    double score,
+    long playouts,
+    int treeSize,
+    long elapsedMillis
+) {
+    /**
+     * Gets the chosen move.
+     *
+     * @return the coordinates of the move, or null if the player has to pass
+     */
+    public Coordinates move() {
+        return square < 0 ? null : Coordinates.fromSquare(square);
+    }
+
+    /**
+     * Gets the search throughput.
+     *
+     * @return the number of playouts per second
+     */
+    public long playoutsPerSecond() {
+        return playouts * 1000 / Math.max(1, elapsedMillis);
+    }
+}
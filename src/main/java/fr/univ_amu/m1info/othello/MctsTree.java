@@ -0,0 +1,269 @@
+package fr.univ_amu.m1info.othello;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The tree of a {@link MctsEngine} search, shared by its threads. The nodes live in a pool of
+ * parallel primitive arrays allocated once: a node is an index, and the children of a node
+ * occupy a contiguous block of indices reserved when the node is expanded.
+ * <p>
+ * The statistics of a node are seen from the player who played its move: the sum of the rewards
+ * of its playouts in half points (2 for a win, 1 for a draw, 0 for a loss) and its number of visits.
+ * A thread going down through a node counts a lost visit in advance (virtual loss) and corrects it
+ * when the result of its playout comes back, so that the other threads prefer the other children
+ * meanwhile. The counters are updated with atomic additions and read without locking.
+ */
+class MctsTree {
+    /** Move of a pass node. */
+    static final int PASS = BitBoard.SQUARES;
+
+    static final int ROOT = 0;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // firstChild of a node that has no children yet; a node being expanded, or that cannot be
+    // because the pool is full, is marked with LEAF
+    private static final int UNEXPANDED = 0;
+    private static final int LEAF = -1;
+
+    private static final int VIRTUAL_LOSS = 1;
+    // a leaf is expanded on its second visit, so that most single playouts cost no node
+    private static final int EXPANSION_VISITS = 1;
+    private static final int MAX_PATH = 2 * BitBoard.SQUARES + 2;
+
+    private final int capacity;
+    private final byte[] moves;
+    private final byte[] childCounts;
+    private final int[] firstChildren;
+    private final int[] visits;
+    private final int[] rewards;
+    private final AtomicInteger size = new AtomicInteger();
+    private double exploration;
+
+    /**
+     * Creates a node pool.
+     *
+     * @param capacity the number of nodes
+     * @throws IllegalArgumentException if the capacity is less than 2 (the root and one child)
+     */
+    MctsTree(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("The tree needs at least 2 nodes: " + capacity);
+        }
+        this.capacity = capacity;
+        moves = new byte[capacity];
+        childCounts = new byte[capacity];
+        firstChildren = new int[capacity];
+        visits = new int[capacity];
+        rewards = new int[capacity];
+    }
+
+    /**
+     * Empties the tree and expands the root, before a search.
+     *
+     * @param own the discs of the player to move at the root
+     * @param opponent the discs of the opponent
+     * @param exploration the UCT exploration constant of the search
+     */
+    void reset(long own, long opponent, double exploration) {
+        this.exploration = exploration;
+        size.set(1);
+        initNode(ROOT, PASS);
+        expand(ROOT, own, opponent);
+    }
+
+    /**
+     * Runs one playout: goes down the tree by UCT, expands the leaf reached, finishes the game
+     * with random moves and adds the result to every node of the path.
+     *
+     * @param own the discs of the player to move at the root
+     * @param opponent the discs of the opponent
+     * @param random the random generator of the calling thread
+     * @param path a buffer of the calling thread
+     */
+    void playout(long own, long opponent, SplittableRandom random, int[] path) {
+        int node = ROOT;
+        int length = 0;
+        INTS.getAndAdd(visits, node, VIRTUAL_LOSS);
+        path[length++] = node;
+        while (true) {
+            int first = (int) INTS.getAcquire(firstChildren, node);
+            if (first == UNEXPANDED && visits[node] > EXPANSION_VISITS * VIRTUAL_LOSS) {
+                first = expand(node, own, opponent);
+            }
+            if (first <= 0) {
+                break;
+            }
+            node = select(node, first);
+            INTS.getAndAdd(visits, node, VIRTUAL_LOSS);
+            path[length++] = node;
+            int square = moves[node];
+            if (square != PASS) {
+                long flips = BitBoard.flips(square, own, opponent);
+                long played = own ^ (flips | (1L << square));
+                own = opponent ^ flips;
+                opponent = played;
+            } else {
+                long swap = own;
+                own = opponent;
+                opponent = swap;
+            }
+        }
+
+        // result for the player to move at the leaf; each node of the path swaps the player to move
+        int outcome = rollout(own, opponent, random);
+        for (int i = length - 1; i >= 0; i--) {
+            int reward = ((length - 1 - i) & 1) == 0 ? 2 - outcome : outcome;
+            INTS.getAndAdd(rewards, path[i], reward);
+            INTS.getAndAdd(visits, path[i], 1 - VIRTUAL_LOSS);
+        }
+    }
+
+    /**
+     * Reserves and publishes the children of a node: its legal moves, a single pass,
+     * or none at the end of the game.
+     *
+     * @return the index of the first child, or a value {@code <= 0} if the node stays a leaf
+     */
+    private int expand(int node, long own, long opponent) {
+        long legal = BitBoard.legalMoves(own, opponent);
+        int count = legal != 0 ? Long.bitCount(legal) : BitBoard.legalMoves(opponent, own) != 0 ? 1 : 0;
+        if (count == 0 || !INTS.compareAndSet(firstChildren, node, UNEXPANDED, LEAF)) {
+            return LEAF;
+        }
+        int first = size.getAndAdd(count);
+        if (first + count > capacity) {
+            // the pool is full: the node stays a leaf for the rest of the search
+            return LEAF;
+        }
+        if (legal == 0) {
+            initNode(first, PASS);
+        }
+        for (int child = first; legal != 0; legal &= legal - 1) {
+            initNode(child++, Long.numberOfTrailingZeros(legal));
+        }
+        childCounts[node] = (byte) count;
+        INTS.setRelease(firstChildren, node, first);
+        return first;
+    }
+
+    private void initNode(int node, int move) {
+        moves[node] = (byte) move;
+        childCounts[node] = 0;
+        firstChildren[node] = UNEXPANDED;
+        visits[node] = 0;
+        rewards[node] = 0;
+    }
+
+    /**
+     * Picks the child with the best upper confidence bound, a child never visited first.
+     */
+    private int select(int node, int first) {
+        double logVisits = Math.log(Math.max(1, visits[node]));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first, end = first + childCounts[node]; child < end; child++) {
+            int childVisits = visits[child];
+            if (childVisits == 0) {
+                return child;
+            }
+            double value = rewards[child] / (2.0 * childVisits) + exploration * Math.sqrt(logVisits / childVisits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays random moves until the end of the game (the random robot's policy, without allocating).
+     *
+     * @return 2 if the player to move wins, 1 for a draw, 0 if they lose
+     */
+    static int rollout(long own, long opponent, SplittableRandom random) {
+        boolean swapped = false;
+        while (true) {
+            long legal = BitBoard.legalMoves(own, opponent);
+            if (legal == 0) {
+                if (BitBoard.legalMoves(opponent, own) == 0) {
+                    break;
+                }
+            } else {
+                int square = BitBoard.nthSquare(legal, random.nextInt(Long.bitCount(legal)));
+                long flips = BitBoard.flips(square, own, opponent);
+                own ^= flips | (1L << square);
+                opponent ^= flips;
+            }
+            long swap = own;
+            own = opponent;
+            opponent = swap;
+            swapped = !swapped;
+        }
+        int difference = Long.bitCount(own) - Long.bitCount(opponent);
+        int outcome = difference > 0 ? 2 : difference == 0 ? 1 : 0;
+        return swapped ? 2 - outcome : outcome;
+    }
+
+    /**
+     * Gets the most visited move of the root (the most reliable estimate).
+     *
+     * @return the index of the child, or -1 if the root has no children
+     */
+    int bestChild() {
+        int first = firstChildren[ROOT];
+        if (first <= 0) {
+            return -1;
+        }
+        int best = first;
+        for (int child = first + 1, end = first + childCounts[ROOT]; child < end; child++) {
+            if (visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the move of a node.
+     *
+     * @return the square, or {@link #PASS}
+     */
+    int move(int node) {
+        return moves[node];
+    }
+
+    /**
+     * Gets the number of playouts through a node.
+     */
+    int visits(int node) {
+        return visits[node];
+    }
+
+    /**
+     * Gets the average result of the playouts through a node, for the player who played its move.
+     *
+     * @return the score between 0 (lost) and 1 (won)
+     */
+    double score(int node) {
+        return visits[node] == 0 ? 0.5 : rewards[node] / (2.0 * visits[node]);
+    }
+
+    /**
+     * Gets the number of nodes used by the last search.
+     */
+    int size() {
+        return Math.min(size.get(), capacity);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    static int[] newPath() {
+        return new int[MAX_PATH];
+    }
+}
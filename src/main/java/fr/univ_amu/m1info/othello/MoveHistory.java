@@ -0,0 +1,147 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Stack of the moves played in a game, used for undo.
+ * Each move is stored as a delta (placed square, flip mask, mover, elapsed time)
+ * in parallel primitive arrays, i.e. 17 bytes per move instead of a full board copy.
+ */
+public class MoveHistory {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] squares;
+    private byte[] players;
+    private long[] flips;
+    private long[] elapsedMillis;
+    private int size;
+
+    /**
+     * Creates an empty history.
+     */
+    public MoveHistory() {
+        squares = new byte[INITIAL_CAPACITY];
+        players = new byte[INITIAL_CAPACITY];
+        flips = new long[INITIAL_CAPACITY];
+        elapsedMillis = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Records a move on top of the history.
+     *
+     * @param square the square index where the piece was placed
+     * @param flipMask the mask of the flipped pieces
+     * @param player the player who made the move
+     * @param elapsed the elapsed game time when the move was played
+     */
+    public void push(int square, long flipMask, Player player, long elapsed) {
+        if (size == squares.length) {
+            int capacity = size * 2;
+            squares = Arrays.copyOf(squares, capacity);
+            players = Arrays.copyOf(players, capacity);
+            flips = Arrays.copyOf(flips, capacity);
+            elapsedMillis = Arrays.copyOf(elapsedMillis, capacity);
+        }
+        squares[size] = (byte) square;
+        players[size] = (byte) player.ordinal();
+        flips[size] = flipMask;
+        elapsedMillis[size] = elapsed;
+        size++;
+    }
+
+    /**
+     * Removes the last move of the history.
+     *
+     * @throws NoSuchElementException if the history is empty
+     */
+    public void pop() {
+        checkNotEmpty();
+        size--;
+    }
+
+    /**
+     * Gets the square of the last move.
+     *
+     * @return the square index
+     */
+    public int lastSquare() {
+        checkNotEmpty();
+        return squares[size - 1];
+    }
+
+    /**
+     * Gets the flip mask of the last move.
+     *
+     * @return the mask of the flipped pieces
+     */
+    public long lastFlips() {
+        checkNotEmpty();
+        return flips[size - 1];
+    }
+
+    /**
+     * Gets the player who made the last move.
+     *
+     * @return the player
+     */
+    public Player lastPlayer() {
+        checkNotEmpty();
+        return Player.values()[players[size - 1]];
+    }
+
+    /**
+     * Gets the elapsed time recorded with the last move.
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long lastElapsedMillis() {
+        checkNotEmpty();
+        return elapsedMillis[size - 1];
+    }
+
+    /**
+     * Gets a move of the history, the first move played having index 0.
+     *
+     * @param index the index of the move
+     * @return the move
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public MoveSnapshot get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No move at index " + index);
+        }
+        return new MoveSnapshot(squares[index], flips[index], Player.values()[players[index]], elapsedMillis[index]);
+    }
+
+    /**
+     * Gets the number of moves in the history.
+     *
+     * @return the number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the history is empty.
+     *
+     * @return true if no move is recorded
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every move (the storage is kept for the next game).
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("History is empty");
+        }
+    }
+}
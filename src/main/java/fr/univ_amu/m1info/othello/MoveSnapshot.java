@@ -1,12 +1,18 @@
 package fr.univ_amu.m1info.othello;
 
 /**
- * Represents a snapshot of game state for undo functionality.
+ * Represents one move of the game history, stored as a delta for undo functionality:
+ * undoing the move only needs the placed square and the flipped pieces.
+ *
+ * @param square the square index ({@code row * 8 + column}) where the piece was placed
+ * @param flips the mask of the pieces flipped by the move
+ * @param currentPlayer the player who made the move (the current player before it)
+ * @param elapsedMillis the elapsed game time when the move was played
  */
 public record MoveSnapshot(
-    CellState[][] boardSnapshot,
+    int square,
+    long flips,
     Player currentPlayer,
     long elapsedMillis
 ) {
 }
-
@@ -0,0 +1,294 @@
+package fr.univ_amu.m1info.othello;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only opening book: the moves played in the first plies of recorded games, with their results.
+ * The book file is memory-mapped and a lookup is a binary search, so the robots can query it
+ * before each move at no noticeable cost.
+ * <p>
+ * Positions are keyed by the hash of their canonical form ({@link CanonicalPosition}):
+ * the 8 symmetric versions of a position share their entries, and the moves are stored on the
+ * canonical board and mapped back on lookup.
+ * Book file format: a 16-byte header (magic {@code "OTBK"}, version, number of entries, number of plies),
+ * then the entries sorted by key, and by decreasing score for a key (16 bytes each: key, number of games,
+ * score of the player to move in 1/10000, square, one unused byte).
+ * <p>
+ * The book is built from a game file ({@link GameRecordWriter}), for example the self-play games of a
+ * {@link Tournament}: {@code ./gradlew openingBook --args="games.otgr book.otbk"}.
+ */
+public class OpeningBook implements Closeable {
+    static final byte[] MAGIC = {'O', 'T', 'B', 'K'};
+    static final int VERSION = 1;
+
+    /** Default number of plies covered by the book. */
+    public static final int DEFAULT_PLIES = 15;
+    /** Default minimum number of games for a move to be kept in the book. */
+    public static final int DEFAULT_MIN_GAMES = 3;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 16;
+    private static final int SCORE_SCALE = 10_000;
+
+    // offsets in the header
+    private static final long HEADER_VERSION = 4;
+    private static final long HEADER_ENTRIES = 8;
+    private static final long HEADER_PLIES = 12;
+
+    // offsets in an entry
+    private static final long ENTRY_KEY = 0;
+    private static final long ENTRY_GAMES = 8;
+    private static final long ENTRY_SCORE = 12;
+    private static final long ENTRY_SQUARE = 14;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED;
+
+    private final Arena arena;
+    private final MemorySegment book;
+    private final int entryCount;
+    private final int plies;
+
+    private OpeningBook(Arena arena, MemorySegment book) {
+        this.arena = arena;
+        this.book = book;
+        this.entryCount = book.get(INT, HEADER_ENTRIES);
+        this.plies = book.get(INT, HEADER_PLIES);
+    }
+
+    /**
+     * Opens a book file (built by {@link #build(Path, Path, int, int)}).
+     * The book can be queried from several threads; close it to unmap the file.
+     *
+     * @param bookFile the book file
+     * @return the book
+     * @throws IOException if the file cannot be mapped or is not a book file
+     */
+    public static OpeningBook open(Path bookFile) throws IOException {
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment book;
+            try (FileChannel channel = FileChannel.open(bookFile, StandardOpenOption.READ)) {
+                book = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            }
+            if (book.byteSize() < HEADER_SIZE
+                    || !Arrays.equals(book.asSlice(0, MAGIC.length).toArray(ValueLayout.JAVA_BYTE), MAGIC)) {
+                throw new IOException("Not an opening book file: " + bookFile);
+            }
+            if (book.get(INT, HEADER_VERSION) != VERSION) {
+                throw new IOException("Unsupported opening book version: " + bookFile);
+            }
+            if (book.byteSize() != HEADER_SIZE + (long) book.get(INT, HEADER_ENTRIES) * ENTRY_SIZE) {
+                throw new IOException("Truncated opening book: " + bookFile);
+            }
+            return new OpeningBook(arena, book);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds a book from the first plies of the games of a game file, replacing the book file if it exists.
+     *
+     * @param gameFile the game file
+     * @param bookFile the book file to write
+     * @param plies the number of plies (moves from the start position) to cover
+     * @param minGames the minimum number of games for a move to be kept
+     * @return the number of entries (position and move) of the book
+     * @throws IOException if a file cannot be read or written, or a game is invalid
+     */
+    public static int build(Path gameFile, Path bookFile, int plies, int minGames) throws IOException {
+        // for each canonical position: (square, games, points) triplets, a win counting 2 points and a draw 1
+        Map<Long, int[]> positions = new HashMap<>();
+        try (GameRecordReader reader = new GameRecordReader(gameFile)) {
+            for (GameRecord game = reader.read(); game != null; game = reader.read()) {
+                Position position = Position.initial();
+                for (int ply = 0; ply < Math.min(plies, game.moveCount()); ply++) {
+                    if (position.legalMoves() == 0) {
+                        position = position.pass();
+                    }
+                    int square = game.square(ply);
+                    CanonicalPosition canonical = position.canonical();
+                    int outcome = position.toMove() == Player.BLACK ? game.blackOutcome() : -game.blackOutcome();
+                    addMove(positions, canonical.hash(), canonical.toCanonical(square), outcome + 1);
+                    position = position.play(square);
+                }
+            }
+        }
+
+        List<long[]> entries = new ArrayList<>();
+        for (Map.Entry<Long, int[]> position : positions.entrySet()) {
+            int[] moves = position.getValue();
+            for (int i = 0; i < moves.length && moves[i + 1] > 0; i += 3) {
+                if (moves[i + 1] >= minGames) {
+                    long score = Math.round((double) moves[i + 2] * SCORE_SCALE / (2 * moves[i + 1]));
+                    entries.add(new long[] {position.getKey(), moves[i + 1], score, moves[i]});
+                }
+            }
+        }
+        // by key, then best score first, then most played first
+        entries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : a[2] != b[2] ? Long.compare(b[2], a[2]) : Long.compare(b[1], a[1]));
+
+        long size = HEADER_SIZE + (long) entries.size() * ENTRY_SIZE;
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(bookFile, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment book = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            MemorySegment.copy(MAGIC, 0, book, ValueLayout.JAVA_BYTE, 0, MAGIC.length);
+            book.set(INT, HEADER_VERSION, VERSION);
+            book.set(INT, HEADER_ENTRIES, entries.size());
+            book.set(INT, HEADER_PLIES, plies);
+            long offset = HEADER_SIZE;
+            for (long[] entry : entries) {
+                book.set(LONG, offset + ENTRY_KEY, entry[0]);
+                book.set(INT, offset + ENTRY_GAMES, (int) entry[1]);
+                book.set(SHORT, offset + ENTRY_SCORE, (short) entry[2]);
+                book.set(ValueLayout.JAVA_BYTE, offset + ENTRY_SQUARE, (byte) entry[3]);
+                offset += ENTRY_SIZE;
+            }
+            book.force();
+        }
+        return entries.size();
+    }
+
+    private static void addMove(Map<Long, int[]> positions, long key, int square, int points) {
+        int[] moves = positions.computeIfAbsent(key, _ -> new int[3 * 4]);
+        int i = 0;
+        while (i < moves.length && moves[i + 1] > 0 && moves[i] != square) {
+            i += 3;
+        }
+        if (i == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+            positions.put(key, moves);
+        }
+        moves[i] = square;
+        moves[i + 1]++;
+        moves[i + 2] += points;
+    }
+
+    /**
+     * Gets the number of plies covered by the book.
+     *
+     * @return the number of plies from the start position
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * Gets the number of entries (position and move) of the book.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the book moves of a position, best score first.
+     *
+     * @param position the position
+     * @return the legal book moves, empty if the position is not in the book
+     */
+    public List<BookMove> moves(Position position) {
+        CanonicalPosition canonical = position.canonical();
+        long key = canonical.hash();
+        long legalMoves = position.legalMoves();
+        List<BookMove> moves = new ArrayList<>();
+        for (int entry = firstEntry(key); entry < entryCount && keyAt(entry) == key; entry++) {
+            long offset = HEADER_SIZE + (long) entry * ENTRY_SIZE;
+            int square = canonical.fromCanonical(book.get(ValueLayout.JAVA_BYTE, offset + ENTRY_SQUARE));
+            // a legality check against hash collisions
+            if ((legalMoves & (1L << square)) != 0) {
+                moves.add(new BookMove(square, book.get(INT, offset + ENTRY_GAMES),
+                        (double) book.get(SHORT, offset + ENTRY_SCORE) / SCORE_SCALE));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the best book move of a position: the move with the best score, then the most played one.
+     *
+     * @param position the position
+     * @return the square index of the move, or -1 if the position is beyond the plies of the book or not in it
+     */
+    public int bestMove(Position position) {
+        if (BitBoard.SQUARES - 4 - position.empties() >= plies) {
+            return -1;
+        }
+        List<BookMove> moves = moves(position);
+        return moves.isEmpty() ? -1 : moves.getFirst().square();
+    }
+
+    /**
+     * Unmaps the file. The book must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Finds the first entry whose key is not lower than a key (binary search).
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int entry) {
+        return book.get(LONG, HEADER_SIZE + (long) entry * ENTRY_SIZE + ENTRY_KEY);
+    }
+
+    /**
+     * Builds a book from a game file and prints the book moves of the start position.
+     *
+     * @param args the game file, the book file, then optionally the number of plies and the minimum number of games
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OpeningBook GAME_FILE BOOK_FILE [PLIES] [MIN_GAMES]");
+            System.exit(2);
+        }
+        Path bookFile = Path.of(args[1]);
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLIES;
+        int minGames = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MIN_GAMES;
+        long start = System.currentTimeMillis();
+        int entries = build(Path.of(args[0]), bookFile, plies, minGames);
+        System.out.printf("Built %s in %d ms: %d entries (%d bytes)%n", bookFile, System.currentTimeMillis() - start,
+                entries, Files.size(bookFile));
+        try (OpeningBook book = open(bookFile)) {
+            for (BookMove move : book.moves(Position.initial())) {
+                System.out.printf("  (%d, %d): %d games, score %.1f%%%n", move.square() / BitBoard.SIZE,
+                        move.square() % BitBoard.SIZE, move.games(), 100 * move.score());
+            }
+        }
+    }
+}
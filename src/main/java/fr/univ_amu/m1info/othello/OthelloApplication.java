@@ -4,7 +4,10 @@ import fr.univ_amu.m1info.board_game_library.graphics.*;
 import fr.univ_amu.m1info.board_game_library.graphics.configuration.*;
 import fr.univ_amu.m1info.board_game_library.graphics.javafx.timer.JavaFXGameTimer;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Main application class for launching the Othello game.
@@ -25,15 +28,39 @@ public class OthelloApplication {
                         new LabeledElementConfiguration("Player vs Player", "MODE_PVP", LabeledElementKind.BUTTON),
                         new LabeledElementConfiguration("Easy AI", "MODE_PVAI_EASY", LabeledElementKind.BUTTON),
                         new LabeledElementConfiguration("Hard AI", "MODE_PVAI_HARD", LabeledElementKind.BUTTON),
+                        new LabeledElementConfiguration("Expert AI", "MODE_PVAI_EXPERT", LabeledElementKind.BUTTON),
+                        new LabeledElementConfiguration("MCTS AI", "MODE_PVAI_MCTS", LabeledElementKind.BUTTON),
                         new LabeledElementConfiguration("Current Player: Black", OthelloLabelId.CURRENT_PLAYER.getId(), LabeledElementKind.TEXT),
                         new LabeledElementConfiguration("Score: Black 2 - White 2", OthelloLabelId.SCORE.getId(), LabeledElementKind.TEXT),
                         new LabeledElementConfiguration("", OthelloLabelId.ERROR.getId(), LabeledElementKind.TEXT)
-                )
+                ),
+                // -Dothello.renderer=canvas pour dessiner le plateau sur un seul Canvas
+                rendererOf(System.getProperty("othello.renderer", "grid"))
         );
 
         // Create the game (domain logic)
         OthelloGame game = new OthelloGame(dimensions);
 
+        // -Dothello.book=book.otbk : livre d'ouvertures des robots (ouvert pour toute la durée de l'application)
+        String bookFile = System.getProperty("othello.book");
+        if (bookFile != null) {
+            try {
+                game.setOpeningBook(OpeningBook.open(Path.of(bookFile)));
+            } catch (IOException e) {
+                System.err.println("Opening book not loaded: " + e.getMessage());
+            }
+        }
+
+        // -Dothello.weights=weights.otew : poids de l'évaluation par motifs (WeightTrainer) utilisés par la recherche
+        String weightFile = System.getProperty("othello.weights");
+        if (weightFile != null) {
+            try {
+                game.getSearchEngine().setEvaluator(PatternEvaluator.load(Path.of(weightFile)));
+            } catch (IOException e) {
+                System.err.println("Evaluation weights not loaded: " + e.getMessage());
+            }
+        }
+
         // Create the timer
         GameTimer timer = new JavaFXGameTimer();
 
@@ -49,4 +76,20 @@ public class OthelloApplication {
         BoardGameApplicationLauncher launcher = JavaFXBoardGameApplicationLauncher.getInstance();
         launcher.launchApplication(configuration, genericController);
     }
-}
\ No newline at end of file
+
+    /**
+     * Trouve le mode de dessin du plateau demandé, sans tenir compte de la casse ni de la langue du système.
+     * Un nom inconnu est signalé et remplacé par la grille, comme un livre ou des poids illisibles.
+     *
+     * @param name le nom du mode de dessin ("grid" ou "canvas")
+     * @return le mode de dessin
+     */
+    static BoardRenderer rendererOf(String name) {
+        try {
+            return BoardRenderer.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown board renderer: " + name + ", using " + BoardRenderer.GRID);
+            return BoardRenderer.GRID;
+        }
+    }
+}
@@ -5,41 +5,44 @@ import fr.univ_amu.m1info.othello.Coordinates;
 /**
  * Represents the Othello game board and manages the game state.
  * This class handles piece placement, game logic, and board state.
+ * The cells are stored in a {@link BitBoard} (one 64-bit mask per color).
  */
 public class OthelloBoard {
-    private static final int BOARD_SIZE = 8;
-    private final CellState[][] board;
+    private static final int BOARD_SIZE = BitBoard.SIZE;
+    private final BitBoard engine;
 
     /**
      * Creates a new Othello board with the standard starting configuration.
      */
     public OthelloBoard() {
-        board = new CellState[BOARD_SIZE][BOARD_SIZE];
-        reset();
+        engine = new BitBoard();
     }
 
     /**
-     * Initializes the board with the standard Othello starting position:
+     * Resets the board to its initial state:
      * 4 pieces in the center (2 black, 2 white).
      */
-    private void initializeBoard() {
-        // Standard Othello starting position
-        board[3][3] = CellState.WHITE;
-        board[3][4] = CellState.BLACK;
-        board[4][3] = CellState.BLACK;
-        board[4][4] = CellState.WHITE;
+    public void reset() {
+        engine.reset();
     }
 
     /**
-     * Resets the board to its initial state.
+     * Gets the Zobrist hash of the pieces on the board, maintained incrementally
+     * by every move, undo and piece change.
+     *
+     * @return the hash of the board (the player to move is not included).
      */
-    public void reset() {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                board[row][col] = CellState.EMPTY;
-            }
-        }
-        initializeBoard();
+    public long getHash() {
+        return engine.hash();
+    }
+
+    /**
+     * Gets the bitboard engine holding the cells of this board.
+     *
+     * @return the bitboard engine.
+     */
+    public BitBoard getEngine() {
+        return engine;
     }
 
     /**
@@ -50,7 +53,7 @@ public class OthelloBoard {
      * @return true if the cell is empty, false otherwise.
      */
     public boolean isEmpty(int row, int column) {
-        return isValidPosition(row, column) && board[row][column].isEmpty();
+        return isValidPosition(row, column) && engine.isEmpty(BitBoard.square(row, column));
     }
 
     /**
@@ -64,7 +67,7 @@ public class OthelloBoard {
         if (!isValidPosition(row, column)) {
             return null;
         }
-        return board[row][column].toPlayer();
+        return engine.get(BitBoard.square(row, column)).toPlayer();
     }
 
     /**
@@ -82,7 +85,7 @@ public class OthelloBoard {
         if (!isEmpty(row, column)) {
             throw new IllegalArgumentException("Cell is not empty: (" + row + ", " + column + ")");
         }
-        board[row][column] = CellState.fromPlayer(player);
+        engine.set(BitBoard.square(row, column), CellState.fromPlayer(player));
     }
 
     /**
@@ -97,21 +100,23 @@ public class OthelloBoard {
     }
 
     /**
-     * Counts the number of pieces for a specific player.
+     * Counts the number of pieces for a specific player, in constant time
+     * (the counts are maintained by every move, undo, piece change and restore).
      *
      * @param player the player to count pieces for.
      * @return the number of pieces belonging to the player.
      */
     public int countPieces(Player player) {
-        int count = 0;
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                if (board[row][col].toPlayer() == player) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return engine.countPieces(player);
+    }
+
+    /**
+     * Counts the empty cells, in constant time.
+     *
+     * @return the number of empty cells.
+     */
+    public int countEmpty() {
+        return engine.countEmpty();
     }
 
     /**
@@ -131,77 +136,10 @@ public class OthelloBoard {
      * @return true if the move is valid, false otherwise.
      */
     public boolean isValidMove(int row, int column, Player player) {
-
-        if (!isEmpty(row, column)) {
-            return false;
-        }
-
-        // directions : N, NE, E, SE, S, SW, W, NW
-        int[] dr = {-1, -1, 0, 1, 1, 1, 0, -1};
-        int[] dc = { 0, 1, 1, 1, 0, -1, -1, -1};
-
-        for (int d = 0; d < dr.length; d++) {
-
-            int r = row + dr[d];
-            int c = column + dc[d];
-
-            // must have at least one opponent piece adjacent in this direction
-            if (getPlayerAt(r, c) != player.getOpponent()) {
-                continue;
-            }
-
-            // keep going until we find player's piece (valid) or empty/null/border (invalid)
-            r += dr[d];
-            c += dc[d];
-
-            while (isValidPosition(r, c)) {
-
-                Player p = getPlayerAt(r, c);
-                if (p == null) break; // empty -> not a capture in this direction
-                if (p == player) return true; // found bracketing piece -> valid move
-                // otherwise it's still opponent, continue
-                r += dr[d];
-                c += dc[d];
-            }
-        }
-
-        return false;
+        return isValidPosition(row, column) && engine.isValidMove(BitBoard.square(row, column), player);
     }
 
     // 5A: Identify lines where opponent pieces are bracketed
-    /**
-     * Finds all opponent pieces that would be flipped in a specific direction
-     * from the given position.
-     *
-     * @param row the starting row position.
-     * @param column the starting column position.
-     * @param rowDelta the row direction (-1, 0, or 1).
-     * @param colDelta the column direction (-1, 0, or 1).
-     * @param player the player making the move.
-     * @return an array of positions [row, col] that should be flipped, or empty array if none.
-     */
-    private java.util.List<Coordinates> findFlippablePiecesInDirection(int row, int column, int rowDelta, int colDelta, Player player) {
-        java.util.List<Coordinates> flippable = new java.util.ArrayList<>();
-
-        int r = row + rowDelta;
-        int c = column + colDelta;
-
-        // Collect opponent pieces
-        while (isValidPosition(r, c) && getPlayerAt(r, c) == player.getOpponent()) {
-            flippable.add(new Coordinates(r, c));
-            r += rowDelta;
-            c += colDelta;
-        }
-
-        // Check if we found a bracketing piece (player's own piece)
-        if (isValidPosition(r, c) && getPlayerAt(r, c) == player && !flippable.isEmpty()) {
-            return flippable;
-        }
-
-        // No valid bracket found
-        return java.util.Collections.emptyList();
-    }
-
     /**
      * Finds all opponent pieces that would be flipped if the player places a piece
      * at the specified position.
@@ -212,16 +150,16 @@ public class OthelloBoard {
      * @return a list of all positions [row, col] that would be flipped.
      */
     public java.util.List<Coordinates> findAllFlippablePieces(int row, int column, Player player) {
-        java.util.List<Coordinates> allFlippable = new java.util.ArrayList<>();
-
-        // Check all 8 directions: N, NE, E, SE, S, SW, W, NW
-        int[] dr = {-1, -1, 0, 1, 1, 1, 0, -1};
-        int[] dc = { 0, 1, 1, 1, 0, -1, -1, -1};
-
-        for (int d = 0; d < dr.length; d++) {
-            allFlippable.addAll(findFlippablePiecesInDirection(row, column, dr[d], dc[d], player));
+        if (!isValidPosition(row, column)) {
+            return java.util.Collections.emptyList();
         }
+        long flips = BitBoard.flips(BitBoard.square(row, column),
+                engine.discs(player), engine.discs(player.getOpponent()));
 
+        java.util.List<Coordinates> allFlippable = new java.util.ArrayList<>(Long.bitCount(flips));
+        for (var squares = BitBoard.squares(flips); squares.hasNext(); ) {
+            allFlippable.add(Coordinates.fromSquare(squares.nextInt()));
+        }
         return allFlippable;
     }
 
@@ -238,10 +176,11 @@ public class OthelloBoard {
         if (!isValidPosition(row, column)) {
             throw new IllegalArgumentException("Invalid position: (" + row + ", " + column + ")");
         }
-        if (board[row][column].isEmpty()) {
+        int square = BitBoard.square(row, column);
+        if (engine.isEmpty(square)) {
             throw new IllegalArgumentException("Cannot flip empty cell: (" + row + ", " + column + ")");
         }
-        board[row][column] = CellState.fromPlayer(player);
+        engine.set(square, CellState.fromPlayer(player));
     }
 
     // 5C: Execute a move and update the board
@@ -256,22 +195,69 @@ public class OthelloBoard {
      * @throws IllegalArgumentException if the move is invalid.
      */
     public int executeMove(int row, int column, Player player) {
-        if (!isValidMove(row, column, player)) {
+        long flips = getFlipMask(row, column, player);
+        if (flips == 0) {
             throw new IllegalArgumentException("Invalid move");
         }
 
-        // Find all pieces to flip
-        java.util.List<Coordinates> piecesToFlip = findAllFlippablePieces(row, column, player);
-
-        // Place the piece
-        placePiece(row, column, player);
+        // Place the piece and flip all bracketed pieces
+        return applyMove(row, column, flips, player);
+    }
 
-        // Flip all bracketed pieces
-        for (Coordinates coord : piecesToFlip) {
-            flipPiece(coord.row(), coord.column(), player);
+    /**
+     * Computes the pieces that a move would flip, as a mask
+     * (bit {@code row * 8 + column} set for each flipped piece).
+     * This method does not allocate; a move is valid exactly when the mask is not 0.
+     *
+     * @param row the row where the piece would be placed.
+     * @param column the column where the piece would be placed.
+     * @param player the player making the move.
+     * @return the mask of the flipped pieces, or 0 if the cell is not empty or nothing is bracketed.
+     */
+    public long getFlipMask(int row, int column, Player player) {
+        if (!isEmpty(row, column)) {
+            return 0;
         }
+        return BitBoard.flips(BitBoard.square(row, column), engine.discs(player), engine.discs(player.getOpponent()));
+    }
 
-        return piecesToFlip.size();
+    /**
+     * Applies a move whose flip mask has already been computed with
+     * {@link #getFlipMask(int, int, Player)}, without validating it again.
+     *
+     * @param row the row where the piece is placed.
+     * @param column the column where the piece is placed.
+     * @param flips the mask of the pieces to flip.
+     * @param player the player making the move.
+     * @return the number of pieces that were flipped.
+     */
+    public int applyMove(int row, int column, long flips, Player player) {
+        return engine.makeMove(BitBoard.square(row, column), flips, player);
+    }
+
+    /**
+     * Computes every valid move of the specified player in a single pass.
+     * Bit {@code row * 8 + column} is set when (row, column) is a valid move;
+     * use {@link BitBoard#squares(long)} to iterate over them.
+     *
+     * @param player the player to generate the moves for.
+     * @return the mask of the valid moves.
+     */
+    public long getValidMovesMask(Player player) {
+        return BitBoard.legalMoves(engine.discs(player), engine.discs(player.getOpponent()));
+    }
+
+    /**
+     * Takes back a move applied with {@link #applyMove(int, int, long, Player)}:
+     * removes the placed piece and flips the pieces back.
+     *
+     * @param row the row where the piece was placed.
+     * @param column the column where the piece was placed.
+     * @param flips the mask of the pieces that were flipped.
+     * @param player the player who made the move.
+     */
+    public void undoMove(int row, int column, long flips, Player player) {
+        engine.undoMove(BitBoard.square(row, column), flips, player);
     }
 
     // US 12A: Check if a player has any valid moves
@@ -282,14 +268,7 @@ public class OthelloBoard {
      * @return true if the player has at least one valid move, false otherwise.
      */
     public boolean hasValidMoves(Player player) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                if (isValidMove(row, col, player)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return engine.hasValidMoves(player);
     }
     /**
      * Returns a deep copy snapshot of the current board as CellState[][]
@@ -297,7 +276,9 @@ public class OthelloBoard {
     public CellState[][] getBoardSnapshot() {
         CellState[][] snap = new CellState[BOARD_SIZE][BOARD_SIZE];
         for (int r = 0; r < BOARD_SIZE; r++) {
-            System.arraycopy(board[r], 0, snap[r], 0, BOARD_SIZE);
+            for (int c = 0; c < BOARD_SIZE; c++) {
+                snap[r][c] = engine.get(BitBoard.square(r, c));
+            }
         }
         return snap;
     }
@@ -309,9 +290,19 @@ public class OthelloBoard {
         if (snapshot == null || snapshot.length != BOARD_SIZE || snapshot[0].length != BOARD_SIZE) {
             throw new IllegalArgumentException("Invalid snapshot size");
         }
+        long black = 0;
+        long white = 0;
         for (int r = 0; r < BOARD_SIZE; r++) {
-            System.arraycopy(snapshot[r], 0, board[r], 0, BOARD_SIZE);
+            for (int c = 0; c < BOARD_SIZE; c++) {
+                long bit = 1L << BitBoard.square(r, c);
+                if (snapshot[r][c] == CellState.BLACK) {
+                    black |= bit;
+                } else if (snapshot[r][c] == CellState.WHITE) {
+                    white |= bit;
+                }
+            }
         }
+        engine.setMasks(black, white);
     }
 
 }
@@ -1,10 +1,12 @@
 package fr.univ_amu.m1info.othello;
 
 import fr.univ_amu.m1info.board_game_library.graphics.*;
-import javafx.animation.PauseTransition;
-import javafx.util.Duration;
+import javafx.application.Platform;
 
-import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controller for the Othello game.
@@ -13,16 +15,36 @@ import java.util.List;
  */
 public class OthelloController implements BoardGameController {
 
+    /** Default minimum time between the human move and the robot answer, so that the robot move can be seen. */
+    public static final long DEFAULT_ROBOT_DELAY_MILLIS = 1000;
+
     private BoardGameView view;
     private final OthelloGame game;
     private final GameTimer timer;
     private long timeOffset = 0L;
     private Coordinates lastRobotMove = null; // mémorise la dernière case jouée par le robot
 
-    // Flag indiquant que le robot est en attente de jouer (durant la PauseTransition)
+    // Dernier état dessiné dans la vue, pour ne redessiner que les cases modifiées
+    private boolean boardRendered = false;
+    private long renderedBlack;
+    private long renderedWhite;
+    private long renderedSuggestions;
+    private long renderedHighlight;
+
+    // Flag indiquant que le robot est en attente de jouer (calcul ou délai d'affichage en cours)
     private boolean robotThinking = false;
-    // Référence à la PauseTransition en cours afin de pouvoir l'annuler
-    private PauseTransition robotDelay = null;
+    // Calcul du robot en cours afin de pouvoir l'annuler
+    private FutureTask<Void> pendingRobotMove = null;
+    // Drapeau d'arrêt de ce calcul, levé à l'annulation même si la recherche n'a pas encore commencé
+    private AtomicBoolean pendingRobotStop = null;
+    // Numéro de la dernière demande de coup du robot : un résultat d'une demande annulée est ignoré
+    private int robotRequest = 0;
+
+    // Exécuteur des calculs du robot (hors du thread JavaFX)
+    private final Executor robotExecutor;
+    // Exécuteur du thread d'interface (Platform::runLater en dehors des tests)
+    private final Executor uiExecutor;
+    private final long minimumRobotDelayMillis;
 
     /**
      * Indique si le mode IA (robot) est activé.
@@ -31,7 +53,7 @@ public class OthelloController implements BoardGameController {
     private boolean aiEnabled = false;
 
     /**
-     * Niveau de difficulté du robot (EASY ou HARD).
+     * Niveau de difficulté du robot (EASY, HARD, EXPERT ou MCTS).
      * Utilisé uniquement si aiEnabled est true.
      */
     private RobotDifficulty robotDifficulty = RobotDifficulty.EASY;
@@ -49,13 +71,35 @@ public class OthelloController implements BoardGameController {
      * @param timer the game timer instance
      */
     public OthelloController(OthelloGame game, GameTimer timer) {
+        this(game, timer, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "othello-robot");
+            thread.setDaemon(true);
+            return thread;
+        }), Platform::runLater, DEFAULT_ROBOT_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates a new Othello controller with explicit threading (used by tests).
+     *
+     * @param game the Othello game instance
+     * @param timer the game timer instance
+     * @param robotExecutor the executor computing the robot moves
+     * @param uiExecutor the executor running code on the UI thread
+     * @param minimumRobotDelayMillis the minimum time before a robot move is shown
+     */
+    public OthelloController(OthelloGame game, GameTimer timer, Executor robotExecutor, Executor uiExecutor,
+                             long minimumRobotDelayMillis) {
         this.game = game;
         this.timer = timer;
+        this.robotExecutor = robotExecutor;
+        this.uiExecutor = uiExecutor;
+        this.minimumRobotDelayMillis = minimumRobotDelayMillis;
     }
 
     @Override
     public void initializeViewOnStart(BoardGameView view) {
         this.view = view;
+        boardRendered = false;
         view.addLabel(OthelloLabelId.TIMER.getId(), "00:00");
         updateViewFromGameState();
         timer.start();
@@ -116,30 +160,105 @@ public class OthelloController implements BoardGameController {
             return;
         }
 
-        // Si IA activée et c'est au tour du robot (WHITE), attendre 1s puis jouer
+        // Si IA activée et c'est au tour du robot (WHITE), lancer son calcul
         if (aiEnabled && game.getCurrentPlayer() == Player.WHITE && game.getStatus() == GameStatus.IN_PROGRESS) {
-            // cancel any previous pending delay just in case
-            if (robotDelay != null) {
-                robotDelay.stop();
-                robotDelay = null;
-            }
-            robotThinking = true;
-            robotDelay = new PauseTransition(Duration.seconds(1));
-            robotDelay.setOnFinished(evt -> {
-                // perform robot move with current difficulty level
-                Coordinates robotChoice = game.playRobotMove(robotDifficulty, timer.getElapsedMillis() + timeOffset);
-                robotThinking = false;
-                robotDelay = null;
-                if (robotChoice != null) {
-                    lastRobotMove = robotChoice;
-                    updateViewFromGameState();
-                    if (game.getStatus() != GameStatus.IN_PROGRESS) {
-                        handleGameOver();
-                    }
+            scheduleRobotMove();
+        }
+    }
+
+    /**
+     * Computes the robot move on the robot executor, from a copy of the position,
+     * then plays it on the UI thread once the minimum display delay has passed.
+     */
+    private void scheduleRobotMove() {
+        cancelRobotMove();
+        robotThinking = true;
+        int request = robotRequest;
+        Position position = game.getPosition();
+        RobotDifficulty difficulty = robotDifficulty;
+        AtomicBoolean stop = new AtomicBoolean();
+        long start = System.currentTimeMillis();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                int square = game.chooseRobotMove(difficulty, position, stop);
+                // the delay only covers what the computation did not already take
+                long remaining = minimumRobotDelayMillis - (System.currentTimeMillis() - start);
+                if (remaining > 0) {
+                    Thread.sleep(remaining);
                 }
-            });
-            robotDelay.play();
+                uiExecutor.execute(() -> applyRobotMove(request, square));
+            } catch (InterruptedException e) {
+                // cancelled: the move is not played
+            } catch (RuntimeException e) {
+                uiExecutor.execute(() -> robotMoveFailed(request, e));
+            }
+            return null;
+        });
+        pendingRobotMove = task;
+        pendingRobotStop = stop;
+        robotExecutor.execute(task);
+    }
+
+    /**
+     * Plays the robot move computed for a request, unless the request was cancelled since.
+     */
+    private void applyRobotMove(int request, int square) {
+        if (request != robotRequest) {
+            return;
+        }
+        pendingRobotMove = null;
+        pendingRobotStop = null;
+        robotThinking = false;
+        if (square < 0) {
+            return;
         }
+        Coordinates robotChoice = Coordinates.fromSquare(square);
+        if (!game.playMove(robotChoice.row(), robotChoice.column(), timer.getElapsedMillis() + timeOffset).valid()) {
+            return;
+        }
+        lastRobotMove = robotChoice;
+        updateViewFromGameState();
+        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+            handleGameOver();
+        } else if (game.getCurrentPlayer() == Player.WHITE) {
+            // l'humain doit passer son tour : le robot rejoue
+            scheduleRobotMove();
+        }
+    }
+
+    private void robotMoveFailed(int request, RuntimeException e) {
+        if (request != robotRequest) {
+            return;
+        }
+        pendingRobotMove = null;
+        pendingRobotStop = null;
+        robotThinking = false;
+        if (view != null) {
+            view.updateLabeledElement(OthelloLabelId.ERROR.getId(), "❌ Robot error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cancels the robot move in progress, if any: its result will be ignored.
+     */
+    private void cancelRobotMove() {
+        robotRequest++;
+        if (pendingRobotMove != null) {
+            pendingRobotMove.cancel(true);
+            pendingRobotMove = null;
+            pendingRobotStop.set(true);
+            pendingRobotStop = null;
+        }
+        robotThinking = false;
+    }
+
+    /**
+     * Tells if a robot move is being computed or waiting to be shown.
+     *
+     * @return true while the robot is thinking
+     */
+    public boolean isRobotThinking() {
+        return robotThinking;
     }
 
 
@@ -147,12 +266,8 @@ public class OthelloController implements BoardGameController {
     public void buttonActionOnClick(String buttonId) {
         // D'abord, gérer les boutons de mode de jeu, qui n'appartiennent pas à OthelloButtonId
         if ("MODE_PVP".equals(buttonId)) {
-            // cancel pending robot delay
-            if (robotDelay != null) {
-                robotDelay.stop();
-                robotDelay = null;
-            }
-            robotThinking = false;
+            // cancel pending robot move
+            cancelRobotMove();
             setAiEnabled(false);
             currentGameMode = "Player vs Player";
             lastRobotMove = null;
@@ -163,11 +278,7 @@ public class OthelloController implements BoardGameController {
             return;
         }
         if ("MODE_PVAI_EASY".equals(buttonId)) {
-            if (robotDelay != null) {
-                robotDelay.stop();
-                robotDelay = null;
-            }
-            robotThinking = false;
+            cancelRobotMove();
             setAiEnabled(true);
             setRobotDifficulty(RobotDifficulty.EASY);
             currentGameMode = "Player vs Easy AI";
@@ -179,11 +290,7 @@ public class OthelloController implements BoardGameController {
             return;
         }
         if ("MODE_PVAI_HARD".equals(buttonId)) {
-            if (robotDelay != null) {
-                robotDelay.stop();
-                robotDelay = null;
-            }
-            robotThinking = false;
+            cancelRobotMove();
             setAiEnabled(true);
             setRobotDifficulty(RobotDifficulty.HARD);
             currentGameMode = "Player vs Hard AI";
@@ -195,24 +302,42 @@ public class OthelloController implements BoardGameController {
             return;
         }
 
+        if ("MODE_PVAI_EXPERT".equals(buttonId)) {
+            cancelRobotMove();
+            setAiEnabled(true);
+            setRobotDifficulty(RobotDifficulty.EXPERT);
+            currentGameMode = "Player vs Expert AI";
+            lastRobotMove = null;
+            handleReset(); // nouvelle partie en mode joueur vs robot expert
+            if (view != null) {
+                view.updateLabeledElement(OthelloLabelId.ERROR.getId(), "Mode: Player vs Expert AI");
+            }
+            return;
+        }
+
+        if ("MODE_PVAI_MCTS".equals(buttonId)) {
+            cancelRobotMove();
+            setAiEnabled(true);
+            setRobotDifficulty(RobotDifficulty.MCTS);
+            currentGameMode = "Player vs MCTS AI";
+            lastRobotMove = null;
+            handleReset(); // nouvelle partie en mode joueur vs robot Monte Carlo
+            if (view != null) {
+                view.updateLabeledElement(OthelloLabelId.ERROR.getId(), "Mode: Player vs MCTS AI");
+            }
+            return;
+        }
+
         // Ensuite, gérer les boutons standards RESET / UNDO via OthelloButtonId
         try {
             OthelloButtonId button = OthelloButtonId.fromId(buttonId);
             switch (button) {
                 case RESET -> {
-                    if (robotDelay != null) {
-                        robotDelay.stop();
-                        robotDelay = null;
-                    }
-                    robotThinking = false;
+                    cancelRobotMove();
                     handleReset();
                 }
                 case UNDO -> {
-                    if (robotDelay != null) {
-                        robotDelay.stop();
-                        robotDelay = null;
-                        robotThinking = false;
-                    }
+                    cancelRobotMove();
                     handleUndo();
                 }
             }
@@ -229,6 +354,7 @@ public class OthelloController implements BoardGameController {
         timer.reset();
         timeOffset = 0L;
         lastRobotMove = null;
+        boardRendered = false;
         view.updateLabeledElement(OthelloLabelId.TIMER.getId(), "00:00");
         updateViewFromGameState();
         stopUITimer();
@@ -246,9 +372,9 @@ public class OthelloController implements BoardGameController {
                 view.updateLabeledElement(OthelloLabelId.ERROR.getId(), "⚠️ No move to undo.");
                 return;
             }
-            // annuler le coup précédent (humain)
-            if (!game.undo()) {
-                // aucun autre coup, ok
+            // annuler jusqu'au dernier coup de l'humain (Noir), y compris quand le robot n'avait pas encore joué
+            while (game.getCurrentPlayer() != Player.BLACK && game.undo()) {
+                // coup du robot ou de l'humain annulé
             }
             lastRobotMove = null;
         } else {
@@ -291,53 +417,77 @@ public class OthelloController implements BoardGameController {
     }
 
     /**
-     * Updates the entire view to match the current game state.
+     * Updates the view to match the current game state, in a single batch
+     * so that the whole move is displayed at once.
      */
     private void updateViewFromGameState() {
-        // Clear and redraw board
-        view.resetBoard();
-        setDefaultBoardColors();
-
-        // Draw all pieces
-        OthelloBoard board = game.getBoard();
-        for (int row = 0; row < board.getSize(); row++) {
-            for (int col = 0; col < board.getSize(); col++) {
-                Player player = board.getPlayerAt(row, col);
-                if (player != null) {
-                    Color pieceColor = player == Player.BLACK ? Color.BLACK : Color.WHITE;
-                    view.addShapeAtCell(row, col, Shape.CIRCLE, pieceColor);
-                }
-            }
-        }
+        view.batchUpdate(() -> {
+            renderBoard();
 
-        // Colorer en rouge la dernière case jouée par le robot
-        if (lastRobotMove != null) {
-            view.setCellColor(lastRobotMove.row(), lastRobotMove.column(), Color.RED);
-            // redraw piece if it exists
-            Player p = board.getPlayerAt(lastRobotMove.row(), lastRobotMove.column());
-            if (p != null) {
-                Color pieceColor = p == Player.BLACK ? Color.BLACK : Color.WHITE;
-                view.addShapeAtCell(lastRobotMove.row(), lastRobotMove.column(), Shape.CIRCLE, pieceColor);
-            }
-        }
+            // Update labels
+            updateCurrentPlayerLabel();
+            updateScoreLabel();
+        });
+    }
 
-        // Update labels
-        updateCurrentPlayerLabel();
-        updateScoreLabel();
+    /**
+     * Redessine les cases qui ont changé depuis le dernier rendu : case jouée, pions retournés,
+     * suggestions apparues ou disparues, surbrillance du dernier coup du robot.
+     * Le premier rendu (et celui qui suit un reset) redessine tout le plateau.
+     */
+    private void renderBoard() {
+        BitBoard engine = game.getBoard().getEngine();
+        long black = engine.black();
+        long white = engine.white();
+        long suggestions = game.getValidMovesMask(game.getCurrentPlayer());
+        long highlight = lastRobotMove == null ? 0 : 1L << lastRobotMove.toSquare();
+
+        long dirty;
+        if (boardRendered) {
+            dirty = (black ^ renderedBlack) | (white ^ renderedWhite)
+                    | (suggestions ^ renderedSuggestions) | (highlight ^ renderedHighlight);
+        } else {
+            view.resetBoard();
+            dirty = -1L;
+        }
+        for (var squares = BitBoard.squares(dirty); squares.hasNext(); ) {
+            renderCell(Coordinates.fromSquare(squares.nextInt()), black, white, suggestions, highlight,
+                    boardRendered);
+        }
 
-        // Show suggestions
-        showSuggestions();
+        boardRendered = true;
+        renderedBlack = black;
+        renderedWhite = white;
+        renderedSuggestions = suggestions;
+        renderedHighlight = highlight;
     }
 
     /**
-     * Shows suggestion overlays for all valid moves of the current player.
+     * Redessine une case : couleur de fond (rouge pour le dernier coup du robot), pion et suggestion.
      */
-    private void showSuggestions() {
-        view.clearSuggestions();
+    private void renderCell(Coordinates cell, long black, long white, long suggestions, long highlight,
+                            boolean clearShapes) {
+        int row = cell.row();
+        int col = cell.column();
+        long bit = 1L << cell.toSquare();
+        if (clearShapes) {
+            view.removeShapesAtCell(row, col);
+        }
 
-        List<Coordinates> validMoves = game.getValidMoves(game.getCurrentPlayer());
-        for (Coordinates coord : validMoves) {
-            view.addShapeAtCell(coord.row(), coord.column(), Shape.SUGGESTION, Color.BLACK);
+        Color cellColor;
+        if ((highlight & bit) != 0) {
+            cellColor = Color.RED;
+        } else {
+            cellColor = (row + col) % 2 == 0 ? Color.GREEN : Color.DARKGREEN;
+        }
+        view.setCellColor(row, col, cellColor);
+
+        if ((black & bit) != 0) {
+            view.addShapeAtCell(row, col, Shape.CIRCLE, Color.BLACK);
+        } else if ((white & bit) != 0) {
+            view.addShapeAtCell(row, col, Shape.CIRCLE, Color.WHITE);
+        } else if ((suggestions & bit) != 0) {
+            view.addShapeAtCell(row, col, Shape.SUGGESTION, Color.BLACK);
         }
     }
 
@@ -350,9 +500,8 @@ public class OthelloController implements BoardGameController {
         
         stopUITimer();
 
-        OthelloBoard board = game.getBoard();
-        int blackScore = board.countPieces(Player.BLACK);
-        int whiteScore = board.countPieces(Player.WHITE);
+        int blackScore = game.countPieces(Player.BLACK);
+        int whiteScore = game.countPieces(Player.WHITE);
         int totalMoves = game.getTotalMoves();
         
         // Show modern game over dialog
@@ -393,26 +542,12 @@ public class OthelloController implements BoardGameController {
      * Updates the score label in the view with current piece counts.
      */
     private void updateScoreLabel() {
-        OthelloBoard board = game.getBoard();
-        int blackScore = board.countPieces(Player.BLACK);
-        int whiteScore = board.countPieces(Player.WHITE);
+        int blackScore = game.countPieces(Player.BLACK);
+        int whiteScore = game.countPieces(Player.WHITE);
         view.updateLabeledElement(OthelloLabelId.SCORE.getId(),
             "Score: Black " + blackScore + " - White " + whiteScore);
     }
 
-    /**
-     * Sets the default color pattern for the board cells.
-     */
-    private void setDefaultBoardColors() {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                boolean isEvenCell = (row + col) % 2 == 0;
-                Color cellColor = isEvenCell ? Color.GREEN : Color.DARKGREEN;
-                view.setCellColor(row, col, cellColor);
-            }
-        }
-    }
-
     /**
      * Formats a duration in milliseconds into a human readable string.
      *
@@ -2,9 +2,9 @@ package fr.univ_amu.m1info.othello;
 
 import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDimensions;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Represents an Othello game with pure business logic.
@@ -13,9 +13,23 @@ import java.util.List;
 public class OthelloGame {
     private final OthelloBoard board;
     private Player currentPlayer;
-    private final Deque<MoveSnapshot> history;
+    private final MoveHistory history;
     private GameStatus status;
     private int totalMoves;
+    private final SearchEngine searchEngine;
+    private final MctsEngine mctsEngine;
+    private volatile SearchResult lastSearchResult;
+    private volatile MctsResult lastMctsResult;
+    private volatile OpeningBook openingBook;
+
+    // legal moves and disc counts of the position (cachedBlack, cachedWhite), computed once per position
+    private long cachedBlack;
+    private long cachedWhite;
+    private boolean cacheFilled;
+    private long blackMoves;
+    private long whiteMoves;
+    private int blackCount;
+    private int whiteCount;
 
     /**
      * Creates a new Othello game with the specified dimensions.
@@ -25,9 +39,11 @@ public class OthelloGame {
     public OthelloGame(BoardGameDimensions dimensions) {
         this.board = new OthelloBoard();
         this.currentPlayer = Player.BLACK;
-        this.history = new ArrayDeque<>();
+        this.history = new MoveHistory();
         this.status = GameStatus.IN_PROGRESS;
         this.totalMoves = 0;
+        this.searchEngine = new SearchEngine();
+        this.mctsEngine = new MctsEngine();
     }
 
     /**
@@ -49,20 +65,17 @@ public class OthelloGame {
      * @return the result of the move attempt
      */
     public MoveResult playMove(int row, int col, long elapsedMillis) {
-        // Validate move
-        if (!board.isValidMove(row, col, currentPlayer)) {
+        // Validate move (the flip mask is empty for an invalid move)
+        long flips = board.getFlipMask(row, col, currentPlayer);
+        if (flips == 0) {
             return MoveResult.invalid();
         }
 
-        // Save snapshot before move
-        history.push(new MoveSnapshot(
-            board.getBoardSnapshot(),
-            currentPlayer,
-            elapsedMillis
-        ));
+        // Save the move delta for undo
+        history.push(BitBoard.square(row, col), flips, currentPlayer, elapsedMillis);
 
         // Execute move
-        int flippedCount = board.executeMove(row, col, currentPlayer);
+        int flippedCount = board.applyMove(row, col, flips, currentPlayer);
         totalMoves++;
 
         // Switch player and check game state
@@ -82,9 +95,10 @@ public class OthelloGame {
             return false;
         }
 
-        MoveSnapshot snapshot = history.pop();
-        board.setBoardFromSnapshot(snapshot.boardSnapshot());
-        currentPlayer = snapshot.currentPlayer();
+        int square = history.lastSquare();
+        board.undoMove(square / board.getSize(), square % board.getSize(), history.lastFlips(), history.lastPlayer());
+        currentPlayer = history.lastPlayer();
+        history.pop();
         status = GameStatus.IN_PROGRESS;
 
         return true;
@@ -99,7 +113,7 @@ public class OthelloGame {
         if (history.isEmpty()) {
             return 0;
         }
-        return history.peek().elapsedMillis();
+        return history.lastElapsedMillis();
     }
 
     /**
@@ -109,17 +123,58 @@ public class OthelloGame {
      * @return list of valid move coordinates
      */
     public List<Coordinates> getValidMoves(Player player) {
-        List<Coordinates> validMoves = new java.util.ArrayList<>();
-        for (int row = 0; row < board.getSize(); row++) {
-            for (int col = 0; col < board.getSize(); col++) {
-                if (board.isValidMove(row, col, player)) {
-                    validMoves.add(new Coordinates(row, col));
-                }
-            }
+        long moves = getValidMovesMask(player);
+        List<Coordinates> validMoves = new java.util.ArrayList<>(Long.bitCount(moves));
+        for (var squares = BitBoard.squares(moves); squares.hasNext(); ) {
+            validMoves.add(Coordinates.fromSquare(squares.nextInt()));
         }
         return validMoves;
     }
 
+    /**
+     * Gets all valid moves for the specified player as a mask
+     * (bit {@code row * 8 + column} set for each valid move).
+     * Computed once per position: calls made before the next move, undo or reset are served from a cache.
+     *
+     * @param player the player
+     * @return mask of the valid moves
+     */
+    public long getValidMovesMask(Player player) {
+        refreshCache();
+        return player == Player.BLACK ? blackMoves : whiteMoves;
+    }
+
+    /**
+     * Gets the number of pieces of the specified player, cached like {@link #getValidMovesMask(Player)}.
+     *
+     * @param player the player
+     * @return the number of pieces
+     */
+    public int countPieces(Player player) {
+        refreshCache();
+        return player == Player.BLACK ? blackCount : whiteCount;
+    }
+
+    /**
+     * Recomputes the legal moves and the disc counts if the position has changed since they were cached.
+     * The cache is keyed on the disc masks, so any change of the board (move, undo, reset) invalidates it.
+     */
+    private void refreshCache() {
+        BitBoard engine = board.getEngine();
+        long black = engine.black();
+        long white = engine.white();
+        if (cacheFilled && black == cachedBlack && white == cachedWhite) {
+            return;
+        }
+        cachedBlack = black;
+        cachedWhite = white;
+        blackMoves = BitBoard.legalMoves(black, white);
+        whiteMoves = BitBoard.legalMoves(white, black);
+        blackCount = Long.bitCount(black);
+        whiteCount = Long.bitCount(white);
+        cacheFilled = true;
+    }
+
     /**
      * Checks if the specified player has any valid moves.
      *
@@ -127,7 +182,25 @@ public class OthelloGame {
      * @return true if player has valid moves
      */
     public boolean hasValidMoves(Player player) {
-        return board.hasValidMoves(player);
+        return getValidMovesMask(player) != 0;
+    }
+
+    /**
+     * Gets the history of the moves played (read it, do not modify it).
+     *
+     * @return the move history
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Gets the Zobrist hash of the current position (pieces and player to move).
+     *
+     * @return the position hash
+     */
+    public long getPositionHash() {
+        return board.getHash() ^ (currentPlayer == Player.WHITE ? Zobrist.WHITE_TO_MOVE : 0);
     }
 
     /**
@@ -162,17 +235,14 @@ public class OthelloGame {
      */
     private void updateGameStatus() {
         // Check if current player can move
-        if (!board.hasValidMoves(currentPlayer)) {
+        if (getValidMovesMask(currentPlayer) == 0) {
             // Current player can't move, switch back
             currentPlayer = currentPlayer.getOpponent();
 
             // Check if opponent can move
-            if (!board.hasValidMoves(currentPlayer)) {
+            if (getValidMovesMask(currentPlayer) == 0) {
                 // Neither player can move - game over
-                int blackCount = board.countPieces(Player.BLACK);
-                int whiteCount = board.countPieces(Player.WHITE);
-
-                if (blackCount == whiteCount) {
+                if (countPieces(Player.BLACK) == countPieces(Player.WHITE)) {
                     status = GameStatus.DRAW;
                 } else {
                     status = GameStatus.FINISHED;
@@ -200,8 +270,8 @@ public class OthelloGame {
             return null;
         }
 
-        int blackCount = board.countPieces(Player.BLACK);
-        int whiteCount = board.countPieces(Player.WHITE);
+        int blackCount = countPieces(Player.BLACK);
+        int whiteCount = countPieces(Player.WHITE);
 
         if (blackCount > whiteCount) {
             return Player.BLACK;
@@ -219,15 +289,7 @@ public class OthelloGame {
      * @return la coordonnée jouée, ou null si aucun coup n'est possible
      */
     public Coordinates playRandomMove(long elapsedMillis) {
-        java.util.List<Coordinates> validMoves = getValidMoves(currentPlayer);
-        if (validMoves.isEmpty()) {
-            return null;
-        }
-        java.util.Random random = new java.util.Random();
-        Coordinates choice = validMoves.get(random.nextInt(validMoves.size()));
-        // utilise playMove pour appliquer le coup et gérer l'historique
-        playMove(choice.row(), choice.column(), elapsedMillis);
-        return choice;
+        return playChosenMove(chooseRobotMove(RobotDifficulty.EASY, getPosition()), elapsedMillis);
     }
 
     /**
@@ -238,35 +300,199 @@ public class OthelloGame {
      * @return la coordonnée jouée, ou null si aucun coup n'est possible
      */
     public Coordinates playBestMove(long elapsedMillis) {
-        java.util.List<Coordinates> validMoves = getValidMoves(currentPlayer);
-        if (validMoves.isEmpty()) {
-            return null;
+        return playChosenMove(chooseRobotMove(RobotDifficulty.HARD, getPosition()), elapsedMillis);
+    }
+
+    /**
+     * Joue le coup trouvé par la recherche alpha-beta pour le joueur courant.
+     * Utile pour un robot en mode expert ; les statistiques de la recherche
+     * sont ensuite disponibles via {@link #getLastSearchResult()}.
+     *
+     * @param elapsedMillis temps écoulé (pour l'historique/undo)
+     * @return la coordonnée jouée, ou null si aucun coup n'est possible
+     */
+    public Coordinates playSearchMove(long elapsedMillis) {
+        return playChosenMove(chooseRobotMove(RobotDifficulty.EXPERT, getPosition()), elapsedMillis);
+    }
+
+    /**
+     * Joue le coup choisi par la recherche Monte Carlo (UCT) pour le joueur courant ;
+     * les statistiques de la recherche sont ensuite disponibles via {@link #getLastMctsResult()}.
+     *
+     * @param elapsedMillis temps écoulé (pour l'historique/undo)
+     * @return la coordonnée jouée, ou null si aucun coup n'est possible
+     */
+    public Coordinates playMctsMove(long elapsedMillis) {
+        return playChosenMove(chooseRobotMove(RobotDifficulty.MCTS, getPosition()), elapsedMillis);
+    }
+
+    /**
+     * Gets an immutable copy of the current position, to compute a robot move
+     * away from the thread that plays the moves.
+     *
+     * @return the discs and the player to move
+     */
+    public Position getPosition() {
+        BitBoard engine = board.getEngine();
+        return new Position(engine.black(), engine.white(), currentPlayer);
+    }
+
+    /**
+     * Choisit le coup du robot dans une position, sans modifier la partie.
+     * Peut être appelé depuis un autre thread que celui qui joue les coups
+     * (une seule recherche à la fois : elles partagent le moteur de recherche).
+     *
+     * Les niveaux EXPERT et MCTS jouent le coup du livre d'ouvertures, s'il y en a un, sans chercher.
+     *
+     * @param difficulty le niveau de difficulté (EASY, HARD, EXPERT ou MCTS)
+     * @param position la position (copie obtenue par {@link #getPosition()})
+     * @return l'indice de la case choisie, ou -1 si aucun coup n'est possible
+     */
+    public int chooseRobotMove(RobotDifficulty difficulty, Position position) {
+        return chooseRobotMove(difficulty, position, new AtomicBoolean());
+    }
+
+    /**
+     * Choisit le coup du robot dans une position, comme {@link #chooseRobotMove(RobotDifficulty, Position)},
+     * en s'arrêtant au plus tôt (avec le meilleur coup trouvé) si le drapeau est levé, même avant le début
+     * de la recherche : le drapeau appartient à la demande, pas au moteur.
+     *
+     * @param difficulty le niveau de difficulté (EASY, HARD, EXPERT ou MCTS)
+     * @param position la position (copie obtenue par {@link #getPosition()})
+     * @param stop le drapeau d'annulation de la demande
+     * @return l'indice de la case choisie, ou -1 si aucun coup n'est possible
+     */
+    public int chooseRobotMove(RobotDifficulty difficulty, Position position, AtomicBoolean stop) {
+        long validMoves = position.legalMoves();
+        if (validMoves == 0) {
+            return -1;
         }
+        OpeningBook book = openingBook;
+        if (book != null && (difficulty == RobotDifficulty.EXPERT || difficulty == RobotDifficulty.MCTS)) {
+            int bookMove = book.bestMove(position);
+            if (bookMove >= 0) {
+                return bookMove;
+            }
+        }
+        return switch (difficulty) {
+            case EASY -> BitBoard.nthSquare(validMoves, ThreadLocalRandom.current().nextInt(Long.bitCount(validMoves)));
+            case HARD -> mostFlipsSquare(position.own(), position.opponent(), validMoves);
+            case EXPERT -> {
+                SearchResult result = searchEngine.search(position.own(), position.opponent(), position.toMove(), stop);
+                lastSearchResult = result;
+                yield result.square();
+            }
+            case MCTS -> {
+                MctsResult result = mctsEngine.search(position.own(), position.opponent(), stop);
+                lastMctsResult = result;
+                yield result.square();
+            }
+        };
+    }
 
-        // Trouver le coup qui retourne le plus de pièces
-        Coordinates bestMove = null;
+    /**
+     * Trouve le coup qui retourne le plus de pièces (le premier en cas d'égalité).
+     */
+    private static int mostFlipsSquare(long own, long opponent, long validMoves) {
+        int bestSquare = -1;
         int maxFlips = -1;
-
-        for (Coordinates move : validMoves) {
-            int flipsCount = board.findAllFlippablePieces(move.row(), move.column(), currentPlayer).size();
+        for (var squares = BitBoard.squares(validMoves); squares.hasNext(); ) {
+            int square = squares.nextInt();
+            int flipsCount = Long.bitCount(BitBoard.flips(square, own, opponent));
             if (flipsCount > maxFlips) {
                 maxFlips = flipsCount;
-                bestMove = move;
+                bestSquare = square;
             }
         }
+        return bestSquare;
+    }
 
-        // Jouer le meilleur coup
-        if (bestMove != null) {
-            playMove(bestMove.row(), bestMove.column(), elapsedMillis);
+    /**
+     * Joue le coup choisi par un robot.
+     *
+     * @return la coordonnée jouée, ou null pour -1 (aucun coup possible)
+     */
+    private Coordinates playChosenMove(int square, long elapsedMillis) {
+        if (square < 0) {
+            return null;
         }
+        Coordinates choice = Coordinates.fromSquare(square);
+        // utilise playMove pour appliquer le coup et gérer l'historique
+        playMove(choice.row(), choice.column(), elapsedMillis);
+        return choice;
+    }
 
-        return bestMove;
+    /**
+     * Résout exactement la position courante (jeu parfait des deux côtés jusqu'à la fin),
+     * sans jouer de coup. Le coût croît d'environ x3 par case vide : quelques millisecondes
+     * à 14 cases vides, quelques secondes à 20.
+     *
+     * @return le meilleur coup du joueur courant et l'écart final de pions
+     */
+    public EndgameResult solve() {
+        BitBoard engine = board.getEngine();
+        return searchEngine.getEndgameSolver().solve(engine.discs(currentPlayer),
+                engine.discs(currentPlayer.getOpponent()));
+    }
+
+    /**
+     * Gets the search engine used by the expert robot (to tune its time budget or depth).
+     *
+     * @return the search engine
+     */
+    public SearchEngine getSearchEngine() {
+        return searchEngine;
+    }
+
+    /**
+     * Gets the Monte Carlo tree search engine of the MCTS robot (to tune its time or playout budget).
+     *
+     * @return the Monte Carlo search engine
+     */
+    public MctsEngine getMctsEngine() {
+        return mctsEngine;
+    }
+
+    /**
+     * Sets the opening book consulted by the HARD, EXPERT and MCTS robots before searching.
+     *
+     * @param openingBook the book, or null to always search
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Gets the opening book consulted by the robots.
+     *
+     * @return the book, or null if there is none
+     */
+    public OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+
+    /**
+     * Gets the statistics of the last expert robot search (nodes, nodes/second, depth).
+     *
+     * @return the last search result, or null if the expert robot has not played yet
+     */
+    public SearchResult getLastSearchResult() {
+        return lastSearchResult;
+    }
+
+    /**
+     * Gets the statistics of the last MCTS robot search (playouts, playouts/second, tree size).
+     *
+     * @return the last Monte Carlo search result, or null if the MCTS robot has not played yet
+     */
+    public MctsResult getLastMctsResult() {
+        return lastMctsResult;
     }
 
     /**
      * Joue un coup pour le robot en fonction du niveau de difficulté.
      *
-     * @param difficulty le niveau de difficulté (EASY ou HARD)
+     * @param difficulty le niveau de difficulté (EASY, HARD, EXPERT ou MCTS)
      * @param elapsedMillis temps écoulé (pour l'historique/undo)
      * @return la coordonnée jouée, ou null si aucun coup n'est possible
      */
@@ -274,6 +500,8 @@ public class OthelloGame {
         return switch (difficulty) {
             case EASY -> playRandomMove(elapsedMillis);
             case HARD -> playBestMove(elapsedMillis);
+            case EXPERT -> playSearchMove(elapsedMillis);
+            case MCTS -> playMctsMove(elapsedMillis);
         };
     }
 }
@@ -0,0 +1,394 @@
+package fr.univ_amu.m1info.othello;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pattern-based evaluation: the score of a position is the sum of the weights of the contents of
+ * fixed groups of squares (patterns: edges, corners, diagonals), plus weighted mobility,
+ * potential mobility and parity features, with one set of weights per game phase.
+ * <p>
+ * The content of an instance of a pattern is its ternary code: the sum over its squares of
+ * {@code digit * 3^i}, the digit being 0 for an empty square, 1 for a disc of the player to move and
+ * 2 for an opponent disc. The weights of a pattern are a flat table indexed by this code, shared by the
+ * instances of the pattern, which are its images by the board symmetries; the tables of every pattern
+ * and phase are stored one after another in a single {@code short[]}.
+ * Search threads keep the codes of every instance in a {@link State}, updated from the squares
+ * changed by each move, so that a leaf costs one table read per instance and a few bit counts.
+ * <p>
+ * Trained weights ({@link WeightTrainer}) are stored in a weight file: magic {@code "OTEW"}, version,
+ * number of phases, of pattern weights and of feature weights per phase (so that a file made for
+ * other patterns is rejected), then the pattern weights and the feature weights, big-endian.
+ */
+public class PatternEvaluator implements Evaluator {
+    /** Number of game phases, each with its own weights (10 plies per phase). */
+    public static final int PHASES = 6;
+
+    /** Index of the mobility weight among the feature weights of a phase. */
+    public static final int MOBILITY = 0;
+    /** Index of the potential mobility weight (empty squares next to opponent discs, minus next to own discs). */
+    public static final int POTENTIAL_MOBILITY = 1;
+    /** Index of the parity weight (+1 when the number of empty squares is odd, -1 when it is even). */
+    public static final int PARITY = 2;
+    /** Number of feature weights of a phase. */
+    public static final int FEATURES = 3;
+
+    static final byte[] MAGIC = {'O', 'T', 'E', 'W'};
+    static final int VERSION = 1;
+
+    // squares of the first instance of each pattern, in the order of their powers of 3
+    private static final int[][] PATTERNS = {
+        {0, 1, 2, 3, 4, 5, 6, 7, 9, 14},         // edge and its two X squares
+        {0, 1, 2, 8, 9, 10, 16, 17, 18},         // 3x3 corner
+        {0, 1, 2, 3, 4, 8, 9, 10, 11, 12},       // 2x5 corner
+        {0, 9, 18, 27, 36, 45, 54, 63},          // main diagonal
+        {1, 10, 19, 28, 37, 46, 55},             // diagonals of 7 to 4 squares
+        {2, 11, 20, 29, 38, 47},
+        {3, 12, 21, 30, 39},
+        {4, 13, 22, 31},
+    };
+
+    /** Number of pattern weights of a phase (the codes of every pattern). */
+    public static final int PATTERN_WEIGHTS;
+
+    private static final int SCORE_LIMIT = SearchEngine.WIN_SCORE - 1;
+
+    private static final int[] PATTERN_OFFSETS = new int[PATTERNS.length];
+    // for each instance: its squares and the offset of its pattern table in a phase
+    private static final int[][] INSTANCE_SQUARES;
+    private static final int[] INSTANCE_PATTERNS;
+    private static final int[] INSTANCE_OFFSETS;
+    // for each square: the instances containing it and the power of 3 of the square in their codes
+    private static final int[][] SQUARE_INSTANCES = new int[BitBoard.SQUARES][];
+    private static final int[][] SQUARE_POWERS = new int[BitBoard.SQUARES][];
+
+    static {
+        int size = 0;
+        List<int[]> instances = new ArrayList<>();
+        List<Integer> instancePatterns = new ArrayList<>();
+        for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+            PATTERN_OFFSETS[pattern] = size;
+            size += power3(PATTERNS[pattern].length);
+            // one instance per distinct set of squares
+            Set<Long> masks = new HashSet<>();
+            for (Symmetry symmetry : Symmetry.values()) {
+                int[] squares = new int[PATTERNS[pattern].length];
+                long mask = 0;
+                for (int i = 0; i < squares.length; i++) {
+                    squares[i] = symmetry.apply(PATTERNS[pattern][i]);
+                    mask |= 1L << squares[i];
+                }
+                if (masks.add(mask)) {
+                    instances.add(squares);
+                    instancePatterns.add(pattern);
+                }
+            }
+        }
+        PATTERN_WEIGHTS = size;
+        INSTANCE_SQUARES = instances.toArray(new int[0][]);
+        INSTANCE_PATTERNS = instancePatterns.stream().mapToInt(Integer::intValue).toArray();
+        INSTANCE_OFFSETS = new int[INSTANCE_SQUARES.length];
+        for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+            INSTANCE_OFFSETS[instance] = PATTERN_OFFSETS[INSTANCE_PATTERNS[instance]];
+        }
+
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            List<int[]> containing = new ArrayList<>();
+            for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+                for (int i = 0; i < INSTANCE_SQUARES[instance].length; i++) {
+                    if (INSTANCE_SQUARES[instance][i] == square) {
+                        containing.add(new int[] {instance, power3(i)});
+                    }
+                }
+            }
+            SQUARE_INSTANCES[square] = containing.stream().mapToInt(pair -> pair[0]).toArray();
+            SQUARE_POWERS[square] = containing.stream().mapToInt(pair -> pair[1]).toArray();
+        }
+    }
+
+    private final short[] patternWeights;
+    private final int[] featureWeights;
+
+    /**
+     * Creates an evaluator. The arrays are used as they are, not copied.
+     *
+     * @param patternWeights the weights of the pattern codes, {@link #PATTERN_WEIGHTS} per phase
+     * @param featureWeights the weights of the features, {@link #FEATURES} per phase
+     * @throws IllegalArgumentException if an array does not have the expected length
+     */
+    public PatternEvaluator(short[] patternWeights, int[] featureWeights) {
+        if (patternWeights.length != PHASES * PATTERN_WEIGHTS) {
+            throw new IllegalArgumentException("Expected " + PHASES * PATTERN_WEIGHTS + " pattern weights: "
+                    + patternWeights.length);
+        }
+        if (featureWeights.length != PHASES * FEATURES) {
+            throw new IllegalArgumentException("Expected " + PHASES * FEATURES + " feature weights: "
+                    + featureWeights.length);
+        }
+        this.patternWeights = patternWeights;
+        this.featureWeights = featureWeights;
+    }
+
+    /**
+     * Creates an evaluator whose weights give the same scores as {@link SearchEngine#evaluate(long, long)}:
+     * the weight of each square is carried by the edge pattern (every weighted square is on an edge
+     * or next to a corner), the mobility weight is the same and the other weights are zero.
+     *
+     * @return the evaluator
+     */
+    public static PatternEvaluator withDefaultWeights() {
+        // the patterns of the first phase, then copied to the other phases
+        short[] patternWeights = new short[PHASES * PATTERN_WEIGHTS];
+        // a square on two edges (a corner, an X square) has its weight split between them
+        int[] edgeInstances = new int[BitBoard.SQUARES];
+        for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+            if (INSTANCE_PATTERNS[instance] == 0) {
+                for (int square : INSTANCE_SQUARES[instance]) {
+                    edgeInstances[square]++;
+                }
+            }
+        }
+        int[] edgeShares = new int[PATTERNS[0].length];
+        for (int i = 0; i < edgeShares.length; i++) {
+            int square = PATTERNS[0][i];
+            edgeShares[i] = SearchEngine.squareWeight(square) / edgeInstances[square];
+        }
+        for (int code = 0; code < power3(edgeShares.length); code++) {
+            int weight = 0;
+            for (int i = 0, rest = code; i < edgeShares.length; i++, rest /= 3) {
+                weight += rest % 3 == 1 ? edgeShares[i] : rest % 3 == 2 ? -edgeShares[i] : 0;
+            }
+            patternWeights[PATTERN_OFFSETS[0] + code] = (short) weight;
+        }
+        int[] featureWeights = new int[PHASES * FEATURES];
+        for (int phase = 0; phase < PHASES; phase++) {
+            System.arraycopy(patternWeights, 0, patternWeights, phase * PATTERN_WEIGHTS, PATTERN_WEIGHTS);
+            featureWeights[phase * FEATURES + MOBILITY] = SearchEngine.MOBILITY_WEIGHT;
+        }
+        return new PatternEvaluator(patternWeights, featureWeights);
+    }
+
+    /**
+     * Loads an evaluator from a weight file.
+     *
+     * @param weightFile the weight file
+     * @return the evaluator
+     * @throws IOException if the file cannot be read, is not a weight file,
+     *                     or was written for other patterns or another version
+     */
+    public static PatternEvaluator load(Path weightFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(weightFile)))) {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a weight file: " + weightFile);
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported weight file version " + version + ": " + weightFile);
+            }
+            if (input.readInt() != PHASES || input.readInt() != PATTERN_WEIGHTS || input.readInt() != FEATURES) {
+                throw new IOException("The weight file " + weightFile + " was made for other patterns");
+            }
+            short[] patternWeights = new short[PHASES * PATTERN_WEIGHTS];
+            for (int i = 0; i < patternWeights.length; i++) {
+                patternWeights[i] = input.readShort();
+            }
+            int[] featureWeights = new int[PHASES * FEATURES];
+            for (int i = 0; i < featureWeights.length; i++) {
+                featureWeights[i] = input.readInt();
+            }
+            return new PatternEvaluator(patternWeights, featureWeights);
+        }
+    }
+
+    /**
+     * Writes the weights to a weight file, replacing it if it exists.
+     *
+     * @param weightFile the weight file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path weightFile) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(weightFile)))) {
+            output.write(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(PHASES);
+            output.writeInt(PATTERN_WEIGHTS);
+            output.writeInt(FEATURES);
+            for (short weight : patternWeights) {
+                output.writeShort(weight);
+            }
+            for (int weight : featureWeights) {
+                output.writeInt(weight);
+            }
+        }
+    }
+
+    @Override
+    public int evaluate(long own, long opponent) {
+        int empties = Long.bitCount(~(own | opponent));
+        int base = phase(empties) * PATTERN_WEIGHTS;
+        int score = 0;
+        for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+            score += patternWeights[base + INSTANCE_OFFSETS[instance] + code(INSTANCE_SQUARES[instance], own, opponent)];
+        }
+        return clamp(score + features(own, opponent, empties));
+    }
+
+    @Override
+    public State newState(long black, long white) {
+        return new PatternState(black, white);
+    }
+
+    /**
+     * Gets the phase of a position.
+     *
+     * @param empties the number of empty squares
+     * @return the phase, from 0 (opening) to {@link #PHASES} - 1
+     */
+    static int phase(int empties) {
+        return Math.clamp((BitBoard.SQUARES - 4 - empties) / 10, 0, PHASES - 1);
+    }
+
+    /**
+     * Gets the number of pattern instances on the board.
+     *
+     * @return the number of instances
+     */
+    static int instanceCount() {
+        return INSTANCE_SQUARES.length;
+    }
+
+    /**
+     * Gets the index of the weight of a pattern instance among the {@link #PATTERN_WEIGHTS} weights of a phase.
+     *
+     * @param instance the instance index
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @return the offset of the pattern table plus the code of the instance
+     */
+    static int weightIndex(int instance, long own, long opponent) {
+        return INSTANCE_OFFSETS[instance] + code(INSTANCE_SQUARES[instance], own, opponent);
+    }
+
+    /**
+     * Computes the {@link #FEATURES} feature values of a position, in the order of the feature weights.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param values the array receiving the values
+     */
+    static void featureValues(long own, long opponent, int[] values) {
+        values[MOBILITY] = mobility(own, opponent);
+        values[POTENTIAL_MOBILITY] = potentialMobility(own, opponent);
+        values[PARITY] = parity(Long.bitCount(~(own | opponent)));
+    }
+
+    private int features(long own, long opponent, int empties) {
+        int base = phase(empties) * FEATURES;
+        return featureWeights[base + MOBILITY] * mobility(own, opponent)
+                + featureWeights[base + POTENTIAL_MOBILITY] * potentialMobility(own, opponent)
+                + featureWeights[base + PARITY] * parity(empties);
+    }
+
+    private static int mobility(long own, long opponent) {
+        return Long.bitCount(BitBoard.legalMoves(own, opponent)) - Long.bitCount(BitBoard.legalMoves(opponent, own));
+    }
+
+    private static int potentialMobility(long own, long opponent) {
+        long empty = ~(own | opponent);
+        return Long.bitCount(BitBoard.neighbours(opponent) & empty) - Long.bitCount(BitBoard.neighbours(own) & empty);
+    }
+
+    private static int parity(int empties) {
+        return (empties & 1) == 0 ? -1 : 1;
+    }
+
+    private static int code(int[] squares, long own, long opponent) {
+        int code = 0;
+        for (int i = squares.length - 1; i >= 0; i--) {
+            // without branches: 1 for an own disc, 2 for an opponent disc, 0 for an empty square
+            code = code * 3 + (int) (own >>> squares[i] & 1) + 2 * (int) (opponent >>> squares[i] & 1);
+        }
+        return code;
+    }
+
+    private static int clamp(int score) {
+        return Math.clamp(score, -SCORE_LIMIT, SCORE_LIMIT);
+    }
+
+    private static int power3(int exponent) {
+        int power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= 3;
+        }
+        return power;
+    }
+
+    /**
+     * The codes of every instance from the point of view of each color, updated on each move.
+     */
+    private class PatternState implements State {
+        private final int[] blackCodes = new int[INSTANCE_SQUARES.length];
+        private final int[] whiteCodes = new int[INSTANCE_SQUARES.length];
+
+        PatternState(long black, long white) {
+            for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+                blackCodes[instance] = code(INSTANCE_SQUARES[instance], black, white);
+                whiteCodes[instance] = code(INSTANCE_SQUARES[instance], white, black);
+            }
+        }
+
+        @Override
+        public void play(int square, long flips, Player player) {
+            // the digit of the new disc, and the change of digit of a flipped disc, from Black's point of view
+            int placed = player == Player.BLACK ? 1 : 2;
+            int flipped = player == Player.BLACK ? -1 : 1;
+            update(square, placed, 3 - placed);
+            for (long rest = flips; rest != 0; rest &= rest - 1) {
+                update(Long.numberOfTrailingZeros(rest), flipped, -flipped);
+            }
+        }
+
+        @Override
+        public void undo(int square, long flips, Player player) {
+            int placed = player == Player.BLACK ? 1 : 2;
+            int flipped = player == Player.BLACK ? -1 : 1;
+            update(square, -placed, placed - 3);
+            for (long rest = flips; rest != 0; rest &= rest - 1) {
+                update(Long.numberOfTrailingZeros(rest), -flipped, flipped);
+            }
+        }
+
+        @Override
+        public int evaluate(long own, long opponent, Player player) {
+            int[] codes = player == Player.BLACK ? blackCodes : whiteCodes;
+            int empties = Long.bitCount(~(own | opponent));
+            int base = phase(empties) * PATTERN_WEIGHTS;
+            int score = 0;
+            for (int instance = 0; instance < codes.length; instance++) {
+                score += patternWeights[base + INSTANCE_OFFSETS[instance] + codes[instance]];
+            }
+            return clamp(score + features(own, opponent, empties));
+        }
+
+        private void update(int square, int blackDelta, int whiteDelta) {
+            int[] instances = SQUARE_INSTANCES[square];
+            int[] powers = SQUARE_POWERS[square];
+            for (int i = 0; i < instances.length; i++) {
+                blackCodes[instances[i]] += blackDelta * powers[i];
+                whiteCodes[instances[i]] += whiteDelta * powers[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Perft: counts the leaves of the game tree to a fixed depth, to validate the move generator
+ * against known counts and to measure its raw speed.
+ * A pass counts as a ply; a finished game counts as a single leaf, whatever the remaining depth.
+ * Run it with {@code ./gradlew perft} (optional arguments: depth, then {@code --board}
+ * to go through the {@link OthelloBoard} API instead of the bitboard masks).
+ */
+public final class Perft {
+    /** Known leaf counts from the start position, indexed by depth. */
+    static final long[] REFERENCE_COUNTS = {
+        1L, 4L, 12L, 56L, 244L, 1_396L, 8_200L, 55_092L, 390_216L, 3_005_288L, 24_571_284L,
+        212_258_800L, 1_939_886_636L, 18_429_641_748L, 184_042_084_512L
+    };
+
+    private static final int DEFAULT_DEPTH = 10;
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaves below a position with the bitboard masks.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param depth the number of plies
+     * @return the number of leaves
+     */
+    public static long count(long own, long opponent, int depth) {
+        return count(own, opponent, depth, false);
+    }
+
+    private static long count(long own, long opponent, int depth, boolean passed) {
+        if (depth == 0) {
+            return 1;
+        }
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return 1; // neither player can move: the game is over
+            }
+            return count(opponent, own, depth - 1, true);
+        }
+        if (depth == 1) {
+            return Long.bitCount(moves);
+        }
+        long leaves = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = BitBoard.flips(square, own, opponent);
+            leaves += count(opponent ^ flips, own ^ (flips | (1L << square)), depth - 1, false);
+        }
+        return leaves;
+    }
+
+    /**
+     * Counts the leaves below the position of a board through its public API
+     * ({@code isValidMove}, {@code getFlipMask}, {@code applyMove}, {@code undoMove}).
+     * The board is restored before returning.
+     *
+     * @param board the board
+     * @param player the player to move
+     * @param depth the number of plies
+     * @return the number of leaves
+     */
+    public static long count(OthelloBoard board, Player player, int depth) {
+        return count(board, player, depth, false);
+    }
+
+    private static long count(OthelloBoard board, Player player, int depth, boolean passed) {
+        if (depth == 0) {
+            return 1;
+        }
+        long leaves = 0;
+        boolean moved = false;
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int column = 0; column < board.getSize(); column++) {
+                if (board.isValidMove(row, column, player)) {
+                    moved = true;
+                    long flips = board.getFlipMask(row, column, player);
+                    board.applyMove(row, column, flips, player);
+                    leaves += count(board, player.getOpponent(), depth - 1, false);
+                    board.undoMove(row, column, flips, player);
+                }
+            }
+        }
+        if (!moved) {
+            return passed ? 1 : count(board, player.getOpponent(), depth - 1, true);
+        }
+        return leaves;
+    }
+
+    /**
+     * Runs perft from the start position for every depth up to the requested one, printing
+     * the counts and the speed, and exits with status 1 if a count differs from the reference.
+     *
+     * @param args optional depth, and {@code --board} to use the {@link OthelloBoard} API
+     */
+    public static void main(String[] args) {
+        int maxDepth = DEFAULT_DEPTH;
+        boolean useBoard = false;
+        for (String arg : args) {
+            if (arg.equals("--board")) {
+                useBoard = true;
+            } else {
+                maxDepth = Integer.parseInt(arg);
+            }
+        }
+
+        boolean ok = true;
+        System.out.printf("%5s %16s %10s %14s%n", "depth", "leaves", "time (ms)", "leaves/s");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long leaves = useBoard
+                    ? count(new OthelloBoard(), Player.BLACK, depth)
+                    : count(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE, depth);
+            long nanos = System.nanoTime() - start;
+
+            String check = "";
+            if (depth < REFERENCE_COUNTS.length) {
+                boolean match = leaves == REFERENCE_COUNTS[depth];
+                ok &= match;
+                check = match ? "ok" : "MISMATCH, expected " + REFERENCE_COUNTS[depth];
+            }
+            System.out.printf("%5d %16d %10d %14d  %s%n", depth, leaves, nanos / 1_000_000,
+                    leaves * 1_000_000_000L / Math.max(1, nanos), check);
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Immutable Othello position: the disc masks and the player to move.
+ * Used where positions are passed around or stored (benchmarks, background searches)
+ * rather than played on a mutable {@link BitBoard}.
+ *
+ * @param black the black discs
+ * @param white the white discs
+ * @param toMove the player to move
+ */
+public record Position(long black, long white, Player toMove) {
+
+    /**
+     * Creates a position.
+     *
+     * @throws IllegalArgumentException if a square holds discs of both colors
+     */
+    public Position {
+        if ((black & white) != 0) {
+            throw new IllegalArgumentException("A square cannot hold both colors");
+        }
+        if (toMove == null) {
+            throw new IllegalArgumentException("The player to move is required");
+        }
+    }
+
+    /**
+     * Gets the start position (Black to move).
+     *
+     * @return the start position
+     */
+    public static Position initial() {
+        return new Position(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE, Player.BLACK);
+    }
+
+    /**
+     * Gets the discs of the player to move.
+     *
+     * @return the discs of the player to move
+     */
+    public long own() {
+        return toMove == Player.BLACK ? black : white;
+    }
+
+    /**
+     * Gets the discs of the player waiting.
+     *
+     * @return the discs of the opponent
+     */
+    public long opponent() {
+        return toMove == Player.BLACK ? white : black;
+    }
+
+    /**
+     * Gets the legal moves of the player to move.
+     *
+     * @return the mask of the legal moves
+     */
+    public long legalMoves() {
+        return BitBoard.legalMoves(own(), opponent());
+    }
+
+    /**
+     * Tells if neither player can move.
+     *
+     * @return true if the game is over
+     */
+    public boolean isGameOver() {
+        return legalMoves() == 0 && BitBoard.legalMoves(opponent(), own()) == 0;
+    }
+
+    /**
+     * Gets the number of empty squares.
+     *
+     * @return the number of empty squares
+     */
+    public int empties() {
+        return Long.bitCount(~(black | white));
+    }
+
+    /**
+     * Gets the Zobrist hash of the position.
+     *
+     * @return the hash, including the player to move
+     */
+    public long hash() {
+        return Zobrist.hash(black, white, toMove);
+    }
+
+    /**
+     * Applies a symmetry of the board to the discs.
+     *
+     * @param symmetry the symmetry
+     * @return the transformed position, with the same player to move
+     */
+    public Position transform(Symmetry symmetry) {
+        return new Position(symmetry.apply(black), symmetry.apply(white), toMove);
+    }
+
+    /**
+     * Gets the canonical form of the position, shared by its symmetric versions.
+     *
+     * @return the canonical position and the symmetry leading to it
+     */
+    public CanonicalPosition canonical() {
+        return CanonicalPosition.of(this);
+    }
+
+    /**
+     * Plays a move of the player to move.
+     *
+     * @param square the square index of the move
+     * @return the position after the move
+     * @throws IllegalArgumentException if the move is not legal (off the board, on a disc or flipping nothing)
+     */
+    public Position play(int square) {
+        // the flips only look at the lines from the square: a disc already there must be rejected first
+        if (square < 0 || square >= BitBoard.SQUARES || ((black | white) & (1L << square)) != 0) {
+            throw new IllegalArgumentException("Invalid move: " + square);
+        }
+        long flips = BitBoard.flips(square, own(), opponent());
+        if (flips == 0) {
+            throw new IllegalArgumentException("Invalid move: " + square);
+        }
+        long placed = flips | (1L << square);
+        return toMove == Player.BLACK
+                ? new Position(black ^ placed, white ^ flips, Player.WHITE)
+                : new Position(black ^ flips, white ^ placed, Player.BLACK);
+    }
+
+    /**
+     * Passes the turn.
+     *
+     * @return the same discs with the other player to move
+     */
+    public Position pass() {
+        return new Position(black, white, toMove.getOpponent());
+    }
+
+    /**
+     * Builds a reproducible suite of positions by random play from the start position.
+     * Every position has a legal move for the player to move.
+     *
+     * @param count the number of positions
+     * @param plies the number of random moves played from the start position
+     * @param seed the seed of the random moves
+     * @return the positions
+     */
+    public static List<Position> randomSuite(int count, int plies, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Position> suite = new ArrayList<>(count);
+        while (suite.size() < count) {
+            Position position = initial();
+            for (int ply = 0; ply < plies && !position.isGameOver(); ply++) {
+                long moves = position.legalMoves();
+                position = moves == 0 ? position.pass()
+                        : position.play(BitBoard.nthSquare(moves, random.nextInt(Long.bitCount(moves))));
+            }
+            if (position.legalMoves() != 0) {
+                suite.add(position);
+            }
+        }
+        return suite;
+    }
+}
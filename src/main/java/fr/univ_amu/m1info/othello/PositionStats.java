@@ -0,0 +1,47 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Results of the recorded games that reached a position.
+ *
+ * @param blackWins the number of games won by Black
+ * @param draws the number of drawn games
+ * @param whiteWins the number of games won by White
+ */
+public record PositionStats(
+    int blackWins,
+    int draws,
+    int whiteWins
+) {
+    /** Statistics of a position that no recorded game reached. */
+    public static final PositionStats NONE = new PositionStats(0, 0, 0);
+
+    /**
+     * Gets the number of games that reached the position.
+     *
+     * @return the number of games
+     */
+    public int games() {
+        return blackWins + draws + whiteWins;
+    }
+
+    /**
+     * Gets the number of games won by a player.
+     *
+     * @param player the player
+     * @return the number of wins of this player
+     */
+    public int wins(Player player) {
+        return player == Player.BLACK ? blackWins : whiteWins;
+    }
+
+    /**
+     * Gets the score of a player, a draw counting as half a win.
+     *
+     * @param player the player
+     * @return the score between 0 and 1, or 0.5 if no game reached the position
+     */
+    public double score(Player player) {
+        int games = games();
+        return games == 0 ? 0.5 : (wins(player) + draws / 2.0) / games;
+    }
+}
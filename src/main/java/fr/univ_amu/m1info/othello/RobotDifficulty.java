@@ -12,6 +12,16 @@ public enum RobotDifficulty {
     /**
      * Hard mode: robot plays the move that captures the most pieces
      */
-    HARD
+    HARD,
+
+    /**
+     * Expert mode: robot searches ahead with alpha-beta (iterative deepening within a time budget)
+     */
+    EXPERT,
+
+    /**
+     * Monte Carlo mode: robot plays the move that wins the most random games (UCT tree search within a time or playout budget)
+     */
+    MCTS
 }
 
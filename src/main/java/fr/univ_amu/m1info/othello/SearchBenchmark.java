@@ -0,0 +1,63 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.List;
+
+/**
+ * Measures the speed-up of the parallel search: every position of a fixed mid-game suite
+ * is searched to a fixed depth with 1, 2, 4, 8 and 16 threads, each run starting from an
+ * empty transposition table.
+ * Run it with {@code ./gradlew searchBenchmark} (optional arguments: depth, positions).
+ */
+public final class SearchBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int DEFAULT_DEPTH = 10;
+    private static final int DEFAULT_POSITIONS = 20;
+    private static final int PLIES = 20;
+    private static final long SEED = 2024;
+
+    private SearchBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark and prints one line per thread count.
+     *
+     * @param args optional search depth and number of positions
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POSITIONS;
+        List<Position> suite = Position.randomSuite(count, PLIES, SEED);
+
+        System.out.printf("Search to depth %d on %d positions (%d cores)%n",
+                depth, count, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %10s %14s %12s %8s%n", "threads", "time (ms)", "nodes", "nodes/s", "speed-up");
+        long reference = 0;
+        for (int threads : THREAD_COUNTS) {
+            long[] totals = run(suite, depth, threads);
+            if (reference == 0) {
+                reference = totals[0];
+            }
+            System.out.printf("%8d %10d %14d %12d %8.2f%n", threads, totals[0], totals[1],
+                    totals[1] * 1000 / Math.max(1, totals[0]), (double) reference / Math.max(1, totals[0]));
+        }
+    }
+
+    /**
+     * Searches every position of the suite.
+     *
+     * @return the total time in milliseconds and the total number of nodes
+     */
+    static long[] run(List<Position> suite, int depth, int threads) {
+        SearchEngine engine = new SearchEngine(Long.MAX_VALUE / 2, depth);
+        engine.setThreads(threads);
+        engine.setTranspositionTable(new TranspositionTable(20));
+        long millis = 0;
+        long nodes = 0;
+        for (Position position : suite) {
+            SearchResult result = engine.search(position.own(), position.opponent(), position.toMove());
+            millis += result.elapsedMillis();
+            nodes += result.nodes();
+        }
+        return new long[] {millis, nodes};
+    }
+}
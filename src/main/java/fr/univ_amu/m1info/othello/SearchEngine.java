@@ -0,0 +1,389 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Robot search engine: negamax with alpha-beta pruning, iterative deepening
+ * and aspiration windows, bounded by a time budget, optionally spread over several
+ * threads (Lazy SMP, see {@link SearchWorker}).
+ * The search works directly on {@link BitBoard} masks so that visiting a node allocates nothing;
+ * the {@link Zobrist} hash of each node is derived from its parent's and used to share results
+ * between transpositions through a {@link TranspositionTable}.
+ */
+public class SearchEngine {
+    /** Default time budget of a move decision. */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+
+    /** Default maximum search depth (deep enough to reach the end of any game). */
+    public static final int DEFAULT_MAX_DEPTH = 60;
+
+    /** Default number of empty squares from which the game is solved exactly. */
+    public static final int DEFAULT_ENDGAME_EMPTIES = 14;
+
+    /** Score of a won game, before adding the final disc differential. */
+    public static final int WIN_SCORE = 10_000;
+
+    // square classes shared by the evaluation, the move ordering of the search and the endgame solver
+    static final long CORNERS = 0x8100000000000081L;
+    static final long X_SQUARES = 0x0042000000004200L;
+    static final long C_SQUARES = 0x4281000000008142L;
+    static final long EDGES = 0x3C0081818181003CL;
+
+    private static final int CORNER_WEIGHT = 100;
+    private static final int X_SQUARE_WEIGHT = -50;
+    private static final int C_SQUARE_WEIGHT = -20;
+    private static final int EDGE_WEIGHT = 10;
+    static final int MOBILITY_WEIGHT = 8;
+
+    private long timeBudgetMillis;
+    private int maxDepth;
+    private int threads = 1;
+    private int endgameEmpties = DEFAULT_ENDGAME_EMPTIES;
+    private TranspositionTable transpositionTable;
+    private volatile Evaluator evaluator = Evaluator.SQUARE_WEIGHTS;
+    private volatile EndgameSolver endgameSolver;
+    private ExecutorService helperPool;
+    private volatile AtomicBoolean currentStop;
+
+    /**
+     * Creates a search engine with the default time budget and depth.
+     */
+    public SearchEngine() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Creates a search engine.
+     *
+     * @param timeBudgetMillis the time budget of a move decision
+     * @param maxDepth the maximum depth of the iterative deepening
+     */
+    public SearchEngine(long timeBudgetMillis, int maxDepth) {
+        setTimeBudgetMillis(timeBudgetMillis);
+        setMaxDepth(maxDepth);
+    }
+
+    /**
+     * Gets the time budget of a move decision.
+     *
+     * @return the time budget in milliseconds
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Sets the time budget of a move decision. The first iteration (depth 1)
+     * always completes, even if it exceeds the budget.
+     *
+     * @param timeBudgetMillis the time budget in milliseconds
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive: " + timeBudgetMillis);
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Gets the maximum depth of the iterative deepening.
+     *
+     * @return the maximum depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets the maximum depth of the iterative deepening.
+     *
+     * @param maxDepth the maximum depth
+     * @throws IllegalArgumentException if the depth is less than 1
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Max depth must be at least 1: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Gets the number of threads searching each move decision.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads searching each move decision (Lazy SMP: the calling
+     * thread plus helper threads, all sharing the transposition table).
+     *
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if the number is less than 1
+     */
+    public synchronized void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is needed: " + threads);
+        }
+        this.threads = threads;
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+    }
+
+    /**
+     * Gets the number of empty squares from which the search is replaced by an exact endgame solve.
+     *
+     * @return the number of empty squares (0 if the solver is never used)
+     */
+    public int getEndgameEmpties() {
+        return endgameEmpties;
+    }
+
+    /**
+     * Sets the number of empty squares from which the search is replaced by an exact endgame solve.
+     * The solve ignores the time budget: each extra empty square multiplies its cost by about 3.
+     *
+     * @param endgameEmpties the number of empty squares (0 to never use the solver)
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        if (endgameEmpties < 0 || endgameEmpties > BitBoard.SQUARES) {
+            throw new IllegalArgumentException("Endgame empties must be between 0 and 64: " + endgameEmpties);
+        }
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Gets the endgame solver, creating it on first use.
+     *
+     * @return the endgame solver
+     */
+    public synchronized EndgameSolver getEndgameSolver() {
+        if (endgameSolver == null) {
+            endgameSolver = new EndgameSolver();
+        }
+        return endgameSolver;
+    }
+
+    /**
+     * Gets the transposition table, creating it on first use.
+     *
+     * @return the transposition table
+     */
+    public TranspositionTable getTranspositionTable() {
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable();
+        }
+        return transpositionTable;
+    }
+
+    /**
+     * Replaces the transposition table (for instance to share a bigger one).
+     *
+     * @param transpositionTable the table to use
+     */
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = Objects.requireNonNull(transpositionTable);
+    }
+
+    /**
+     * Gets the evaluation of the positions where the search stops.
+     *
+     * @return the evaluator
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Sets the evaluation of the positions where the search stops, for the next searches
+     * (by default {@link Evaluator#SQUARE_WEIGHTS}).
+     *
+     * @param evaluator the evaluator
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = Objects.requireNonNull(evaluator);
+    }
+
+    /**
+     * Searches the best move of the player owning {@code own}.
+     * With several threads, helper workers search the same position in parallel and fill
+     * the shared transposition table; the move is the one of the calling thread's worker.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param player the color of the player to move (used for position hashing)
+     * @return the chosen move with search statistics (nodes of every thread)
+     */
+    public SearchResult search(long own, long opponent, Player player) {
+        return search(own, opponent, player, new AtomicBoolean());
+    }
+
+    /**
+     * Searches the best move of the player owning {@code own}, unless a stop flag is raised.
+     * The flag belongs to the request and is only read: raising it before the search starts is not
+     * lost, the search then returns at once with the result of its first iteration.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param player the color of the player to move (used for position hashing)
+     * @param stop the flag that stops the search
+     * @return the chosen move with search statistics (nodes of every thread)
+     */
+    public SearchResult search(long own, long opponent, Player player, AtomicBoolean stop) {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeBudgetMillis;
+        // stops the helpers once the main worker is done, without touching the request's flag
+        AtomicBoolean searchStop = new AtomicBoolean();
+        currentStop = searchStop;
+        TranspositionTable table = getTranspositionTable();
+        table.newSearch();
+        long black = player == Player.BLACK ? own : opponent;
+        long white = player == Player.BLACK ? opponent : own;
+        long hash = Zobrist.hash(black, white, player);
+
+        if (BitBoard.legalMoves(own, opponent) == 0) {
+            return new SearchResult(-1, 0, 0, 0, System.currentTimeMillis() - start);
+        }
+
+        int empties = Long.bitCount(~(own | opponent));
+        if (empties <= endgameEmpties) {
+            EndgameResult solved = getEndgameSolver().solve(own, opponent, stop);
+            return new SearchResult(solved.square(), outcomeScore(solved.score()), empties, solved.nodes(),
+                    System.currentTimeMillis() - start);
+        }
+
+        Evaluator leafEvaluator = evaluator;
+        List<SearchWorker> helpers = new ArrayList<>();
+        List<Future<SearchResult>> helperResults = new ArrayList<>();
+        for (int id = 1; id < threads; id++) {
+            SearchWorker helper = new SearchWorker(id, maxDepth, deadline, table, leafEvaluator, stop, searchStop);
+            helpers.add(helper);
+            helperResults.add(getHelperPool().submit(() -> helper.iterate(own, opponent, hash, player)));
+        }
+
+        SearchWorker main = new SearchWorker(0, maxDepth, deadline, table, leafEvaluator, stop, searchStop);
+        SearchResult result = main.iterate(own, opponent, hash, player);
+        searchStop.set(true);
+
+        long nodes = main.getNodes();
+        for (int i = 0; i < helpers.size(); i++) {
+            waitFor(helperResults.get(i));
+            nodes += helpers.get(i).getNodes();
+        }
+        return new SearchResult(result.square(), result.score(), result.depth(), nodes,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Stops the search in progress, if any: it returns as soon as possible
+     * with the result of its last completed iteration. A search that has not started yet is not
+     * affected: pass a stop flag to {@link #search(long, long, Player, AtomicBoolean)} to cancel
+     * a request before it runs.
+     */
+    public void cancel() {
+        AtomicBoolean stop = currentStop;
+        if (stop != null) {
+            stop.set(true);
+        }
+        EndgameSolver solver = endgameSolver;
+        if (solver != null) {
+            solver.cancel();
+        }
+    }
+
+    private synchronized ExecutorService getHelperPool() {
+        if (helperPool == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads - 1, threads - 1,
+                    30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "othello-search-helper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // idle helpers are released between games
+            pool.allowCoreThreadTimeOut(true);
+            helperPool = pool;
+        }
+        return helperPool;
+    }
+
+    /**
+     * Waits for a stopped helper, even if the calling thread is interrupted: the helper must leave
+     * the search before the next one starts. The interrupt is raised again afterwards.
+     */
+    private static void waitFor(Future<SearchResult> helperResult) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    helperResult.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Scores a finished game: any win is better than any heuristic evaluation.
+     */
+    static int finalScore(long own, long opponent) {
+        return outcomeScore(Long.bitCount(own) - Long.bitCount(opponent));
+    }
+
+    private static int outcomeScore(int difference) {
+        if (difference > 0) {
+            return WIN_SCORE + difference;
+        }
+        if (difference < 0) {
+            return -WIN_SCORE + difference;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the weight of a disc on a square in {@link #evaluate(long, long)}.
+     */
+    static int squareWeight(int square) {
+        long mask = 1L << square;
+        return (mask & CORNERS) != 0 ? CORNER_WEIGHT
+                : (mask & X_SQUARES) != 0 ? X_SQUARE_WEIGHT
+                : (mask & C_SQUARES) != 0 ? C_SQUARE_WEIGHT
+                : (mask & EDGES) != 0 ? EDGE_WEIGHT : 0;
+    }
+
+    /**
+     * Heuristic evaluation: square weights (corners are good, the squares next to the corners
+     * are bad whoever holds the corner) plus mobility. The default {@link Evaluator}.
+     */
+    static int evaluate(long own, long opponent) {
+        int positional = CORNER_WEIGHT * (Long.bitCount(own & CORNERS) - Long.bitCount(opponent & CORNERS))
+                + X_SQUARE_WEIGHT * (Long.bitCount(own & X_SQUARES) - Long.bitCount(opponent & X_SQUARES))
+                + C_SQUARE_WEIGHT * (Long.bitCount(own & C_SQUARES) - Long.bitCount(opponent & C_SQUARES))
+                + EDGE_WEIGHT * (Long.bitCount(own & EDGES) - Long.bitCount(opponent & EDGES));
+        int mobility = Long.bitCount(BitBoard.legalMoves(own, opponent))
+                - Long.bitCount(BitBoard.legalMoves(opponent, own));
+        return positional + MOBILITY_WEIGHT * mobility;
+    }
+}
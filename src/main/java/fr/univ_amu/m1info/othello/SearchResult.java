@@ -0,0 +1,36 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Represents the outcome of a robot search.
+ *
+ * @param square the square index of the chosen move, or -1 if the player has to pass
+ * @param score the score of the chosen move, from the point of view of the player to move
+ * @param depth the last search depth that was completed
+ * @param nodes the number of positions visited
+ * @param elapsedMillis the duration of the search in milliseconds
+ */
+public record SearchResult(
+    int square,
+    int score,
+    int depth,
+    long nodes,
+    long elapsedMillis
+) {
+    /**
+     * Gets the chosen move.
+     *
+     * @return the coordinates of the move, or null if the player has to pass
+     */
+    public Coordinates move() {
+        return square < 0 ? null : Coordinates.fromSquare(square);
+    }
+
+    /**
+     * Gets the search throughput.
+     *
+     * @return the number of nodes visited per second
+     */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, elapsedMillis);
+    }
+}
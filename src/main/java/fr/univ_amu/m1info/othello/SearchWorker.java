@@ -0,0 +1,260 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One thread of a {@link SearchEngine} search: iterative deepening over a fail-soft
+ * negamax with alpha-beta pruning. Workers of the same search share the transposition
+ * table and the stop flags, and keep their own node counter.
+ */
+class SearchWorker {
+    static final int INFINITY = 1_000_000;
+
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final long TIME_CHECK_MASK = 1023; // check the clock every 1024 nodes
+
+    private static final long CENTER = ~(SearchEngine.CORNERS | SearchEngine.X_SQUARES | SearchEngine.C_SQUARES
+            | SearchEngine.EDGES);
+
+    // squares tried first during the search: corners, edges, center, then the squares next to the corners
+    private static final long[] MOVE_ORDER = {
+        SearchEngine.CORNERS, SearchEngine.EDGES, CENTER, SearchEngine.C_SQUARES, SearchEngine.X_SQUARES
+    };
+
+    private final int id;
+    private final int maxDepth;
+    private final long deadline;
+    private final TranspositionTable transpositionTable;
+    private final Evaluator evaluator;
+    private final AtomicBoolean stop;
+    private final AtomicBoolean searchStop;
+    private Evaluator.State evaluation;
+
+    private long nodes;
+    private boolean aborted;
+    private int rootBestSquare;
+
+    /**
+     * Creates a worker.
+     *
+     * @param id the worker index (0 for the main worker, helpers vary their move order with it)
+     * @param maxDepth the maximum depth of the iterative deepening
+     * @param deadline the time (as given by {@link System#currentTimeMillis()}) when the search must stop
+     * @param transpositionTable the table shared by the workers
+     * @param evaluator the evaluation of the positions where the search stops
+     * @param stop the stop flag of the request, only read
+     * @param searchStop the flag raised to stop every worker of the search once it is over or cancelled
+     */
+    SearchWorker(int id, int maxDepth, long deadline, TranspositionTable transpositionTable, Evaluator evaluator,
+                 AtomicBoolean stop, AtomicBoolean searchStop) {
+        this.id = id;
+        this.maxDepth = maxDepth;
+        this.deadline = deadline;
+        this.transpositionTable = transpositionTable;
+        this.evaluator = evaluator;
+        this.stop = stop;
+        this.searchStop = searchStop;
+    }
+
+    /**
+     * Gets the number of positions visited by this worker.
+     *
+     * @return the node count
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Runs the iterative deepening until the maximum depth, the end of the game, the deadline or the stop flag.
+     *
+     * @param own the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param hash the hash of the position
+     * @param player the color of the player to move
+     * @return the result of the last completed iteration (elapsed time not filled)
+     */
+    SearchResult iterate(long own, long opponent, long hash, Player player) {
+        long moves = BitBoard.legalMoves(own, opponent);
+        evaluation = player == Player.BLACK ? evaluator.newState(own, opponent) : evaluator.newState(opponent, own);
+        // helpers start from different moves so that the workers do not all follow the same path
+        int bestSquare = id == 0 ? firstOrderedSquare(moves) : BitBoard.nthSquare(moves, id % Long.bitCount(moves));
+        int bestScore = 0;
+        int completedDepth = 0;
+        int empties = Long.bitCount(~(own | opponent));
+
+        for (int depth = 1 + (id & 1); depth <= maxDepth; depth++) {
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (depth > 2) {
+                alpha = bestScore - ASPIRATION_WINDOW;
+                beta = bestScore + ASPIRATION_WINDOW;
+            }
+
+            int score;
+            while (true) {
+                score = searchRoot(own, opponent, hash, player, moves, depth, alpha, beta, bestSquare);
+                if (aborted) {
+                    break;
+                }
+                // outside the aspiration window: search again with an open bound
+                if (score <= alpha) {
+                    alpha = -INFINITY;
+                } else if (score >= beta) {
+                    beta = INFINITY;
+                } else {
+                    break;
+                }
+            }
+            if (aborted) {
+                break;
+            }
+
+            bestSquare = rootBestSquare;
+            bestScore = score;
+            completedDepth = depth;
+            if (depth >= empties || stopped() || System.currentTimeMillis() >= deadline) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestSquare, bestScore, completedDepth, nodes, 0);
+    }
+
+    /**
+     * Searches every root move, starting with the best move of the previous iteration.
+     */
+    private int searchRoot(long own, long opponent, long hash, Player player, long moves,
+                           int depth, int alpha, int beta, int firstSquare) {
+        int best = -INFINITY;
+        rootBestSquare = firstSquare;
+
+        int score = searchMove(own, opponent, hash, player, firstSquare, depth, alpha, beta);
+        if (aborted) {
+            return best;
+        }
+        best = score;
+        long remaining = moves & ~(1L << firstSquare);
+
+        for (long order : MOVE_ORDER) {
+            long candidates = remaining & order;
+            while (candidates != 0 && best < beta) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                score = searchMove(own, opponent, hash, player, square, depth, Math.max(alpha, best), beta);
+                if (aborted) {
+                    return best;
+                }
+                if (score > best) {
+                    best = score;
+                    rootBestSquare = square;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays a move and searches the resulting position.
+     *
+     * @return the score of the move for the player owning {@code own}
+     */
+    private int searchMove(long own, long opponent, long hash, Player player, int square,
+                           int depth, int alpha, int beta) {
+        long flips = BitBoard.flips(square, own, opponent);
+        long childHash = hash ^ Zobrist.moveKey(square, flips, player) ^ Zobrist.WHITE_TO_MOVE;
+        evaluation.play(square, flips, player);
+        int score = -negamax(opponent ^ flips, own ^ (flips | (1L << square)), childHash, player.getOpponent(),
+                depth - 1, -beta, -alpha);
+        evaluation.undo(square, flips, player);
+        return score;
+    }
+
+    /**
+     * Fail-soft negamax with alpha-beta pruning and transposition table.
+     *
+     * @return the score of the position for the player owning {@code own}
+     */
+    private int negamax(long own, long opponent, long hash, Player player, int depth, int alpha, int beta) {
+        nodes++;
+        if ((nodes & TIME_CHECK_MASK) == 0 && (stopped() || System.currentTimeMillis() >= deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            if (BitBoard.legalMoves(opponent, own) == 0) {
+                return SearchEngine.finalScore(own, opponent);
+            }
+            // pass: the opponent plays again from the same position
+            return -negamax(opponent, own, hash ^ Zobrist.WHITE_TO_MOVE, player.getOpponent(), depth, -beta, -alpha);
+        }
+        if (depth == 0) {
+            return evaluation.evaluate(own, opponent, player);
+        }
+
+        int hashSquare = -1;
+        long entry = transpositionTable.probe(hash);
+        if (entry != 0) {
+            hashSquare = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int stored = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && stored >= beta)
+                        || (bound == TranspositionTable.UPPER && stored <= alpha)) {
+                    return stored;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestSquare = -1;
+        // the best move found by an earlier search of this position is tried first
+        if (hashSquare >= 0 && (moves & (1L << hashSquare)) != 0) {
+            best = searchMove(own, opponent, hash, player, hashSquare, depth, alpha, beta);
+            bestSquare = hashSquare;
+            moves &= ~(1L << hashSquare);
+        }
+
+        for (int o = 0; o < MOVE_ORDER.length && best < beta; o++) {
+            long candidates = moves & MOVE_ORDER[o];
+            while (candidates != 0) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                int score = searchMove(own, opponent, hash, player, square, depth, Math.max(alpha, best), beta);
+                if (score > best) {
+                    best = score;
+                    bestSquare = square;
+                    if (best >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!aborted) {
+            int bound = best >= beta ? TranspositionTable.LOWER
+                    : best <= originalAlpha ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+            transpositionTable.store(hash, depth, bound, best, bestSquare);
+        }
+        return best;
+    }
+
+    private static int firstOrderedSquare(long moves) {
+        for (long order : MOVE_ORDER) {
+            if ((moves & order) != 0) {
+                return Long.numberOfTrailingZeros(moves & order);
+            }
+        }
+        throw new IllegalArgumentException("No move");
+    }
+
+    private boolean stopped() {
+        return stop.get() || searchStop.get();
+    }
+}
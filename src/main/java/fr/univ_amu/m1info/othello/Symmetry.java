@@ -0,0 +1,135 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * The 8 symmetries of the board (rotations and reflections), applied to bitboard masks
+ * with a few shifts and masks each.
+ * Each constant maps a square {@code (row, column)} to the square given in its description.
+ *
+ * @see CanonicalPosition
+ */
+public enum Symmetry {
+    /** (row, column) to (row, column). */
+    IDENTITY,
+    /** (row, column) to (row, 7 - column). */
+    FLIP_HORIZONTAL,
+    /** (row, column) to (7 - row, column). */
+    FLIP_VERTICAL,
+    /** (row, column) to (7 - row, 7 - column). */
+    ROTATE_180,
+    /** (row, column) to (column, row). */
+    TRANSPOSE,
+    /** (row, column) to (7 - column, 7 - row). */
+    ANTI_TRANSPOSE,
+    /** (row, column) to (column, 7 - row): a quarter turn clockwise. */
+    ROTATE_90,
+    /** (row, column) to (7 - column, row): a quarter turn counterclockwise. */
+    ROTATE_270;
+
+    private static final Symmetry[] VALUES = values();
+
+    /**
+     * Applies the symmetry to a mask.
+     *
+     * @param mask the mask (bit {@code row * 8 + column} for each square)
+     * @return the mask of the transformed squares
+     */
+    public long apply(long mask) {
+        return switch (this) {
+            case IDENTITY -> mask;
+            case FLIP_HORIZONTAL -> flipHorizontal(mask);
+            case FLIP_VERTICAL -> Long.reverseBytes(mask);
+            case ROTATE_180 -> Long.reverse(mask);
+            case TRANSPOSE -> transpose(mask);
+            case ANTI_TRANSPOSE -> Long.reverse(transpose(mask));
+            case ROTATE_90 -> flipHorizontal(transpose(mask));
+            case ROTATE_270 -> Long.reverseBytes(transpose(mask));
+        };
+    }
+
+    /**
+     * Applies the symmetry to a square.
+     *
+     * @param square the square index
+     * @return the index of the transformed square
+     */
+    public int apply(int square) {
+        return Long.numberOfTrailingZeros(apply(1L << square));
+    }
+
+    /**
+     * Applies the symmetry to a board grid ({@link OthelloBoard#getBoardSnapshot()}).
+     *
+     * @param grid the 8x8 grid, indexed by row then column
+     * @return a new grid with the transformed cells
+     */
+    public CellState[][] apply(CellState[][] grid) {
+        CellState[][] transformed = new CellState[BitBoard.SIZE][BitBoard.SIZE];
+        for (int row = 0; row < BitBoard.SIZE; row++) {
+            for (int column = 0; column < BitBoard.SIZE; column++) {
+                int square = apply(BitBoard.square(row, column));
+                transformed[square / BitBoard.SIZE][square % BitBoard.SIZE] = grid[row][column];
+            }
+        }
+        return transformed;
+    }
+
+    /**
+     * Gets the symmetry that undoes this one.
+     *
+     * @return the inverse symmetry
+     */
+    public Symmetry inverse() {
+        return switch (this) {
+            case ROTATE_90 -> ROTATE_270;
+            case ROTATE_270 -> ROTATE_90;
+            default -> this;
+        };
+    }
+
+    /**
+     * Finds the symmetry that maps a position to its canonical form: among the 8 transformed positions,
+     * the one with the smallest black mask, then the smallest white mask (compared as unsigned).
+     * All the symmetric positions thus have the same canonical form.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @return the symmetry to apply (the first one if several give the canonical form)
+     */
+    public static Symmetry canonical(long black, long white) {
+        Symmetry best = IDENTITY;
+        long bestBlack = black;
+        long bestWhite = white;
+        for (int i = 1; i < VALUES.length; i++) {
+            long transformedBlack = VALUES[i].apply(black);
+            int order = Long.compareUnsigned(transformedBlack, bestBlack);
+            if (order < 0 || order == 0 && Long.compareUnsigned(VALUES[i].apply(white), bestWhite) < 0) {
+                best = VALUES[i];
+                bestBlack = transformedBlack;
+                bestWhite = VALUES[i].apply(white);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Mirrors the columns: swaps the bits of each byte.
+     */
+    private static long flipHorizontal(long mask) {
+        mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+        mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+        return ((mask >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((mask & 0x0F0F0F0F0F0F0F0FL) << 4);
+    }
+
+    /**
+     * Swaps rows and columns (reflection across the main diagonal) with three delta swaps.
+     */
+    private static long transpose(long mask) {
+        long t = 0x0F0F0F0F00000000L & (mask ^ (mask << 28));
+        mask ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (mask ^ (mask << 14));
+        mask ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (mask ^ (mask << 7));
+        mask ^= t ^ (t >>> 7);
+        return mask;
+    }
+}
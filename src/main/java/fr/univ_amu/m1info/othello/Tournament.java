@@ -0,0 +1,256 @@
+package fr.univ_amu.m1info.othello;
+
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDimensions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless tournament between two robot levels: plays complete {@link OthelloGame} matches
+ * in parallel on a thread pool, the robots taking Black in turn, and checks the consistency of
+ * every finished game on the way.
+ * Every thread reuses one game and its robots (search tables and MCTS tree) for all its games,
+ * and only a few games are scheduled ahead of the one being counted, each kept as a compact
+ * {@link GameRecord}: the memory used does not grow with the number of games.
+ * The games can also be appended to a game file ({@link GameRecordWriter}), as training data.
+ * Run it with {@code ./gradlew tournament --args="EASY HARD 1000"}.
+ */
+public class Tournament {
+    /** Default number of games. */
+    public static final int DEFAULT_GAMES = 1000;
+
+    /** Default search depth of the expert robot (fixed so that games do not depend on the machine load). */
+    public static final int DEFAULT_EXPERT_DEPTH = 4;
+
+    /** Default number of playouts of the MCTS robot (fixed for the same reason). */
+    public static final long DEFAULT_MCTS_PLAYOUTS = 2000;
+
+    private final RobotDifficulty first;
+    private final RobotDifficulty second;
+    private int games = DEFAULT_GAMES;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int expertDepth = DEFAULT_EXPERT_DEPTH;
+    private long mctsPlayouts = DEFAULT_MCTS_PLAYOUTS;
+    private Path recordFile;
+    private final ThreadLocal<OthelloGame> threadGames = ThreadLocal.withInitial(this::newGame);
+    private final AtomicInteger createdGames = new AtomicInteger();
+
+    /**
+     * Creates a tournament.
+     *
+     * @param first the level of the first robot (Black in even games)
+     * @param second the level of the second robot (Black in odd games)
+     */
+    public Tournament(RobotDifficulty first, RobotDifficulty second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Sets the number of games.
+     *
+     * @param games the number of games
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public void setGames(int games) {
+        if (games < 1) {
+            throw new IllegalArgumentException("At least one game is needed: " + games);
+        }
+        this.games = games;
+    }
+
+    /**
+     * Sets the number of games played at the same time.
+     *
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if the number is less than 1
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the search depth of the expert robot.
+     *
+     * @param expertDepth the maximum depth of its iterative deepening
+     */
+    public void setExpertDepth(int expertDepth) {
+        this.expertDepth = expertDepth;
+    }
+
+    /**
+     * Sets the number of playouts of the MCTS robot for each move.
+     *
+     * @param mctsPlayouts the playout budget of its searches
+     */
+    public void setMctsPlayouts(long mctsPlayouts) {
+        this.mctsPlayouts = mctsPlayouts;
+    }
+
+    /**
+     * Sets the game file to which every game is appended, in the order they were scheduled.
+     *
+     * @param recordFile the game file, or null to keep no record
+     */
+    public void setRecordFile(Path recordFile) {
+        this.recordFile = recordFile;
+    }
+
+    /**
+     * Plays every game and gathers the results.
+     *
+     * @return the results, from the point of view of the first robot
+     * @throws IllegalStateException if a game ends in an inconsistent state
+     * @throws UncheckedIOException if the games cannot be written to the game file
+     */
+    public TournamentResult run() {
+        long start = System.currentTimeMillis();
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        long moves = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (GameRecordWriter writer = recordFile == null ? null : GameRecordWriter.open(recordFile)) {
+            // games scheduled ahead of the one being counted, in order
+            Queue<Future<GameRecord>> window = new ArrayDeque<>();
+            int scheduled = 0;
+            for (int index = 0; index < games; index++) {
+                while (scheduled < games && window.size() < 2 * threads) {
+                    boolean firstIsBlack = scheduled % 2 == 0;
+                    window.add(pool.submit(() -> playGame(firstIsBlack)));
+                    scheduled++;
+                }
+                GameRecord record = waitFor(window.remove());
+                if (writer != null) {
+                    writer.write(record);
+                }
+                moves += record.moveCount();
+                int firstOutcome = index % 2 == 0 ? record.blackOutcome() : -record.blackOutcome();
+                if (firstOutcome == 0) {
+                    draws++;
+                } else if (firstOutcome > 0) {
+                    wins++;
+                } else {
+                    losses++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the games to " + recordFile, e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new TournamentResult(first, second, wins, draws, losses, moves, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Plays one complete game with the game of the calling thread.
+     *
+     * @param firstIsBlack true if the first robot plays Black
+     * @return the record of the finished game
+     */
+    GameRecord playGame(boolean firstIsBlack) {
+        OthelloGame game = threadGame();
+        game.reset();
+        // a game does not depend on the ones played before it by the same thread
+        game.getSearchEngine().getTranspositionTable().clear();
+        game.getSearchEngine().setMaxDepth(expertDepth);
+        game.getMctsEngine().setPlayoutBudget(mctsPlayouts);
+        while (game.getStatus() == GameStatus.IN_PROGRESS) {
+            boolean firstToMove = (game.getCurrentPlayer() == Player.BLACK) == firstIsBlack;
+            if (game.playRobotMove(firstToMove ? first : second, 0) == null) {
+                throw new IllegalStateException("No move for " + game.getCurrentPlayer() + " in a game in progress");
+            }
+        }
+        checkFinished(game);
+        return firstIsBlack ? GameRecord.of(game, first, second) : GameRecord.of(game, second, first);
+    }
+
+    /**
+     * Gets the game reused by the calling thread, holding its last game.
+     *
+     * @return the game of the calling thread
+     */
+    OthelloGame threadGame() {
+        return threadGames.get();
+    }
+
+    /**
+     * Gets the number of games (with their robots) created so far: one per thread that played.
+     *
+     * @return the number of games created
+     */
+    int createdGames() {
+        return createdGames.get();
+    }
+
+    private OthelloGame newGame() {
+        createdGames.incrementAndGet();
+        OthelloGame game = new OthelloGame(new BoardGameDimensions(BitBoard.SIZE, BitBoard.SIZE));
+        // the depth and the playouts bound the searches, not the clock
+        game.getSearchEngine().setTimeBudgetMillis(Long.MAX_VALUE / 2);
+        game.getMctsEngine().setTimeBudgetMillis(Long.MAX_VALUE / 2);
+        return game;
+    }
+
+    /**
+     * Checks that a finished game is consistent: nobody can move, every move added one disc
+     * and the history holds every move.
+     */
+    private static void checkFinished(OthelloGame game) {
+        OthelloBoard board = game.getBoard();
+        int discs = board.countPieces(Player.BLACK) + board.countPieces(Player.WHITE);
+        if (game.hasValidMoves(Player.BLACK) || game.hasValidMoves(Player.WHITE)) {
+            throw new IllegalStateException("Game over while a player can still move");
+        }
+        if (discs != 4 + game.getTotalMoves() || game.getHistory().size() != game.getTotalMoves()) {
+            throw new IllegalStateException("Inconsistent game: " + discs + " discs after "
+                    + game.getTotalMoves() + " moves, " + game.getHistory().size() + " in history");
+        }
+    }
+
+    private static GameRecord waitFor(Future<GameRecord> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed", e.getCause());
+        }
+    }
+
+    /**
+     * Runs a tournament and prints its results.
+     *
+     * @param args the two robot levels, then optionally the number of games, of threads and the game file
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: Tournament FIRST SECOND [games] [threads] [game file]   (levels: EASY, HARD, EXPERT, MCTS)");
+            System.exit(2);
+        }
+        Tournament tournament = new Tournament(RobotDifficulty.valueOf(args[0]), RobotDifficulty.valueOf(args[1]));
+        if (args.length > 2) {
+            tournament.setGames(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            tournament.setThreads(Integer.parseInt(args[3]));
+        }
+        if (args.length > 4) {
+            tournament.setRecordFile(Path.of(args[4]));
+        }
+        System.out.println(tournament.run());
+    }
+}
@@ -0,0 +1,125 @@
+package fr.univ_amu.m1info.othello;
+
+/**
+ * Represents the outcome of a {@link Tournament} between two robots, from the point of view of the first one.
+ *
+ * @param first the level of the first robot
+ * @param second the level of the second robot
+ * @param wins the number of games won by the first robot
+ * @param draws the number of drawn games
+ * @param losses the number of games lost by the first robot
+ * @param moves the total number of moves played
+ * @param elapsedMillis the duration of the tournament in milliseconds
+ */
+public record TournamentResult(
+    RobotDifficulty first,
+    RobotDifficulty second,
+    int wins,
+    int draws,
+    int losses,
+    long moves,
+    long elapsedMillis
+) {
+    // two-sided 95% normal quantile
+    private static final double Z_95 = 1.96;
+
+    /**
+     * Gets the number of games played.
+     *
+     * @return the number of games
+     */
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Gets the score of the first robot: 1 point per win, half a point per draw, divided by the number of games.
+     *
+     * @return the score, between 0 and 1
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+    }
+
+    /**
+     * Gets the proportion of games won by the first robot.
+     *
+     * @return the win rate, between 0 and 1
+     */
+    public double winRate() {
+        return games() == 0 ? 0 : (double) wins / games();
+    }
+
+    /**
+     * Gets the half-width of the 95% confidence interval of the score.
+     *
+     * @return the margin of the score
+     */
+    public double scoreMargin() {
+        int games = games();
+        if (games < 2) {
+            return 0.5;
+        }
+        double score = score();
+        double variance = (wins * square(1 - score) + draws * square(0.5 - score) + losses * square(score)) / games;
+        return Z_95 * Math.sqrt(variance / games);
+    }
+
+    /**
+     * Gets the Elo difference between the first and the second robot implied by the score.
+     *
+     * @return the Elo difference (infinite if one robot won every game)
+     */
+    public double eloDifference() {
+        return elo(score());
+    }
+
+    /**
+     * Gets the lower bound of the 95% confidence interval of the Elo difference.
+     *
+     * @return the lower Elo bound
+     */
+    public double eloLowerBound() {
+        return elo(score() - scoreMargin());
+    }
+
+    /**
+     * Gets the upper bound of the 95% confidence interval of the Elo difference.
+     *
+     * @return the upper Elo bound
+     */
+    public double eloUpperBound() {
+        return elo(score() + scoreMargin());
+    }
+
+    /**
+     * Gets the tournament throughput.
+     *
+     * @return the number of games played per second
+     */
+    public double gamesPerSecond() {
+        return games() * 1000.0 / Math.max(1, elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s vs %s: +%d =%d -%d (%d games), score %.1f%% +/- %.1f%%, "
+                        + "Elo %+.0f [%+.0f, %+.0f], %.1f games/s, %d moves",
+                first, second, wins, draws, losses, games(), 100 * score(), 100 * scoreMargin(),
+                eloDifference(), eloLowerBound(), eloUpperBound(), gamesPerSecond(), moves);
+    }
+
+    private static double elo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
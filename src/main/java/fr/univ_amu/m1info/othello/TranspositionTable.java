@@ -0,0 +1,221 @@
+package fr.univ_amu.m1info.othello;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table storing search results by position hash.
+ * Entries live in a flat {@code long[]} (two longs per entry: {@code key ^ data} and {@code data}),
+ * so several search threads can share the table without locks: a torn entry written
+ * concurrently fails the XOR check and is treated as a miss.
+ * Replacement is depth-preferred, entries from previous searches being replaced first.
+ */
+public class TranspositionTable {
+    /** Bound type: the stored score is exact. */
+    public static final int EXACT = 1;
+    /** Bound type: the stored score is a lower bound (the search failed high). */
+    public static final int LOWER = 2;
+    /** Bound type: the stored score is an upper bound (the search failed low). */
+    public static final int UPPER = 3;
+
+    /** Default number of entries (2^18 entries, 4 MB). */
+    public static final int DEFAULT_SIZE_LOG2 = 18;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // layout of the data word
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 39;
+    private static final int BOUND_SHIFT = 46;
+    private static final int GENERATION_SHIFT = 48;
+    private static final long SEVEN_BITS = 0x7F;
+
+    private final long[] slots;
+    private final int mask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Creates a table with the default number of entries.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_LOG2);
+    }
+
+    /**
+     * Creates a table with {@code 2^sizeLog2} entries (16 bytes each).
+     *
+     * @param sizeLog2 the base-2 logarithm of the number of entries
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public TranspositionTable(int sizeLog2) {
+        if (sizeLog2 < 1 || sizeLog2 > 29) {
+            throw new IllegalArgumentException("Table size must be between 2^1 and 2^29 entries: 2^" + sizeLog2);
+        }
+        slots = new long[2 << sizeLog2];
+        mask = (1 << sizeLog2) - 1;
+    }
+
+    /**
+     * Gets the number of entries of the table.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Marks the start of a new search: entries of older searches become replaceable first.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Removes every entry and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the position hash
+     * @return the data word of the entry (decode it with the static accessors), or 0 on a miss
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) << 1;
+        long data = (long) SLOTS.getOpaque(slots, index + 1);
+        long check = (long) SLOTS.getOpaque(slots, index);
+        probes.increment();
+        if (data == 0) {
+            return 0;
+        }
+        if ((check ^ data) != key) {
+            collisions.increment();
+            return 0;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * Stores a search result, unless the slot holds a deeper result of the current search
+     * for another position.
+     *
+     * @param key the position hash
+     * @param depth the search depth of the result (0-127)
+     * @param bound the bound type ({@link #EXACT}, {@link #LOWER} or {@link #UPPER})
+     * @param score the score
+     * @param square the best move square, or -1 if none
+     */
+    public void store(long key, int depth, int bound, int score, int square) {
+        int index = ((int) key & mask) << 1;
+        long oldData = (long) SLOTS.getOpaque(slots, index + 1);
+        if (oldData != 0) {
+            long oldKey = (long) SLOTS.getOpaque(slots, index) ^ oldData;
+            boolean sameSearch = generation(oldData) == generation;
+            if (oldKey != key && sameSearch && depth(oldData) > depth) {
+                return;
+            }
+        }
+        long data = (score & 0xFFFFFFFFL)
+                | ((long) (square + 1) << MOVE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+        SLOTS.setOpaque(slots, index, key ^ data);
+        SLOTS.setOpaque(slots, index + 1, data);
+    }
+
+    /**
+     * Decodes the score of an entry.
+     *
+     * @param data the data word returned by {@link #probe(long)}
+     * @return the score
+     */
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    /**
+     * Decodes the best move of an entry.
+     *
+     * @param data the data word returned by {@link #probe(long)}
+     * @return the square index, or -1 if none
+     */
+    public static int move(long data) {
+        return (int) ((data >>> MOVE_SHIFT) & SEVEN_BITS) - 1;
+    }
+
+    /**
+     * Decodes the search depth of an entry.
+     *
+     * @param data the data word returned by {@link #probe(long)}
+     * @return the depth
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & SEVEN_BITS);
+    }
+
+    /**
+     * Decodes the bound type of an entry.
+     *
+     * @param data the data word returned by {@link #probe(long)}
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    /**
+     * Gets the number of lookups.
+     *
+     * @return the number of probes
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found the position.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found another position in the slot.
+     *
+     * @return the number of collisions
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Gets the proportion of lookups that found the position.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+}
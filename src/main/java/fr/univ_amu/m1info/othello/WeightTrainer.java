@@ -0,0 +1,367 @@
+package fr.univ_amu.m1info.othello;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Offline, headless training of the {@link PatternEvaluator} weights, in three steps:
+ * <ol>
+ *     <li>self-play: a {@link Tournament} between two robot levels records its games in a game file;</li>
+ *     <li>labelling ({@link #label(Path, Path, int)}): every position of every game becomes a sample
+ *     whose target is the final disc differential for the player to move, exact (endgame solver)
+ *     near the end of the game and the one of the recorded game before;</li>
+ *     <li>fitting ({@link #train(Path)}): epochs of gradient descent on the squared error over the samples,
+ *     each weight step scaled by the inverse of its number of occurrences (as a Newton step would),
+ *     with a ridge regularisation against the pattern codes seen in few games.</li>
+ * </ol>
+ * The sample file is streamed when written and memory-mapped when read, so the data set is never
+ * on the heap; each epoch is split over the cores by fork/join, every task summing the gradient of
+ * its slice of the samples.
+ * Sample file format: magic {@code "OTDS"}, version, then 18 bytes per sample (black discs, white discs,
+ * player to move, target), big-endian.
+ * <p>
+ * Run it with {@code ./gradlew trainWeights --args="weights.otew 20000"}; the robot loads the weight
+ * file with {@code ./gradlew run -Pweights=weights.otew}.
+ */
+public class WeightTrainer {
+    /** Evaluation points per disc of final differential: the scale of the trained weights. */
+    public static final int DISC_SCORE = 100;
+
+    /** Default number of empty squares from which the samples are labelled by the endgame solver. */
+    public static final int DEFAULT_EXACT_EMPTIES = 10;
+
+    /** Default number of epochs. */
+    public static final int DEFAULT_EPOCHS = 40;
+
+    /** Default ridge regularisation: the weight of a pattern code seen in few samples stays close to zero. */
+    public static final double DEFAULT_RIDGE = 8;
+
+    static final byte[] MAGIC = {'O', 'T', 'D', 'S'};
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int SAMPLE_SIZE = 18;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    // the pattern weights of every phase, then the feature weights of every phase
+    private static final int WEIGHTS = PatternEvaluator.PHASES * (PatternEvaluator.PATTERN_WEIGHTS + PatternEvaluator.FEATURES);
+    private static final int FEATURE_BASE = PatternEvaluator.PHASES * PatternEvaluator.PATTERN_WEIGHTS;
+
+    private int epochs = DEFAULT_EPOCHS;
+    private double ridge = DEFAULT_RIDGE;
+    private double learningRate = 1.0 / (PatternEvaluator.instanceCount() + PatternEvaluator.FEATURES);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private final List<Double> errors = new ArrayList<>();
+
+    /**
+     * Sets the number of passes over the samples.
+     *
+     * @param epochs the number of epochs
+     * @throws IllegalArgumentException if the number is less than 1
+     */
+    public void setEpochs(int epochs) {
+        if (epochs < 1) {
+            throw new IllegalArgumentException("At least one epoch is needed: " + epochs);
+        }
+        this.epochs = epochs;
+    }
+
+    /**
+     * Sets the learning rate: the fraction of the error of its samples that each weight corrects at each epoch.
+     * Every sample has one weight per pattern instance and per feature, so a rate above the inverse of
+     * their number overshoots (the default is this inverse).
+     *
+     * @param learningRate the learning rate
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public void setLearningRate(double learningRate) {
+        if (!(learningRate > 0)) {
+            throw new IllegalArgumentException("The learning rate must be positive: " + learningRate);
+        }
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Sets the ridge regularisation: the squared error is increased by {@code ridge * w * w} for each weight
+     * {@code w}, which keeps the weights of the rare pattern codes from fitting the noise of a few games.
+     *
+     * @param ridge the regularisation (0 for none)
+     * @throws IllegalArgumentException if the regularisation is negative
+     */
+    public void setRidge(double ridge) {
+        if (!(ridge >= 0)) {
+            throw new IllegalArgumentException("The ridge regularisation cannot be negative: " + ridge);
+        }
+        this.ridge = ridge;
+    }
+
+    /**
+     * Sets the number of threads of the fitting.
+     *
+     * @param parallelism the number of threads
+     * @throws IllegalArgumentException if the number is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets the error of each epoch of the last training, before its weight update.
+     *
+     * @return the root mean square errors, in discs
+     */
+    public List<Double> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    /**
+     * Labels the positions of the games of a game file and writes them to a sample file,
+     * replacing it if it exists. The final positions are not written: the search scores them exactly.
+     *
+     * @param gameFile the game file
+     * @param sampleFile the sample file to write
+     * @param exactEmpties the number of empty squares from which the targets are solved exactly
+     *                     (0 to always take the result of the recorded game)
+     * @return the number of samples
+     * @throws IOException if a file cannot be read or written, or a game is invalid
+     */
+    public static long label(Path gameFile, Path sampleFile, int exactEmpties) throws IOException {
+        EndgameSolver solver = new EndgameSolver();
+        long samples = 0;
+        try (GameRecordReader reader = new GameRecordReader(gameFile);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(sampleFile)))) {
+            output.write(MAGIC);
+            output.writeInt(VERSION);
+            for (GameRecord game = reader.read(); game != null; game = reader.read()) {
+                Position position = Position.initial();
+                for (int ply = 0; ply < game.moveCount(); ply++) {
+                    if (position.legalMoves() == 0) {
+                        position = position.pass();
+                    }
+                    int target = position.empties() <= exactEmpties
+                            ? solver.solve(position.own(), position.opponent()).score()
+                            : position.toMove() == Player.BLACK ? game.discDifference() : -game.discDifference();
+                    output.writeLong(position.black());
+                    output.writeLong(position.white());
+                    output.writeByte(position.toMove().ordinal());
+                    output.writeByte(target);
+                    samples++;
+                    position = position.play(game.square(ply));
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Fits the weights to the samples of a sample file, starting from zero weights.
+     *
+     * @param sampleFile the sample file (written by {@link #label(Path, Path, int)})
+     * @return the evaluator with the fitted weights
+     * @throws IOException if the file cannot be mapped or is not a sample file
+     */
+    public PatternEvaluator train(Path sampleFile) throws IOException {
+        errors.clear();
+        try (Arena arena = Arena.ofShared();
+             FileChannel channel = FileChannel.open(sampleFile, StandardOpenOption.READ)) {
+            MemorySegment samples = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (samples.byteSize() < HEADER_SIZE
+                    || !Arrays.equals(samples.asSlice(0, MAGIC.length).toArray(ValueLayout.JAVA_BYTE), MAGIC)
+                    || samples.get(ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN), MAGIC.length) != VERSION) {
+                throw new IOException("Not a sample file: " + sampleFile);
+            }
+            long count = (samples.byteSize() - HEADER_SIZE) / SAMPLE_SIZE;
+            long grain = Math.max(1024, count / (4L * parallelism));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                double[] weights = new double[WEIGHTS];
+                // sum of the squared feature values of each weight: the scale of its steps
+                double[] curvature = pool.invoke(new Pass(samples, null, 0, count, grain)).sums;
+                for (int epoch = 0; epoch < epochs; epoch++) {
+                    Accumulator gradient = pool.invoke(new Pass(samples, weights, 0, count, grain));
+                    errors.add(Math.sqrt(gradient.squaredError / Math.max(1, count)) / DISC_SCORE);
+                    for (int i = 0; i < WEIGHTS; i++) {
+                        if (curvature[i] > 0) {
+                            weights[i] -= learningRate * (gradient.sums[i] + ridge * weights[i]) / (curvature[i] + ridge);
+                        }
+                    }
+                }
+                return toEvaluator(weights);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static PatternEvaluator toEvaluator(double[] weights) {
+        short[] patternWeights = new short[FEATURE_BASE];
+        for (int i = 0; i < patternWeights.length; i++) {
+            patternWeights[i] = (short) Math.clamp(Math.round(weights[i]), Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+        int[] featureWeights = new int[WEIGHTS - FEATURE_BASE];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (int) Math.round(weights[FEATURE_BASE + i]);
+        }
+        return new PatternEvaluator(patternWeights, featureWeights);
+    }
+
+    /**
+     * Sums over the samples of a task: the gradient of the squared error, or without weights
+     * the squared feature values of each weight.
+     */
+    private static final class Accumulator {
+        final double[] sums = new double[WEIGHTS];
+        double squaredError;
+
+        void add(Accumulator other) {
+            for (int i = 0; i < WEIGHTS; i++) {
+                sums[i] += other.sums[i];
+            }
+            squaredError += other.squaredError;
+        }
+    }
+
+    /**
+     * One pass over a slice of the samples, split in two while it is larger than the grain.
+     */
+    private static final class Pass extends RecursiveTask<Accumulator> {
+        private final MemorySegment samples;
+        private final double[] weights;
+        private final long from;
+        private final long to;
+        private final long grain;
+
+        Pass(MemorySegment samples, double[] weights, long from, long to, long grain) {
+            this.samples = samples;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from > grain) {
+                long middle = (from + to) >>> 1;
+                Pass first = new Pass(samples, weights, from, middle, grain);
+                first.fork();
+                Accumulator second = new Pass(samples, weights, middle, to, grain).compute();
+                Accumulator sum = first.join();
+                sum.add(second);
+                return sum;
+            }
+
+            Accumulator accumulator = new Accumulator();
+            int[] indices = new int[PatternEvaluator.instanceCount()];
+            int[] features = new int[PatternEvaluator.FEATURES];
+            for (long sample = from; sample < to; sample++) {
+                long offset = HEADER_SIZE + sample * SAMPLE_SIZE;
+                long black = samples.get(LONG, offset);
+                long white = samples.get(LONG, offset + 8);
+                boolean blackToMove = samples.get(ValueLayout.JAVA_BYTE, offset + 16) == Player.BLACK.ordinal();
+                int target = DISC_SCORE * samples.get(ValueLayout.JAVA_BYTE, offset + 17);
+                long own = blackToMove ? black : white;
+                long opponent = blackToMove ? white : black;
+
+                int phase = PatternEvaluator.phase(Long.bitCount(~(own | opponent)));
+                int patternBase = phase * PatternEvaluator.PATTERN_WEIGHTS;
+                int featureBase = FEATURE_BASE + phase * PatternEvaluator.FEATURES;
+                for (int instance = 0; instance < indices.length; instance++) {
+                    indices[instance] = patternBase + PatternEvaluator.weightIndex(instance, own, opponent);
+                }
+                PatternEvaluator.featureValues(own, opponent, features);
+
+                double[] sums = accumulator.sums;
+                if (weights == null) {
+                    for (int index : indices) {
+                        sums[index]++;
+                    }
+                    for (int k = 0; k < features.length; k++) {
+                        sums[featureBase + k] += features[k] * features[k];
+                    }
+                    continue;
+                }
+                double prediction = 0;
+                for (int index : indices) {
+                    prediction += weights[index];
+                }
+                for (int k = 0; k < features.length; k++) {
+                    prediction += weights[featureBase + k] * features[k];
+                }
+                double error = prediction - target;
+                accumulator.squaredError += error * error;
+                for (int index : indices) {
+                    sums[index] += error;
+                }
+                for (int k = 0; k < features.length; k++) {
+                    sums[featureBase + k] += error * features[k];
+                }
+            }
+            return accumulator;
+        }
+    }
+
+    /**
+     * Plays self-play games (or reads a game file), labels their positions, fits the weights and writes the weight file.
+     *
+     * @param args the weight file, then either a number of self-play games or a game file, then optionally the
+     *             number of epochs and the two robot levels of the self-play (default: EASY HARD)
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: WeightTrainer WEIGHT_FILE GAMES|GAME_FILE [EPOCHS] [LEVEL LEVEL]");
+            System.exit(2);
+        }
+        Path weightFile = Path.of(args[0]);
+        Path gameFile;
+        long start = System.currentTimeMillis();
+        if (args[1].chars().allMatch(Character::isDigit)) {
+            gameFile = Path.of(args[0] + ".otgr");
+            Files.deleteIfExists(gameFile);
+            Tournament tournament = new Tournament(RobotDifficulty.valueOf(args.length > 3 ? args[3] : "EASY"),
+                    RobotDifficulty.valueOf(args.length > 4 ? args[4] : "HARD"));
+            tournament.setGames(Integer.parseInt(args[1]));
+            tournament.setThreads(Runtime.getRuntime().availableProcessors());
+            tournament.setRecordFile(gameFile);
+            tournament.run();
+            System.out.printf("Played %s games in %d ms%n", args[1], System.currentTimeMillis() - start);
+        } else {
+            gameFile = Path.of(args[1]);
+        }
+
+        start = System.currentTimeMillis();
+        Path sampleFile = Path.of(args[0] + ".otds");
+        long samples = label(gameFile, sampleFile, DEFAULT_EXACT_EMPTIES);
+        System.out.printf("Labelled %d positions in %d ms%n", samples, System.currentTimeMillis() - start);
+
+        start = System.currentTimeMillis();
+        WeightTrainer trainer = new WeightTrainer();
+        if (args.length > 2) {
+            trainer.setEpochs(Integer.parseInt(args[2]));
+        }
+        PatternEvaluator evaluator = trainer.train(sampleFile);
+        List<Double> errors = trainer.getErrors();
+        System.out.printf("Fitted in %d ms, error %.2f discs at the first epoch, %.2f at the last%n",
+                System.currentTimeMillis() - start, errors.getFirst(), errors.getLast());
+        evaluator.save(weightFile);
+        System.out.println("Weights written to " + weightFile);
+    }
+}
@@ -0,0 +1,102 @@
+package fr.univ_amu.m1info.othello;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys used to hash Othello positions.
+ * A position hash is the XOR of one random key per disc (depending on its square and color),
+ * plus {@link #WHITE_TO_MOVE} when White is to move. Playing a move only XORs the keys of the
+ * placed disc and of the flipped discs, so hashes can be maintained incrementally.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x0DDBA11C0FFEEL; // fixed so that hashes are stable across runs
+
+    private static final long[] BLACK_KEYS = new long[BitBoard.SQUARES];
+    private static final long[] WHITE_KEYS = new long[BitBoard.SQUARES];
+    // BLACK_KEYS[square] ^ WHITE_KEYS[square]: toggles the color of a disc
+    private static final long[] FLIP_KEYS = new long[BitBoard.SQUARES];
+
+    /** Key XORed into the hash when White is to move. */
+    public static final long WHITE_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            BLACK_KEYS[square] = random.nextLong();
+            WHITE_KEYS[square] = random.nextLong();
+            FLIP_KEYS[square] = BLACK_KEYS[square] ^ WHITE_KEYS[square];
+        }
+        WHITE_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Computes the hash of the discs of a position from scratch.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @return the hash of the discs
+     */
+    public static long hash(long black, long white) {
+        long hash = 0;
+        for (long discs = black; discs != 0; discs &= discs - 1) {
+            hash ^= BLACK_KEYS[Long.numberOfTrailingZeros(discs)];
+        }
+        for (long discs = white; discs != 0; discs &= discs - 1) {
+            hash ^= WHITE_KEYS[Long.numberOfTrailingZeros(discs)];
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the hash of a position, including the player to move.
+     *
+     * @param black the black discs
+     * @param white the white discs
+     * @param toMove the player to move
+     * @return the hash of the position
+     */
+    public static long hash(long black, long white, Player toMove) {
+        return hash(black, white) ^ (toMove == Player.WHITE ? WHITE_TO_MOVE : 0);
+    }
+
+    /**
+     * Gets the key of a disc.
+     *
+     * @param square the square index
+     * @param player the color of the disc
+     * @return the key of this disc
+     */
+    public static long discKey(int square, Player player) {
+        return player == Player.BLACK ? BLACK_KEYS[square] : WHITE_KEYS[square];
+    }
+
+    /**
+     * Gets the hash difference of a move (placed disc and flipped discs), without the side to move.
+     * XORing it once plays the move, XORing it again takes it back.
+     *
+     * @param square the square index of the placed disc
+     * @param flips the mask of the flipped discs
+     * @param player the player making the move
+     * @return the hash difference
+     */
+    public static long moveKey(int square, long flips, Player player) {
+        return discKey(square, player) ^ flipKey(flips);
+    }
+
+    /**
+     * Gets the hash difference of changing the color of some discs.
+     *
+     * @param flips the mask of the flipped discs
+     * @return the hash difference
+     */
+    public static long flipKey(long flips) {
+        long key = 0;
+        for (; flips != 0; flips &= flips - 1) {
+            key ^= FLIP_KEYS[Long.numberOfTrailingZeros(flips)];
+        }
+        return key;
+    }
+}
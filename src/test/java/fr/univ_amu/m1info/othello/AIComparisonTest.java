@@ -63,6 +63,28 @@ class AIComparisonTest {
         }
     }
 
+    @Test
+    void testExpertAIBeatsHardAI() {
+        BoardGameDimensions dimensions = new BoardGameDimensions(8, 8);
+        int expertWins = 0;
+
+        // Expert plays each color once against the greedy Hard AI
+        for (Player expertColor : Player.values()) {
+            OthelloGame game = new OthelloGame(dimensions);
+            game.getSearchEngine().setMaxDepth(4);
+            game.getSearchEngine().setTimeBudgetMillis(10_000);
+            while (game.getStatus() == GameStatus.IN_PROGRESS) {
+                RobotDifficulty level = game.getCurrentPlayer() == expertColor ? RobotDifficulty.EXPERT : RobotDifficulty.HARD;
+                game.playRobotMove(level, 0);
+            }
+            if (game.getWinner() == expertColor) {
+                expertWins++;
+            }
+        }
+
+        assertEquals(2, expertWins, "Expert AI should win with both colors against Hard AI");
+    }
+
     @Test
     void testEasyAIVariability() {
         BoardGameDimensions dimensions = new BoardGameDimensions(8, 8);
@@ -0,0 +1,95 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation regression tests: computing and applying flips must not allocate,
+ * so that the hot loop of a search creates no garbage per node.
+ */
+class BitBoardAllocationTest {
+    private static final int POSITIONS = 64;
+    private static final int ROUNDS = 2_000;
+    // tolerance for the bookkeeping of the measurement itself
+    private static final long MAX_ALLOCATED_BYTES = 1024;
+
+    @Test
+    void flipComputationAndMoveApplicationDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = threadBean();
+        long[][] positions = randomPositions();
+        OthelloBoard board = new OthelloBoard();
+
+        // warm up so that the measured rounds run compiled code
+        long checksum = playAllMoves(board, positions, ROUNDS);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        checksum += playAllMoves(board, positions, ROUNDS);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(checksum > 0, "Every position should have flipped some pieces");
+        assertTrue(allocated < MAX_ALLOCATED_BYTES,
+                "Flip computation should not allocate (allocated " + allocated + " bytes)");
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Per-thread allocation counters are not available on this JVM");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Allocation counters not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /**
+     * For every position and every legal move: computes the flip mask, applies it,
+     * then restores the position. Returns the total number of flipped pieces.
+     */
+    private static long playAllMoves(OthelloBoard board, long[][] positions, int rounds) {
+        long flipped = 0;
+        BitBoard engine = board.getEngine();
+        for (int round = 0; round < rounds; round++) {
+            for (long[] position : positions) {
+                engine.setMasks(position[0], position[1]);
+                long moves = board.getValidMovesMask(Player.BLACK);
+                while (moves != 0) {
+                    int square = Long.numberOfTrailingZeros(moves);
+                    moves &= moves - 1;
+                    long flips = board.getFlipMask(square / 8, square % 8, Player.BLACK);
+                    flipped += board.applyMove(square / 8, square % 8, flips, Player.BLACK);
+                    engine.setMasks(position[0], position[1]);
+                }
+            }
+        }
+        return flipped;
+    }
+
+    /**
+     * Builds mid-game positions (Black to move, with at least one legal move) by random play.
+     */
+    private static long[][] randomPositions() {
+        Random random = new Random(7);
+        long[][] positions = new long[POSITIONS][];
+        int count = 0;
+        while (count < POSITIONS) {
+            BitBoard bitBoard = new BitBoard();
+            Player player = Player.BLACK;
+            int plies = 10 + random.nextInt(30);
+            for (int ply = 0; ply < plies; ply++) {
+                long moves = BitBoard.legalMoves(bitBoard.discs(player), bitBoard.discs(player.getOpponent()));
+                if (moves != 0) {
+                    bitBoard.executeMove(BitBoard.nthSquare(moves, random.nextInt(Long.bitCount(moves))), player);
+                }
+                player = player.getOpponent();
+            }
+            if (bitBoard.hasValidMoves(Player.BLACK)) {
+                positions[count++] = new long[] {bitBoard.black(), bitBoard.white()};
+            }
+        }
+        return positions;
+    }
+}
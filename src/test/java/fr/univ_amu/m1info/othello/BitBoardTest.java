@@ -0,0 +1,151 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the BitBoard engine.
+ */
+class BitBoardTest {
+
+    @Test
+    void initialPositionMatchesStandardSetup() {
+        BitBoard bitBoard = new BitBoard();
+
+        assertEquals(CellState.WHITE, bitBoard.get(BitBoard.square(3, 3)));
+        assertEquals(CellState.BLACK, bitBoard.get(BitBoard.square(3, 4)));
+        assertEquals(CellState.BLACK, bitBoard.get(BitBoard.square(4, 3)));
+        assertEquals(CellState.WHITE, bitBoard.get(BitBoard.square(4, 4)));
+        assertEquals(2, bitBoard.countPieces(Player.BLACK));
+        assertEquals(2, bitBoard.countPieces(Player.WHITE));
+    }
+
+    @Test
+    void legalMovesOfInitialPosition() {
+        long expected = (1L << BitBoard.square(2, 3)) | (1L << BitBoard.square(3, 2))
+                | (1L << BitBoard.square(4, 5)) | (1L << BitBoard.square(5, 4));
+
+        assertEquals(expected, BitBoard.legalMoves(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE));
+    }
+
+    @Test
+    void squaresIteratesOverSetBitsInAscendingOrder() {
+        long mask = (1L << 63) | (1L << 5) | 1L;
+        PrimitiveIterator.OfInt squares = BitBoard.squares(mask);
+
+        assertEquals(0, squares.nextInt());
+        assertEquals(5, squares.nextInt());
+        assertEquals(63, squares.nextInt());
+        assertFalse(squares.hasNext());
+        assertThrows(NoSuchElementException.class, squares::nextInt);
+    }
+
+    @Test
+    void nthSquareSelectsByRank() {
+        long mask = (1L << 63) | (1L << 5) | 1L;
+
+        assertEquals(0, BitBoard.nthSquare(mask, 0));
+        assertEquals(63, BitBoard.nthSquare(mask, 2));
+        assertThrows(IllegalArgumentException.class, () -> BitBoard.nthSquare(mask, 3));
+    }
+
+    @Test
+    void flipsDoNotWrapAroundTheBoardEdge() {
+        BitBoard bitBoard = new BitBoard();
+        bitBoard.setMasks(0, 0);
+        // White at (0,7), Black at (1,0): a Black move at (0,6) must not "bracket" through the edge
+        bitBoard.set(BitBoard.square(0, 7), CellState.WHITE);
+        bitBoard.set(BitBoard.square(1, 0), CellState.BLACK);
+
+        assertEquals(0, BitBoard.flips(BitBoard.square(0, 6), bitBoard.black(), bitBoard.white()));
+        assertFalse(bitBoard.hasValidMoves(Player.BLACK));
+    }
+
+    @Test
+    void executeMoveFlipsInSeveralDirections() {
+        BitBoard bitBoard = new BitBoard();
+        bitBoard.setMasks(0, 0);
+        // Black (2,2) brackets White to the West, North and North-West
+        bitBoard.set(BitBoard.square(2, 0), CellState.BLACK);
+        bitBoard.set(BitBoard.square(2, 1), CellState.WHITE);
+        bitBoard.set(BitBoard.square(0, 2), CellState.BLACK);
+        bitBoard.set(BitBoard.square(1, 2), CellState.WHITE);
+        bitBoard.set(BitBoard.square(0, 0), CellState.BLACK);
+        bitBoard.set(BitBoard.square(1, 1), CellState.WHITE);
+
+        assertTrue(bitBoard.isValidMove(BitBoard.square(2, 2), Player.BLACK));
+        assertEquals(3, bitBoard.executeMove(BitBoard.square(2, 2), Player.BLACK));
+        assertEquals(7, bitBoard.countPieces(Player.BLACK));
+        assertEquals(0, bitBoard.countPieces(Player.WHITE));
+    }
+
+    @Test
+    void legalMovesAgreeWithSingleSquareFlipsDuringRandomGames() {
+        Random random = new Random(42);
+        for (int game = 0; game < 50; game++) {
+            BitBoard bitBoard = new BitBoard();
+            Player player = Player.BLACK;
+            int passes = 0;
+            while (passes < 2) {
+                long own = bitBoard.discs(player);
+                long opponent = bitBoard.discs(player.getOpponent());
+                long moves = BitBoard.legalMoves(own, opponent);
+                for (int square = 0; square < BitBoard.SQUARES; square++) {
+                    boolean expected = bitBoard.isEmpty(square) && BitBoard.flips(square, own, opponent) != 0;
+                    assertEquals(expected, (moves & (1L << square)) != 0, "square " + square);
+                }
+                if (moves == 0) {
+                    passes++;
+                } else {
+                    passes = 0;
+                    int choice = random.nextInt(Long.bitCount(moves));
+                    for (int i = 0; i < choice; i++) {
+                        moves &= moves - 1;
+                    }
+                    bitBoard.executeMove(Long.numberOfTrailingZeros(moves), player);
+                    assertEquals(0, bitBoard.black() & bitBoard.white(), "masks must stay disjoint");
+                }
+                player = player.getOpponent();
+            }
+        }
+    }
+
+    @Test
+    void discCountsFollowEveryChangeOfTheMasks() {
+        BitBoard bitBoard = new BitBoard();
+        assertCounts(bitBoard, 2, 2);
+
+        int square = BitBoard.square(2, 3);
+        long flips = BitBoard.flips(square, bitBoard.black(), bitBoard.white());
+        bitBoard.makeMove(square, flips, Player.BLACK);
+        assertCounts(bitBoard, 4, 1);
+
+        bitBoard.set(BitBoard.square(0, 0), CellState.WHITE);
+        assertCounts(bitBoard, 4, 2);
+        bitBoard.set(BitBoard.square(0, 0), CellState.BLACK);
+        assertCounts(bitBoard, 5, 1);
+        bitBoard.set(BitBoard.square(0, 0), CellState.EMPTY);
+        assertCounts(bitBoard, 4, 1);
+
+        bitBoard.undoMove(square, flips, Player.BLACK);
+        assertCounts(bitBoard, 2, 2);
+
+        bitBoard.setMasks(0xFFL, 0xF00L);
+        assertCounts(bitBoard, 8, 4);
+
+        bitBoard.reset();
+        assertCounts(bitBoard, 2, 2);
+    }
+
+    private static void assertCounts(BitBoard bitBoard, int black, int white) {
+        assertEquals(black, bitBoard.countPieces(Player.BLACK));
+        assertEquals(white, bitBoard.countPieces(Player.WHITE));
+        assertEquals(BitBoard.SQUARES - black - white, bitBoard.countEmpty());
+        assertTrue(bitBoard.countsMatchMasks());
+    }
+}
@@ -0,0 +1,56 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the canonical form of the positions.
+ */
+class CanonicalPositionTest {
+
+    @Test
+    void symmetricPositionsShareTheirCanonicalForm() {
+        for (Position position : Position.randomSuite(30, 20, 22)) {
+            CanonicalPosition canonical = position.canonical();
+            assertEquals(position.transform(canonical.symmetry()), canonical.position());
+            for (Symmetry symmetry : Symmetry.values()) {
+                CanonicalPosition other = position.transform(symmetry).canonical();
+                assertEquals(canonical.position(), other.position(), symmetry.name());
+                assertEquals(canonical.hash(), other.hash());
+            }
+        }
+    }
+
+    @Test
+    void movesAreMappedToTheCanonicalBoardAndBack() {
+        for (Position position : Position.randomSuite(30, 20, 23)) {
+            CanonicalPosition canonical = position.canonical();
+            for (var squares = BitBoard.squares(position.legalMoves()); squares.hasNext(); ) {
+                int square = squares.nextInt();
+                int canonicalSquare = canonical.toCanonical(square);
+                assertTrue((canonical.position().legalMoves() & (1L << canonicalSquare)) != 0);
+                int back = canonical.fromCanonical(canonicalSquare);
+                // the same move, or a move leading to a symmetric position
+                assertEquals(position.play(square).canonical().position(), position.play(back).canonical().position());
+            }
+        }
+    }
+
+    @Test
+    void theFourFirstMovesAreOneCanonicalMove() {
+        CanonicalPosition start = Position.initial().canonical();
+        Set<Integer> canonicalSquares = new HashSet<>();
+        Set<Position> canonicalPositions = new HashSet<>();
+        for (var squares = BitBoard.squares(Position.initial().legalMoves()); squares.hasNext(); ) {
+            int square = squares.nextInt();
+            canonicalSquares.add(start.toCanonical(square));
+            canonicalPositions.add(Position.initial().play(square).canonical().position());
+        }
+        assertEquals(1, canonicalSquares.size());
+        assertEquals(1, canonicalPositions.size());
+    }
+}
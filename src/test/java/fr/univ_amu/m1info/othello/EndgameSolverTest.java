@@ -0,0 +1,127 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the EndgameSolver.
+ */
+class EndgameSolverTest {
+
+    @Test
+    void exactScoreMatchesFullMinimax() {
+        for (int plies = 50; plies <= 58; plies += 2) {
+            for (Position position : Position.randomSuite(10, plies, plies)) {
+                EndgameResult result = new EndgameSolver().solve(position.own(), position.opponent());
+
+                assertTrue(result.exact());
+                assertEquals(minimax(position.own(), position.opponent(), false), result.score(),
+                        "Wrong score with " + position.empties() + " empties");
+                assertEquals(result.score(), scoreAfter(position, result.square()),
+                        "The returned move must reach the announced score");
+            }
+        }
+    }
+
+    @Test
+    void outcomeSolveFindsTheWinner() {
+        for (Position position : Position.randomSuite(20, 50, 4)) {
+            EndgameResult result = new EndgameSolver().solveOutcome(position.own(), position.opponent());
+
+            assertFalse(result.exact());
+            assertEquals(Integer.signum(minimax(position.own(), position.opponent(), false)),
+                    Integer.signum(result.score()));
+        }
+    }
+
+    @Test
+    void lastEmptySquareIsPlayedByWhoeverCan() {
+        // a full board except a1; Black owns b1..g1, White owns the rest and can take the row back
+        long empty = 1L;
+        long black = 0x7EL;
+        long white = ~(black | empty);
+
+        EndgameResult result = new EndgameSolver().solve(black, white);
+
+        // Black cannot play a1, White takes it and flips the whole row
+        assertEquals(-1, result.square());
+        assertTrue(result.isLoss());
+        assertEquals(-64, result.score());
+    }
+
+    @Test
+    void finishedGameReturnsTheFinalDifferential() {
+        // two full rows for Black on one side, one row for White on the other: nobody can move
+        EndgameResult result = new EndgameSolver().solve(0xFFFFL, 0xFF00000000000000L);
+
+        assertEquals(-1, result.square());
+        assertNull(result.move());
+        assertEquals(8, result.score());
+        assertTrue(result.isWin());
+    }
+
+    @Test
+    void cancelledSolveStillReturnsALegalMove() throws InterruptedException {
+        Position position = Position.randomSuite(1, 36, 1).get(0);
+        EndgameSolver solver = new EndgameSolver();
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            solver.cancel();
+        });
+        canceller.start();
+
+        EndgameResult result = solver.solve(position.own(), position.opponent());
+        canceller.join();
+
+        assertFalse(result.exact(), "A cancelled solve is not exact");
+        assertTrue((position.legalMoves() & (1L << result.square())) != 0);
+    }
+
+    @Test
+    void aStopRaisedBeforeTheSolveStartsIsNotLost() {
+        Position position = Position.randomSuite(1, 30, 2).get(0);
+        AtomicBoolean stop = new AtomicBoolean(true);
+
+        long start = System.currentTimeMillis();
+        EndgameResult result = new EndgameSolver().solve(position.own(), position.opponent(), stop);
+
+        assertTrue(System.currentTimeMillis() - start < 1_000, "A cancelled request must not run");
+        assertFalse(result.exact());
+        assertTrue((position.legalMoves() & (1L << result.square())) != 0);
+    }
+
+    private static int scoreAfter(Position position, int square) {
+        if (square < 0) {
+            return -minimax(position.opponent(), position.own(), true);
+        }
+        Position next = position.play(square);
+        return -minimax(next.own(), next.opponent(), false);
+    }
+
+    /**
+     * Reference search without pruning: final disc differential for the player owning {@code own}.
+     */
+    private static int minimax(long own, long opponent, boolean passed) {
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            if (passed || BitBoard.legalMoves(opponent, own) == 0) {
+                return Long.bitCount(own) - Long.bitCount(opponent);
+            }
+            return -minimax(opponent, own, true);
+        }
+        int best = Integer.MIN_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = BitBoard.flips(square, own, opponent);
+            best = Math.max(best, -minimax(opponent ^ flips, own ^ (flips | (1L << square)), false));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,170 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped game database and its position index.
+ */
+class GameDatabaseTest {
+    private static final int GAMES = 60;
+
+    @TempDir
+    Path directory;
+
+    private Path gameFile;
+    private Path indexFile;
+    private final List<GameRecord> recorded = new ArrayList<>();
+
+    @BeforeEach
+    void recordGames() throws IOException {
+        gameFile = directory.resolve("games.otgr");
+        indexFile = directory.resolve("games.otgr.idx");
+        Tournament tournament = new Tournament(RobotDifficulty.HARD, RobotDifficulty.EASY);
+        tournament.setGames(GAMES);
+        tournament.setThreads(2);
+        tournament.setRecordFile(gameFile);
+        tournament.run();
+        try (GameRecordReader reader = new GameRecordReader(gameFile)) {
+            reader.forEach(recorded::add);
+        }
+        GameDatabase.buildIndex(gameFile, indexFile);
+    }
+
+    @Test
+    void everyGameReachesTheStartPosition() throws IOException {
+        try (GameDatabase database = GameDatabase.open(gameFile, indexFile)) {
+            assertEquals(GAMES, database.getGameCount());
+            PositionStats stats = database.stats(Position.initial());
+            assertEquals(GAMES, stats.games());
+            long blackWins = recorded.stream().filter(game -> game.blackOutcome() > 0).count();
+            long draws = recorded.stream().filter(game -> game.blackOutcome() == 0).count();
+            assertEquals(blackWins, stats.blackWins());
+            assertEquals(draws, stats.draws());
+            assertEquals(recorded, database.gamesReaching(Position.initial(), GAMES));
+        }
+    }
+
+    @Test
+    void statisticsMatchAScanOfTheGames() throws IOException {
+        Map<Long, int[]> expected = new HashMap<>();
+        for (GameRecord game : recorded) {
+            for (long hash : GameDatabase.positionHashes(game)) {
+                int[] results = expected.computeIfAbsent(hash, _ -> new int[3]);
+                results[1 - game.blackOutcome()]++;
+            }
+        }
+
+        try (GameDatabase database = GameDatabase.open(gameFile, indexFile)) {
+            for (Map.Entry<Long, int[]> entry : expected.entrySet()) {
+                PositionStats stats = database.stats(entry.getKey());
+                assertEquals(entry.getValue()[0], stats.blackWins());
+                assertEquals(entry.getValue()[1], stats.draws());
+                assertEquals(entry.getValue()[2], stats.whiteWins());
+            }
+        }
+    }
+
+    @Test
+    void gamesReachingAPositionAllPassThroughIt() throws IOException {
+        GameRecord game = recorded.get(7);
+        // random games can end early: take the middle of the game
+        Position middle = game.positionAfter(game.moveCount() / 2);
+
+        try (GameDatabase database = GameDatabase.open(gameFile, indexFile)) {
+            List<GameRecord> reaching = database.gamesReaching(middle, GAMES);
+            assertTrue(reaching.contains(game));
+            assertEquals(database.stats(middle).games(), reaching.size());
+            for (GameRecord other : reaching) {
+                boolean found = false;
+                for (int moves = 0; moves <= other.moveCount() && !found; moves++) {
+                    Position position = other.positionAfter(moves).canonical().position();
+                    Position canonical = middle.canonical().position();
+                    found = position.black() == canonical.black() && position.white() == canonical.white();
+                }
+                assertTrue(found, "Every returned game must reach the position or a symmetric one");
+            }
+            assertEquals(1, database.gamesReaching(Position.initial(), 1).size());
+        }
+    }
+
+    @Test
+    void symmetricPositionsShareTheirStatistics() throws IOException {
+        Position middle = recorded.get(11).positionAfter(Math.min(12, recorded.get(11).moveCount()));
+        Set<Long> hashes = new HashSet<>();
+        Set<Long> canonicalHashes = new HashSet<>();
+        for (GameRecord game : recorded) {
+            for (int moves = 0; moves <= game.moveCount(); moves++) {
+                Position position = game.positionAfter(moves);
+                hashes.add(position.hash());
+                canonicalHashes.add(position.canonical().hash());
+            }
+        }
+
+        try (GameDatabase database = GameDatabase.open(gameFile, indexFile)) {
+            PositionStats stats = database.stats(middle);
+            assertTrue(stats.games() > 0);
+            for (Symmetry symmetry : Symmetry.values()) {
+                assertEquals(stats, database.stats(middle.transform(symmetry)), symmetry.name());
+            }
+            // the 4 first moves lead to symmetric positions: every game reaches them
+            assertEquals(GAMES, database.stats(Position.initial().play(BitBoard.square(2, 3))).games());
+        }
+        assertTrue(canonicalHashes.size() < hashes.size());
+    }
+
+    @Test
+    void unknownPositionsHaveNoGames() throws IOException {
+        Position unknown = new Position(0xFFL, 0xFF00L, Player.BLACK);
+        try (GameDatabase database = GameDatabase.open(gameFile, indexFile)) {
+            assertEquals(PositionStats.NONE, database.stats(unknown));
+            assertEquals(0.5, database.stats(unknown).score(Player.WHITE));
+            assertTrue(database.gamesReaching(unknown, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void onlyTheIndexIsLeftNextToTheGames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(Set.of(gameFile, indexFile), files.collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void aTruncatedIndexIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(indexFile);
+        Files.write(indexFile, Arrays.copyOf(bytes, bytes.length - 8));
+
+        assertThrows(IOException.class, () -> GameDatabase.open(gameFile, indexFile));
+    }
+
+    @Test
+    void aStaleIndexIsRejected() throws IOException {
+        try (GameRecordWriter writer = GameRecordWriter.open(gameFile)) {
+            writer.write(recorded.get(0));
+        }
+        assertThrows(IOException.class, () -> GameDatabase.open(gameFile, indexFile));
+        assertThrows(IOException.class, () -> GameDatabase.open(indexFile, gameFile));
+
+        GameDatabase.buildIndex(gameFile, indexFile);
+        try (GameDatabase database = GameDatabase.open(gameFile, indexFile)) {
+            assertEquals(GAMES + 1, database.getGameCount());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package fr.univ_amu.m1info.othello;
+
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDimensions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the game records and their file format (writer and reader).
+ */
+class GameRecordTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordOfAGameKeepsMovesTimesAndResult() {
+        OthelloGame game = new OthelloGame(new BoardGameDimensions(8, 8));
+        long elapsed = 0;
+        while (game.getStatus() == GameStatus.IN_PROGRESS) {
+            game.playRobotMove(RobotDifficulty.EASY, elapsed += 1500);
+        }
+
+        GameRecord record = GameRecord.of(game, null, RobotDifficulty.EASY);
+
+        assertEquals(game.getTotalMoves(), record.moveCount());
+        assertEquals(game.getHistory().get(0).square(), record.square(0));
+        assertEquals(1500, record.elapsedMillis()[0]);
+        assertEquals(game.countPieces(Player.BLACK) - game.countPieces(Player.WHITE), record.discDifference());
+        Position end = record.replay();
+        assertTrue(end.isGameOver());
+        assertEquals(game.getBoard().getEngine().black(), end.black());
+        assertEquals(game.getBoard().getEngine().white(), end.white());
+    }
+
+    @Test
+    void gamesAreReadBackInOrderAcrossAppends() throws IOException {
+        Path file = directory.resolve("games.otgr");
+        List<GameRecord> written = new ArrayList<>();
+        for (int session = 0; session < 2; session++) {
+            try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+                for (int i = 0; i < 50; i++) {
+                    GameRecord record = randomGame(session * 50 + i);
+                    writer.write(record);
+                    written.add(record);
+                }
+                assertEquals(50, writer.getGamesWritten());
+            }
+        }
+
+        List<GameRecord> read = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            reader.forEach(read::add);
+            assertEquals(100, reader.getGamesRead());
+        }
+        assertEquals(written, read);
+    }
+
+    @Test
+    void timesGoingBackwardsAndHumanPlayersAreEncoded() throws IOException {
+        Path file = directory.resolve("times.otgr");
+        byte[] squares = {19, 18, 17};
+        GameRecord record = new GameRecord(null, null, squares, new long[] {5_000, 1_000, 3_600_000_000L}, 0);
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            writer.write(record);
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertEquals(record, reader.read());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void everyRobotLevelIsEncoded() throws IOException {
+        Path file = directory.resolve("levels.otgr");
+        byte[] squares = {19};
+        List<GameRecord> written = new ArrayList<>();
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            for (RobotDifficulty black : RobotDifficulty.values()) {
+                GameRecord record = new GameRecord(black, RobotDifficulty.MCTS, squares, new long[] {0}, 3);
+                writer.write(record);
+                written.add(record);
+            }
+        }
+
+        List<GameRecord> read = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            reader.forEach(read::add);
+        }
+        assertEquals(written, read);
+    }
+
+    @Test
+    void filesOfTheFirstVersionAreRejected() throws IOException {
+        // version 1 had 2 bits per player, too few for the MCTS robot
+        Path file = directory.resolve("old.otgr");
+        Files.write(file, new byte[] {'O', 'T', 'G', 'R', 1});
+        assertThrows(IOException.class, () -> new GameRecordReader(file));
+        assertThrows(IOException.class, () -> GameRecordWriter.open(file));
+    }
+
+    @Test
+    void movesPlayedWithinEightSecondsTakeThreeBytes() throws IOException {
+        Path file = directory.resolve("size.otgr");
+        long moves = 0;
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            for (int i = 0; i < 100; i++) {
+                GameRecord record = randomGame(i);
+                writer.write(record);
+                moves += record.moveCount();
+            }
+        }
+        long gameBytes = Files.size(file) - GameRecordWriter.HEADER_SIZE;
+        assertEquals(3 * 100 + 3 * moves, gameBytes);
+    }
+
+    @Test
+    void otherFilesAndTruncatedGamesAreRejected() throws IOException {
+        Path other = directory.resolve("other.bin");
+        Files.write(other, new byte[] {1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, () -> new GameRecordReader(other));
+        assertThrows(IOException.class, () -> GameRecordWriter.open(other));
+
+        Path file = directory.resolve("truncated.otgr");
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            writer.write(randomGame(1));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertThrows(IOException.class, reader::read);
+        }
+    }
+
+    @Test
+    void illegalMovesAreDetectedOnReplay() {
+        GameRecord record = new GameRecord(null, null, new byte[] {0}, new long[] {0}, 0);
+        assertThrows(IllegalArgumentException.class, record::replay);
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameRecord(null, null, new byte[] {64}, new long[] {0}, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameRecord(null, null, new byte[] {19}, new long[0], 0));
+    }
+
+    @Test
+    void recordsWithAnIllegalMoveAreRejected() throws IOException {
+        // after D3 and C3, Black "plays" on its own disc D5, which brackets the white D4
+        GameRecord record = new GameRecord(null, null, new byte[] {19, 18, 35}, new long[3], 0);
+        assertThrows(IllegalArgumentException.class, record::replay);
+        assertEquals(6, Long.bitCount(record.positionAfter(2).black() | record.positionAfter(2).white()));
+
+        Path file = directory.resolve("illegal.otgr");
+        try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+            writer.write(randomGame(1));
+            writer.write(record);
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertNotNull(reader.read());
+            assertThrows(IOException.class, reader::read);
+        }
+        assertThrows(IOException.class, () -> GameDatabase.buildIndex(file, directory.resolve("illegal.otgr.idx")));
+        assertThrows(IOException.class, () -> OpeningBook.build(file, directory.resolve("illegal.otbk"), 10, 1));
+        assertThrows(IOException.class, () -> WeightTrainer.label(file, directory.resolve("illegal.otds"), 0));
+    }
+
+    @Test
+    void tournamentGamesCanBeRecorded() throws IOException {
+        Path file = directory.resolve("tournament.otgr");
+        Tournament tournament = new Tournament(RobotDifficulty.HARD, RobotDifficulty.EASY);
+        tournament.setGames(10);
+        tournament.setThreads(2);
+        tournament.setRecordFile(file);
+
+        TournamentResult result = tournament.run();
+
+        long moves = 0;
+        int games = 0;
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            for (GameRecord record : reader) {
+                RobotDifficulty expectedBlack = games % 2 == 0 ? RobotDifficulty.HARD : RobotDifficulty.EASY;
+                assertEquals(expectedBlack, record.blackRobot());
+                assertTrue(record.replay().isGameOver());
+                moves += record.moveCount();
+                games++;
+            }
+        }
+        assertEquals(10, games);
+        assertEquals(result.moves(), moves);
+    }
+
+    private static GameRecord randomGame(int index) {
+        OthelloGame game = new OthelloGame(new BoardGameDimensions(8, 8));
+        long elapsed = index;
+        while (game.getStatus() == GameStatus.IN_PROGRESS) {
+            game.playRobotMove(RobotDifficulty.EASY, elapsed += 700 + index % 5);
+        }
+        return GameRecord.of(game, RobotDifficulty.EASY, index % 3 == 0 ? null : RobotDifficulty.HARD);
+    }
+}
@@ -0,0 +1,188 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Monte Carlo tree search robot and its node pool.
+ */
+class MctsEngineTest {
+
+    private static MctsEngine engine(long playouts) {
+        MctsEngine engine = new MctsEngine();
+        engine.setPlayoutBudget(playouts);
+        engine.setTimeBudgetMillis(60_000);
+        engine.setTreeCapacity(1 << 16);
+        return engine;
+    }
+
+    @Test
+    void chosenMovesAreLegal() {
+        MctsEngine engine = engine(500);
+        for (Position position : Position.randomSuite(30, 40, 1)) {
+            MctsResult result = engine.search(position.own(), position.opponent());
+
+            assertTrue((position.legalMoves() & (1L << result.square())) != 0);
+            assertTrue(result.score() >= 0 && result.score() <= 1);
+            assertTrue(result.treeSize() > 1);
+        }
+    }
+
+    @Test
+    void thePlayoutBudgetIsRespected() {
+        for (int threads : new int[] {1, 3}) {
+            MctsEngine engine = engine(2_000);
+            engine.setThreads(threads);
+            Position position = Position.initial();
+
+            MctsResult result = engine.search(position.own(), position.opponent());
+
+            assertEquals(2_000, result.playouts());
+            assertTrue(result.playoutsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void theTimeBudgetStopsTheSearch() {
+        MctsEngine engine = new MctsEngine();
+        engine.setTimeBudgetMillis(50);
+        Position position = Position.initial();
+
+        MctsResult result = engine.search(position.own(), position.opponent());
+
+        assertTrue(result.elapsedMillis() < 1_000);
+        assertTrue(result.playouts() > 0);
+    }
+
+    @Test
+    void aStopRaisedBeforeTheSearchStartsIsNotLost() {
+        MctsEngine engine = new MctsEngine();
+        engine.setTimeBudgetMillis(60_000);
+        engine.setThreads(2);
+        Position position = Position.initial();
+
+        MctsResult result = engine.search(position.own(), position.opponent(), new AtomicBoolean(true));
+
+        assertTrue(result.elapsedMillis() < 1_000, "A cancelled request must not use its budget");
+        assertTrue(result.playouts() <= 2);
+        assertTrue((position.legalMoves() & (1L << result.square())) != 0);
+    }
+
+    @Test
+    void aRequestFlagCanBeUsedForSeveralSearches() {
+        MctsEngine engine = engine(500);
+        engine.setThreads(2);
+        Position position = Position.initial();
+        AtomicBoolean stop = new AtomicBoolean();
+
+        MctsResult first = engine.search(position.own(), position.opponent(), stop);
+        MctsResult second = engine.search(position.own(), position.opponent(), stop);
+
+        assertFalse(stop.get(), "The search must not raise the request's flag");
+        assertEquals(500, first.playouts());
+        assertEquals(500, second.playouts());
+    }
+
+    @Test
+    void anInterruptedSearchWaitsForItsHelpers() {
+        MctsEngine engine = engine(20_000);
+        engine.setThreads(2);
+        Position position = Position.initial();
+
+        Thread.currentThread().interrupt();
+        MctsResult result = engine.search(position.own(), position.opponent());
+
+        assertTrue(Thread.interrupted(), "The interrupt must be kept for the caller");
+        assertEquals(20_000, result.playouts());
+    }
+
+    @Test
+    void aPassOrAForcedMoveNeedsNoPlayout() {
+        MctsEngine engine = engine(1_000);
+        // A1 against the rest of the first row: nobody can move
+        assertEquals(-1, engine.search(0x0000000000000001L, 0x00000000000000FEL).square());
+        // A1 against B1: C1 is the only move
+        MctsResult forced = engine.search(0x0000000000000001L, 0x0000000000000002L);
+        assertEquals(2, forced.square());
+        assertEquals(0, forced.playouts());
+    }
+
+    @Test
+    void winningMovesAreFoundNearTheEnd() {
+        MctsEngine engine = engine(20_000);
+        EndgameSolver solver = new EndgameSolver();
+        int checked = 0;
+        for (Position position : Position.randomSuite(20, 54, 2)) {
+            if (solver.solve(position.own(), position.opponent()).score() <= 0) {
+                continue;
+            }
+            int square = engine.search(position.own(), position.opponent()).square();
+            Position next = position.play(square);
+
+            // the move keeps the win: the opponent's best result is a loss
+            assertTrue(solver.solve(next.own(), next.opponent()).score() < 0, position.toString());
+            checked++;
+        }
+        assertTrue(checked > 0);
+    }
+
+    @Test
+    void virtualLossesAreUndoneByEveryPlayout() throws InterruptedException {
+        MctsTree tree = new MctsTree(1 << 14);
+        Position position = Position.initial();
+        tree.reset(position.own(), position.opponent(), MctsEngine.DEFAULT_EXPLORATION);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads[t] = new Thread(() -> {
+                int[] path = MctsTree.newPath();
+                for (int i = 0; i < 1_000; i++) {
+                    tree.playout(position.own(), position.opponent(), random, path);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4_000, tree.visits(MctsTree.ROOT));
+        int best = tree.bestChild();
+        assertTrue((position.legalMoves() & (1L << tree.move(best))) != 0);
+        assertTrue(tree.size() <= tree.capacity());
+    }
+
+    @Test
+    void aFullTreeStillPlays() {
+        MctsEngine engine = engine(3_000);
+        engine.setTreeCapacity(64);
+        Position position = Position.randomSuite(1, 20, 3).getFirst();
+
+        MctsResult result = engine.search(position.own(), position.opponent());
+
+        assertTrue(result.treeSize() <= 64);
+        assertTrue((position.legalMoves() & (1L << result.square())) != 0);
+    }
+
+    @Test
+    void rolloutsOfFinishedGamesGiveTheResult() {
+        SplittableRandom random = new SplittableRandom(4);
+        assertEquals(2, MctsTree.rollout(-1L, 0, random));
+        assertEquals(0, MctsTree.rollout(0x0000000000000001L, 0x00000000000000FEL, random));
+        assertEquals(1, MctsTree.rollout(0x00000000FFFFFFFFL, 0xFFFFFFFF00000000L, random));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        MctsEngine engine = new MctsEngine();
+        assertThrows(IllegalArgumentException.class, () -> engine.setTimeBudgetMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.setPlayoutBudget(-1));
+        assertThrows(IllegalArgumentException.class, () -> engine.setThreads(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.setTreeCapacity(8));
+        assertThrows(IllegalArgumentException.class, () -> engine.setExploration(-0.1));
+    }
+}
@@ -0,0 +1,64 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MoveHistory.
+ */
+class MoveHistoryTest {
+
+    @Test
+    void newHistoryIsEmpty() {
+        MoveHistory history = new MoveHistory();
+
+        assertTrue(history.isEmpty());
+        assertEquals(0, history.size());
+        assertThrows(NoSuchElementException.class, history::pop);
+        assertThrows(NoSuchElementException.class, history::lastElapsedMillis);
+    }
+
+    @Test
+    void lastMoveIsOnTop() {
+        MoveHistory history = new MoveHistory();
+        history.push(19, 1L << 27, Player.BLACK, 100);
+        history.push(18, 1L << 27, Player.WHITE, 200);
+
+        assertEquals(18, history.lastSquare());
+        assertEquals(Player.WHITE, history.lastPlayer());
+        assertEquals(200, history.lastElapsedMillis());
+
+        history.pop();
+
+        assertEquals(19, history.lastSquare());
+        assertEquals(1L << 27, history.lastFlips());
+        assertEquals(Player.BLACK, history.lastPlayer());
+        assertEquals(100, history.lastElapsedMillis());
+    }
+
+    @Test
+    void historyGrowsBeyondInitialCapacity() {
+        MoveHistory history = new MoveHistory();
+        for (int i = 0; i < 1000; i++) {
+            history.push(i % 64, i, i % 2 == 0 ? Player.BLACK : Player.WHITE, i);
+        }
+
+        assertEquals(1000, history.size());
+        assertEquals(new MoveSnapshot(999 % 64, 999, Player.WHITE, 999), history.get(999));
+        assertEquals(new MoveSnapshot(0, 0, Player.BLACK, 0), history.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(1000));
+    }
+
+    @Test
+    void clearEmptiesTheHistory() {
+        MoveHistory history = new MoveHistory();
+        history.push(19, 1L << 27, Player.BLACK, 100);
+
+        history.clear();
+
+        assertTrue(history.isEmpty());
+    }
+}
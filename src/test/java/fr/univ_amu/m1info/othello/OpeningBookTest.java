@@ -0,0 +1,150 @@
+package fr.univ_amu.m1info.othello;
+
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDimensions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memory-mapped opening book.
+ */
+class OpeningBookTest {
+    private static final int GAMES = 60;
+    private static final int PLIES = 6;
+
+    @TempDir
+    Path directory;
+
+    private Path gameFile;
+    private Path bookFile;
+    private final List<GameRecord> recorded = new ArrayList<>();
+
+    @BeforeEach
+    void buildBook() throws IOException {
+        gameFile = directory.resolve("games.otgr");
+        bookFile = directory.resolve("book.otbk");
+        Tournament tournament = new Tournament(RobotDifficulty.HARD, RobotDifficulty.EASY);
+        tournament.setGames(GAMES);
+        tournament.setThreads(2);
+        tournament.setRecordFile(gameFile);
+        tournament.run();
+        try (GameRecordReader reader = new GameRecordReader(gameFile)) {
+            reader.forEach(recorded::add);
+        }
+        OpeningBook.build(gameFile, bookFile, PLIES, 1);
+    }
+
+    @Test
+    void theFirstMovesCountEveryGame() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            assertEquals(PLIES, book.getPlies());
+            // the 4 first moves are symmetric: they share one entry
+            List<BookMove> moves = book.moves(Position.initial());
+            assertEquals(1, moves.size());
+            assertEquals(GAMES, moves.getFirst().games());
+            assertTrue((Position.initial().legalMoves() & (1L << moves.getFirst().square())) != 0);
+            long blackPoints = recorded.stream().mapToLong(game -> game.blackOutcome() + 1).sum();
+            assertEquals(blackPoints / (2.0 * GAMES), moves.getFirst().score(), 1e-4);
+        }
+    }
+
+    @Test
+    void bookMovesAreLegalAndSortedByScore() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            for (GameRecord game : recorded.subList(0, 10)) {
+                for (int ply = 0; ply < PLIES; ply++) {
+                    Position position = game.positionAfter(ply);
+                    if (position.legalMoves() == 0) {
+                        position = position.pass();
+                    }
+                    List<BookMove> moves = book.moves(position);
+                    assertFalse(moves.isEmpty(), "ply " + ply);
+                    for (int i = 0; i < moves.size(); i++) {
+                        assertTrue((position.legalMoves() & (1L << moves.get(i).square())) != 0);
+                        if (i > 0) {
+                            assertTrue(moves.get(i - 1).score() >= moves.get(i).score());
+                        }
+                    }
+                    assertEquals(moves.getFirst().square(), book.bestMove(position));
+                }
+            }
+        }
+    }
+
+    @Test
+    void symmetricPositionsGetTheSymmetricMoves() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            Position position = recorded.get(3).positionAfter(3);
+            List<BookMove> moves = book.moves(position);
+            for (Symmetry symmetry : Symmetry.values()) {
+                Position symmetric = new Position(symmetry.apply(position.black()), symmetry.apply(position.white()),
+                        position.toMove());
+                List<BookMove> symmetricMoves = book.moves(symmetric);
+                assertEquals(moves.size(), symmetricMoves.size(), symmetry.name());
+                for (int i = 0; i < moves.size(); i++) {
+                    assertEquals(moves.get(i).games(), symmetricMoves.get(i).games());
+                    assertEquals(moves.get(i).score(), symmetricMoves.get(i).score());
+                }
+            }
+        }
+    }
+
+    @Test
+    void positionsBeyondTheBookAreNotLookedUp() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            Position position = recorded.getFirst().positionAfter(PLIES);
+            assertEquals(-1, book.bestMove(position));
+            assertEquals(-1, book.bestMove(new Position(0x0000000810000000L, 0x0000001008000000L, Player.WHITE)));
+        }
+    }
+
+    @Test
+    void theRobotPlaysTheBookMoveWithoutSearching() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            OthelloGame game = new OthelloGame(new BoardGameDimensions(8, 8));
+            game.setOpeningBook(book);
+            int expected = book.bestMove(game.getPosition());
+            assertEquals(expected, game.chooseRobotMove(RobotDifficulty.EXPERT, game.getPosition()));
+            assertNull(game.getLastSearchResult());
+            assertEquals(expected, game.chooseRobotMove(RobotDifficulty.MCTS, game.getPosition()));
+            assertNull(game.getLastMctsResult());
+        }
+    }
+
+    @Test
+    void theHardRobotKeepsItsOwnMoves() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookFile)) {
+            OthelloGame withBook = new OthelloGame(new BoardGameDimensions(8, 8));
+            withBook.setOpeningBook(book);
+            OthelloGame withoutBook = new OthelloGame(new BoardGameDimensions(8, 8));
+            int bookDisagrees = 0;
+            for (Position position : Position.randomSuite(50, 4, 5)) {
+                int hardMove = withoutBook.chooseRobotMove(RobotDifficulty.HARD, position);
+                int bookMove = book.bestMove(position);
+                if (bookMove >= 0 && bookMove != hardMove) {
+                    bookDisagrees++;
+                }
+                assertEquals(hardMove, withBook.chooseRobotMove(RobotDifficulty.HARD, position));
+            }
+            assertTrue(bookDisagrees > 0, "The positions must include book moves that Hard does not play");
+        }
+    }
+
+    @Test
+    void aFileThatIsNotABookIsRejected() throws IOException {
+        assertThrows(IOException.class, () -> OpeningBook.open(gameFile));
+        Path truncated = directory.resolve("truncated.otbk");
+        byte[] bytes = Files.readAllBytes(bookFile);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> OpeningBook.open(truncated));
+    }
+}
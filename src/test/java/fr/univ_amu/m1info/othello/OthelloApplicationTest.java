@@ -0,0 +1,32 @@
+package fr.univ_amu.m1info.othello;
+
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the startup options of the application.
+ */
+class OthelloApplicationTest {
+
+    @Test
+    void renderersAreFoundWhateverTheLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            assertEquals(BoardRenderer.GRID, OthelloApplication.rendererOf("grid"));
+            assertEquals(BoardRenderer.CANVAS, OthelloApplication.rendererOf("Canvas"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void anUnknownRendererFallsBackToTheGrid() {
+        assertEquals(BoardRenderer.GRID, OthelloApplication.rendererOf("canvass"));
+        assertEquals(BoardRenderer.GRID, OthelloApplication.rendererOf(""));
+    }
+}
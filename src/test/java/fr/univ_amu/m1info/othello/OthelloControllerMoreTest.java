@@ -8,6 +8,14 @@ import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDim
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -251,4 +259,259 @@ class OthelloControllerMoreTest {
         assertTrue(mockView.resetBoardCallCount > 0 || mockView.removeShapesCallCount > 0,
                   "Undo should update the view");
     }
+
+    /**
+     * Executor keeping its tasks until the test runs them.
+     */
+    private static class QueuedExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        int runAll() {
+            int count = 0;
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private OthelloController robotController(QueuedExecutor robot, QueuedExecutor ui) {
+        OthelloController robotController = new OthelloController(game, mockTimer, robot, ui, 0);
+        robotController.initializeViewOnStart(mockView);
+        robotController.buttonActionOnClick("MODE_PVAI_HARD");
+        return robotController;
+    }
+
+    @Test
+    void testMctsModePlaysTheMonteCarloRobot() {
+        QueuedExecutor robot = new QueuedExecutor();
+        QueuedExecutor ui = new QueuedExecutor();
+        OthelloController robotController = robotController(robot, ui);
+        game.getMctsEngine().setPlayoutBudget(100);
+        robotController.buttonActionOnClick("MODE_PVAI_MCTS");
+
+        robotController.boardActionOnClick(2, 3);
+        robot.runAll();
+        ui.runAll();
+
+        assertEquals(RobotDifficulty.MCTS, robotController.getRobotDifficulty());
+        assertEquals(2, game.getHistory().size());
+        assertNotNull(game.getLastMctsResult());
+    }
+
+    @Test
+    void testRobotMoveIsComputedOnTheRobotExecutorAndPlayedOnTheUiExecutor() {
+        QueuedExecutor robot = new QueuedExecutor();
+        QueuedExecutor ui = new QueuedExecutor();
+        OthelloController robotController = robotController(robot, ui);
+
+        robotController.boardActionOnClick(2, 3);
+        assertTrue(robotController.isRobotThinking());
+        assertEquals(Player.WHITE, game.getCurrentPlayer(), "The click must return before the robot plays");
+
+        assertEquals(1, robot.runAll());
+        assertEquals(1, game.getHistory().size(), "The robot move is only played on the UI thread");
+
+        assertEquals(1, ui.runAll());
+        assertEquals(2, game.getHistory().size());
+        assertEquals(Player.BLACK, game.getCurrentPlayer());
+        assertFalse(robotController.isRobotThinking());
+    }
+
+    @Test
+    void testResetCancelsThePendingRobotMove() {
+        QueuedExecutor robot = new QueuedExecutor();
+        QueuedExecutor ui = new QueuedExecutor();
+        OthelloController robotController = robotController(robot, ui);
+
+        robotController.boardActionOnClick(2, 3);
+        robotController.buttonActionOnClick(OthelloButtonId.RESET.getId());
+        robot.runAll();
+        ui.runAll();
+
+        assertEquals(0, game.getHistory().size(), "A cancelled robot move must not be played");
+        assertFalse(robotController.isRobotThinking());
+    }
+
+    @Test
+    void testUndoWhileTheRobotThinksTakesBackOnlyTheHumanMove() {
+        QueuedExecutor robot = new QueuedExecutor();
+        QueuedExecutor ui = new QueuedExecutor();
+        OthelloController robotController = robotController(robot, ui);
+
+        robotController.boardActionOnClick(2, 3);
+        robot.runAll(); // the result is waiting for the UI thread
+        robotController.buttonActionOnClick(OthelloButtonId.UNDO.getId());
+        ui.runAll();
+
+        assertEquals(0, game.getHistory().size());
+        assertEquals(Player.BLACK, game.getCurrentPlayer());
+    }
+
+    @Test
+    void testUndoAfterTheRobotMoveTakesBackBothMoves() {
+        OthelloController robotController = new OthelloController(game, mockTimer, Runnable::run, Runnable::run, 0);
+        robotController.initializeViewOnStart(mockView);
+        robotController.buttonActionOnClick("MODE_PVAI_EASY");
+
+        robotController.boardActionOnClick(2, 3);
+        assertEquals(2, game.getHistory().size());
+        robotController.buttonActionOnClick(OthelloButtonId.UNDO.getId());
+
+        assertEquals(0, game.getHistory().size());
+        assertEquals(Player.BLACK, game.getCurrentPlayer());
+    }
+
+    @Test
+    void testRobotDelayIsAMinimumNotAnAddedLatency() {
+        QueuedExecutor ui = new QueuedExecutor();
+        OthelloController robotController = new OthelloController(game, mockTimer, Runnable::run, ui, 100);
+        robotController.initializeViewOnStart(mockView);
+        robotController.buttonActionOnClick("MODE_PVAI_EASY");
+
+        long start = System.currentTimeMillis();
+        robotController.boardActionOnClick(2, 3);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(elapsed >= 100, "The robot move should not be shown before the minimum delay");
+        assertTrue(elapsed < 1000, "The delay should not be added to the computation time");
+        assertEquals(1, ui.runAll());
+    }
+
+    /**
+     * View keeping the drawn state of every cell and the cells touched since the last check.
+     */
+    private static class RecordingBoardView extends MockBoardGameView {
+        final Color[][] colors = new Color[8][8];
+        final List<List<String>> shapes = new ArrayList<>();
+        final Set<Integer> touched = new HashSet<>();
+
+        RecordingBoardView() {
+            for (int i = 0; i < 64; i++) {
+                shapes.add(new ArrayList<>());
+            }
+        }
+
+        @Override
+        public void setCellColor(int row, int column, Color color) {
+            colors[row][column] = color;
+            touched.add(row * 8 + column);
+        }
+
+        @Override
+        public void addShapeAtCell(int row, int column, Shape shape, Color color) {
+            shapes.get(row * 8 + column).add(shape + " " + color);
+            touched.add(row * 8 + column);
+        }
+
+        @Override
+        public void removeShapesAtCell(int row, int column) {
+            shapes.get(row * 8 + column).clear();
+            touched.add(row * 8 + column);
+        }
+
+        @Override
+        public void resetBoard() {
+            shapes.forEach(List::clear);
+            for (int i = 0; i < 64; i++) {
+                touched.add(i);
+            }
+        }
+    }
+
+    @Test
+    void testOnlyChangedCellsAreRedrawn() {
+        RecordingBoardView view = new RecordingBoardView();
+        controller.initializeViewOnStart(view);
+        view.touched.clear();
+
+        controller.boardActionOnClick(2, 3); // places (2,3), flips (3,3)
+
+        assertTrue(view.touched.contains(2 * 8 + 3));
+        assertTrue(view.touched.contains(3 * 8 + 3));
+        assertTrue(view.touched.size() < 16, "Only the move and the suggestion changes should be redrawn, got "
+                + view.touched.size() + " cells");
+        assertFalse(view.touched.contains(0), "An untouched corner must not be redrawn");
+    }
+
+    @Test
+    void testIncrementalRenderingMatchesAFullRedraw() {
+        RecordingBoardView incremental = new RecordingBoardView();
+        controller.initializeViewOnStart(incremental);
+        int[][] moves = {{2, 3}, {2, 2}, {2, 1}, {1, 1}};
+        for (int[] move : moves) {
+            controller.boardActionOnClick(move[0], move[1]);
+        }
+        controller.buttonActionOnClick(OthelloButtonId.UNDO.getId());
+
+        RecordingBoardView full = new RecordingBoardView();
+        new OthelloController(game, mockTimer).initializeViewOnStart(full);
+
+        assertArrayEquals(full.colors, incremental.colors);
+        for (int square = 0; square < 64; square++) {
+            assertEquals(full.shapes.get(square), incremental.shapes.get(square), "cell " + square);
+        }
+    }
+
+    /**
+     * View counting the batches and the cell updates made outside of a batch.
+     */
+    private static class BatchingBoardView extends RecordingBoardView {
+        int batches = 0;
+        int updatesOutsideBatch = 0;
+        boolean inBatch = false;
+
+        @Override
+        public void batchUpdate(Runnable updates) {
+            batches++;
+            inBatch = true;
+            try {
+                updates.run();
+            } finally {
+                inBatch = false;
+            }
+        }
+
+        @Override
+        public void setCellColor(int row, int column, Color color) {
+            countUpdate();
+            super.setCellColor(row, column, color);
+        }
+
+        @Override
+        public void addShapeAtCell(int row, int column, Shape shape, Color color) {
+            countUpdate();
+            super.addShapeAtCell(row, column, shape, color);
+        }
+
+        @Override
+        public void removeShapesAtCell(int row, int column) {
+            countUpdate();
+            super.removeShapesAtCell(row, column);
+        }
+
+        private void countUpdate() {
+            if (!inBatch) {
+                updatesOutsideBatch++;
+            }
+        }
+    }
+
+    @Test
+    void testMoveIsRenderedInASingleBatch() {
+        BatchingBoardView view = new BatchingBoardView();
+        controller.initializeViewOnStart(view);
+        int batchesAfterStart = view.batches;
+
+        controller.boardActionOnClick(2, 3);
+
+        assertEquals(batchesAfterStart + 1, view.batches, "A move should be rendered in one batch");
+        assertEquals(0, view.updatesOutsideBatch, "Board cells should only be updated inside a batch");
+    }
 }
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +20,18 @@ class OthelloGameTest {
         game = new OthelloGame(new BoardGameDimensions(8, 8));
     }
 
+    @Test
+    void aRobotRequestCancelledBeforeItsSearchReturnsAtOnce() {
+        game.getSearchEngine().setTimeBudgetMillis(60_000);
+        AtomicBoolean stop = new AtomicBoolean(true);
+
+        long start = System.currentTimeMillis();
+        int square = game.chooseRobotMove(RobotDifficulty.EXPERT, game.getPosition(), stop);
+
+        assertTrue(System.currentTimeMillis() - start < 1_000);
+        assertTrue((game.getValidMovesMask(Player.BLACK) & (1L << square)) != 0);
+    }
+
     @Test
     void newGameStartsWithBlackPlayer() {
         assertEquals(Player.BLACK, game.getCurrentPlayer(), "Game should start with BLACK player");
@@ -221,6 +234,20 @@ class OthelloGameTest {
         // (This is complex to test without playing a full game)
     }
 
+    @Test
+    void validMovesMaskMatchesValidMovesList() {
+        game.playMove(2, 3, 100); // BLACK
+        game.playMove(2, 2, 200); // WHITE
+
+        long mask = game.getValidMovesMask(game.getCurrentPlayer());
+        List<Coordinates> moves = game.getValidMoves(game.getCurrentPlayer());
+
+        assertEquals(Long.bitCount(mask), moves.size(), "Mask and list should hold the same number of moves");
+        for (Coordinates move : moves) {
+            assertTrue((mask & (1L << move.toSquare())) != 0, "Move " + move + " should be set in the mask");
+        }
+    }
+
     @Test
     void coordinatesClassCreation() {
         Coordinates coord = new Coordinates(3, 4);
@@ -230,12 +257,87 @@ class OthelloGameTest {
 
     @Test
     void moveSnapshotCreation() {
-        CellState[][] snapshot = game.getBoard().getBoardSnapshot();
-        MoveSnapshot moveSnapshot = new MoveSnapshot(snapshot, Player.BLACK, 1000);
+        MoveSnapshot moveSnapshot = new MoveSnapshot(19, 1L << 27, Player.BLACK, 1000);
 
-        assertNotNull(moveSnapshot.boardSnapshot());
+        assertEquals(19, moveSnapshot.square());
+        assertEquals(1L << 27, moveSnapshot.flips());
         assertEquals(Player.BLACK, moveSnapshot.currentPlayer());
         assertEquals(1000, moveSnapshot.elapsedMillis());
     }
-}
 
+    @Test
+    void historyRecordsMoveDeltas() {
+        game.playMove(2, 3, 100); // BLACK flips (3,3)
+
+        MoveSnapshot move = game.getHistory().get(0);
+        assertEquals(1, game.getHistory().size());
+        assertEquals(BitBoard.square(2, 3), move.square());
+        assertEquals(1L << BitBoard.square(3, 3), move.flips());
+        assertEquals(Player.BLACK, move.currentPlayer());
+        assertEquals(100, move.elapsedMillis());
+    }
+
+    @Test
+    void undoingAWholeGameRestoresTheInitialBoard() {
+        CellState[][] initial = game.getBoard().getBoardSnapshot();
+        long elapsed = 0;
+        while (game.getStatus() == GameStatus.IN_PROGRESS) {
+            game.playRobotMove(RobotDifficulty.EASY, elapsed += 10);
+        }
+        assertTrue(game.getHistory().size() > 0);
+
+        while (game.undo()) {
+            // undo every move
+        }
+
+        assertArrayEquals(initial, game.getBoard().getBoardSnapshot(), "Undo should restore the initial board");
+        assertEquals(Player.BLACK, game.getCurrentPlayer());
+        assertEquals(0, game.getLastSnapshotElapsedMillis());
+    }
+
+    @Test
+    void solveReturnsTheExactResultWithoutPlaying() {
+        // Black is to move in a new game
+        Position position = Position.randomSuite(10, 52, 8).stream()
+                .filter(candidate -> candidate.toMove() == Player.BLACK)
+                .findFirst().orElseThrow();
+        game.getBoard().getEngine().setMasks(position.black(), position.white());
+
+        EndgameResult result = game.solve();
+
+        assertTrue(result.exact());
+        assertNotNull(result.move());
+        assertEquals(0, game.getHistory().size(), "Solving must not play the move");
+        assertEquals(position.black(), game.getBoard().getEngine().black());
+    }
+
+    @Test
+    void cachedMovesAndCountsFollowEveryChangeOfThePosition() {
+        long elapsed = 0;
+        for (int ply = 0; ply < 20 && game.getStatus() == GameStatus.IN_PROGRESS; ply++) {
+            assertCacheMatchesBoard();
+            game.playRobotMove(RobotDifficulty.EASY, elapsed += 10);
+        }
+        assertCacheMatchesBoard();
+
+        game.undo();
+        assertCacheMatchesBoard();
+
+        // a position set directly on the board is picked up too
+        game.getBoard().getEngine().setMasks(0xFFFFL, 0xFF0000L);
+        assertCacheMatchesBoard();
+
+        game.reset();
+        assertCacheMatchesBoard();
+        assertEquals(2, game.countPieces(Player.BLACK));
+        assertEquals(4, Long.bitCount(game.getValidMovesMask(Player.BLACK)));
+    }
+
+    private void assertCacheMatchesBoard() {
+        OthelloBoard board = game.getBoard();
+        for (Player player : Player.values()) {
+            assertEquals(board.getValidMovesMask(player), game.getValidMovesMask(player));
+            assertEquals(board.countPieces(player), game.countPieces(player));
+        }
+    }
+}
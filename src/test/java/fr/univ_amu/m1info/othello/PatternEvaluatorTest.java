@@ -0,0 +1,164 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the pattern-based evaluation.
+ */
+class PatternEvaluatorTest {
+
+    @TempDir
+    Path directory;
+
+    private static PatternEvaluator randomEvaluator(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        short[] patternWeights = new short[PatternEvaluator.PHASES * PatternEvaluator.PATTERN_WEIGHTS];
+        for (int i = 0; i < patternWeights.length; i++) {
+            patternWeights[i] = (short) random.nextInt(-40, 41);
+        }
+        int[] featureWeights = random.ints(PatternEvaluator.PHASES * PatternEvaluator.FEATURES, -20, 21).toArray();
+        return new PatternEvaluator(patternWeights, featureWeights);
+    }
+
+    /**
+     * Reference minimax without pruning, evaluating the leaves from scratch.
+     */
+    private static int minimax(Evaluator evaluator, long own, long opponent, int depth) {
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            if (BitBoard.legalMoves(opponent, own) == 0) {
+                return SearchEngine.finalScore(own, opponent);
+            }
+            return -minimax(evaluator, opponent, own, depth);
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(own, opponent);
+        }
+        int best = Integer.MIN_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = BitBoard.flips(square, own, opponent);
+            best = Math.max(best, -minimax(evaluator, opponent ^ flips, own ^ (flips | (1L << square)), depth - 1));
+        }
+        return best;
+    }
+
+    @Test
+    void defaultWeightsGiveTheSquareWeightsScores() {
+        PatternEvaluator evaluator = PatternEvaluator.withDefaultWeights();
+        for (Position position : Position.randomSuite(200, 30, 31)) {
+            assertEquals(SearchEngine.evaluate(position.own(), position.opponent()),
+                    evaluator.evaluate(position.own(), position.opponent()));
+        }
+        assertEquals(SearchEngine.evaluate(0x8100000000000081L, 0x0042000000004200L),
+                evaluator.evaluate(0x8100000000000081L, 0x0042000000004200L));
+    }
+
+    @Test
+    void incrementalStateMatchesTheEvaluationFromScratch() {
+        PatternEvaluator evaluator = randomEvaluator(5);
+        SplittableRandom random = new SplittableRandom(6);
+        for (int game = 0; game < 20; game++) {
+            Position position = Position.initial();
+            Evaluator.State state = evaluator.newState(position.black(), position.white());
+            while (!position.isGameOver()) {
+                if (position.legalMoves() == 0) {
+                    position = position.pass();
+                }
+                long moves = position.legalMoves();
+                int square = BitBoard.nthSquare(moves, random.nextInt(Long.bitCount(moves)));
+                long flips = BitBoard.flips(square, position.own(), position.opponent());
+                state.play(square, flips, position.toMove());
+                // a move taken back leaves the state as it was
+                state.undo(square, flips, position.toMove());
+                state.play(square, flips, position.toMove());
+                position = position.play(square);
+                assertEquals(evaluator.evaluate(position.own(), position.opponent()),
+                        state.evaluate(position.own(), position.opponent(), position.toMove()));
+            }
+        }
+    }
+
+    @Test
+    void searchScoresMatchPlainMinimaxWithThePatternEvaluator() {
+        PatternEvaluator evaluator = randomEvaluator(7);
+        for (Position position : Position.randomSuite(12, 20, 8)) {
+            SearchEngine engine = new SearchEngine(60_000, 3);
+            engine.setEndgameEmpties(0);
+            engine.setEvaluator(evaluator);
+
+            SearchResult result = engine.search(position.own(), position.opponent(), position.toMove());
+
+            assertEquals(minimax(evaluator, position.own(), position.opponent(), result.depth()), result.score());
+        }
+    }
+
+    @Test
+    void searchWithTheDefaultWeightsMatchesTheSquareWeights() {
+        for (Position position : Position.randomSuite(5, 16, 9)) {
+            SearchEngine squareWeights = new SearchEngine(60_000, 4);
+            SearchEngine patterns = new SearchEngine(60_000, 4);
+            patterns.setEvaluator(PatternEvaluator.withDefaultWeights());
+
+            SearchResult expected = squareWeights.search(position.own(), position.opponent(), position.toMove());
+            SearchResult actual = patterns.search(position.own(), position.opponent(), position.toMove());
+
+            assertEquals(expected.square(), actual.square());
+            assertEquals(expected.score(), actual.score());
+        }
+    }
+
+    @Test
+    void scoresStayBelowAWin() {
+        short[] patternWeights = new short[PatternEvaluator.PHASES * PatternEvaluator.PATTERN_WEIGHTS];
+        Arrays.fill(patternWeights, Short.MAX_VALUE);
+        PatternEvaluator evaluator = new PatternEvaluator(patternWeights,
+                new int[PatternEvaluator.PHASES * PatternEvaluator.FEATURES]);
+        for (Position position : Position.randomSuite(10, 20, 10)) {
+            int score = evaluator.evaluate(position.own(), position.opponent());
+            assertTrue(score < SearchEngine.WIN_SCORE && score > -SearchEngine.WIN_SCORE);
+        }
+    }
+
+    @Test
+    void weightArraysMustHaveTheExpectedLength() {
+        assertThrows(IllegalArgumentException.class, () -> new PatternEvaluator(new short[10],
+                new int[PatternEvaluator.PHASES * PatternEvaluator.FEATURES]));
+        assertThrows(IllegalArgumentException.class, () -> new PatternEvaluator(
+                new short[PatternEvaluator.PHASES * PatternEvaluator.PATTERN_WEIGHTS], new int[1]));
+    }
+
+    @Test
+    void savedWeightsAreLoadedBack() throws IOException {
+        PatternEvaluator evaluator = randomEvaluator(11);
+        Path weightFile = directory.resolve("weights.otew");
+        evaluator.save(weightFile);
+
+        PatternEvaluator loaded = PatternEvaluator.load(weightFile);
+
+        for (Position position : Position.randomSuite(50, 30, 12)) {
+            assertEquals(evaluator.evaluate(position.own(), position.opponent()),
+                    loaded.evaluate(position.own(), position.opponent()));
+        }
+    }
+
+    @Test
+    void onlyWeightFilesAreLoaded() throws IOException {
+        Path other = Files.write(directory.resolve("other.otew"), new byte[] {'O', 'T', 'G', 'R', 0, 0, 0, 1});
+        assertThrows(IOException.class, () -> PatternEvaluator.load(other));
+        Path weightFile = directory.resolve("weights.otew");
+        randomEvaluator(13).save(weightFile);
+        byte[] truncated = Arrays.copyOf(Files.readAllBytes(weightFile), 100);
+        Files.write(weightFile, truncated);
+        assertThrows(IOException.class, () -> PatternEvaluator.load(weightFile));
+    }
+}
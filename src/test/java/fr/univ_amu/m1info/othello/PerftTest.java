@@ -0,0 +1,42 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Perft: the move generator must reproduce the known leaf counts.
+ */
+class PerftTest {
+
+    @Test
+    void bitboardCountsMatchTheReference() {
+        for (int depth = 0; depth <= 9; depth++) {
+            assertEquals(Perft.REFERENCE_COUNTS[depth],
+                    Perft.count(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE, depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void boardApiCountsMatchTheReference() {
+        OthelloBoard board = new OthelloBoard();
+        CellState[][] initial = board.getBoardSnapshot();
+
+        for (int depth = 0; depth <= 7; depth++) {
+            assertEquals(Perft.REFERENCE_COUNTS[depth], Perft.count(board, Player.BLACK, depth), "depth " + depth);
+        }
+        assertArrayEquals(initial, board.getBoardSnapshot(), "Perft must restore the board");
+    }
+
+    @Test
+    void bothPathsAgreeOnEndgamePositions() {
+        // close to the end, the counts go through passes and finished games
+        for (Position position : Position.randomSuite(10, 50, 6)) {
+            OthelloBoard board = new OthelloBoard();
+            board.getEngine().setMasks(position.black(), position.white());
+
+            assertEquals(Perft.count(position.own(), position.opponent(), 6),
+                    Perft.count(board, position.toMove(), 6));
+        }
+    }
+}
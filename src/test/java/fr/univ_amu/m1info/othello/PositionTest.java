@@ -0,0 +1,74 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the immutable Position.
+ */
+class PositionTest {
+
+    @Test
+    void initialPositionHasFourMovesForBlack() {
+        Position position = Position.initial();
+
+        assertEquals(Player.BLACK, position.toMove());
+        assertEquals(4, Long.bitCount(position.legalMoves()));
+        assertEquals(60, position.empties());
+        assertFalse(position.isGameOver());
+    }
+
+    @Test
+    void playMatchesTheBitBoard() {
+        BitBoard board = new BitBoard();
+        board.executeMove(BitBoard.square(2, 3), Player.BLACK);
+
+        Position position = Position.initial().play(BitBoard.square(2, 3));
+
+        assertEquals(board.black(), position.black());
+        assertEquals(board.white(), position.white());
+        assertEquals(Player.WHITE, position.toMove());
+        assertEquals(Zobrist.hash(board.black(), board.white(), Player.WHITE), position.hash());
+    }
+
+    @Test
+    void illegalMoveIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Position.initial().play(0));
+        assertThrows(IllegalArgumentException.class, () -> new Position(1L, 1L, Player.BLACK));
+    }
+
+    @Test
+    void onlyTheLegalMovesArePlayed() {
+        for (Position position : Position.randomSuite(200, 20, 7)) {
+            long legal = position.legalMoves();
+            for (int square = 0; square < BitBoard.SQUARES; square++) {
+                if ((legal & (1L << square)) != 0) {
+                    // a legal move adds exactly one disc
+                    Position next = position.play(square);
+                    assertEquals(Long.bitCount(position.black() | position.white()) + 1,
+                            Long.bitCount(next.black() | next.white()));
+                } else {
+                    // including the discs of the player to move that bracket opponent discs
+                    int illegal = square;
+                    assertThrows(IllegalArgumentException.class, () -> position.play(illegal));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> Position.initial().play(-1));
+        assertThrows(IllegalArgumentException.class, () -> Position.initial().play(BitBoard.SQUARES));
+    }
+
+    @Test
+    void randomSuiteIsReproducible() {
+        List<Position> first = Position.randomSuite(10, 20, 42);
+        List<Position> second = Position.randomSuite(10, 20, 42);
+
+        assertEquals(first, second);
+        for (Position position : first) {
+            assertNotEquals(0, position.legalMoves());
+        }
+    }
+}
@@ -37,6 +37,34 @@ class RobotDifficultyTest {
         assertNotNull(playerAtMove, "The played position should have a piece");
     }
 
+    @Test
+    void testExpertAIPlaysValidMove() {
+        BoardGameDimensions dimensions = new BoardGameDimensions(8, 8);
+        OthelloGame game = new OthelloGame(dimensions);
+        game.getSearchEngine().setTimeBudgetMillis(100);
+
+        Coordinates move = game.playRobotMove(RobotDifficulty.EXPERT, 0);
+
+        assertNotNull(move, "Expert AI should play a valid move");
+        assertNotNull(game.getBoard().getPlayerAt(move.row(), move.column()), "The played position should have a piece");
+        assertNotNull(game.getLastSearchResult(), "Expert AI should report its search statistics");
+        assertTrue(game.getLastSearchResult().nodes() > 0);
+    }
+
+    @Test
+    void testMctsAIPlaysValidMove() {
+        BoardGameDimensions dimensions = new BoardGameDimensions(8, 8);
+        OthelloGame game = new OthelloGame(dimensions);
+        game.getMctsEngine().setPlayoutBudget(1000);
+
+        Coordinates move = game.playRobotMove(RobotDifficulty.MCTS, 0);
+
+        assertNotNull(move, "MCTS AI should play a valid move");
+        assertNotNull(game.getBoard().getPlayerAt(move.row(), move.column()), "The played position should have a piece");
+        assertNotNull(game.getLastMctsResult(), "MCTS AI should report its search statistics");
+        assertEquals(1000, game.getLastMctsResult().playouts());
+    }
+
     @Test
     void testHardAIChoosesBestMove() {
         BoardGameDimensions dimensions = new BoardGameDimensions(8, 8);
@@ -0,0 +1,229 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the alpha-beta SearchEngine.
+ */
+class SearchEngineTest {
+
+    @Test
+    void aStopRaisedBeforeTheSearchStartsIsNotLost() {
+        SearchEngine engine = new SearchEngine(60_000, 60);
+        engine.setThreads(2);
+        Position position = Position.randomSuite(1, 10, 3).get(0);
+
+        long start = System.currentTimeMillis();
+        SearchResult result = engine.search(position.own(), position.opponent(), position.toMove(),
+                new AtomicBoolean(true));
+
+        assertTrue(System.currentTimeMillis() - start < 1_000, "A cancelled request must not use its budget");
+        assertTrue((position.legalMoves() & (1L << result.square())) != 0);
+    }
+
+    @Test
+    void aRequestFlagCanBeUsedForSeveralSearches() {
+        SearchEngine engine = new SearchEngine(60_000, 5);
+        engine.setThreads(2);
+        Position position = Position.randomSuite(1, 40, 7).get(0);
+        AtomicBoolean stop = new AtomicBoolean();
+
+        SearchResult first = engine.search(position.own(), position.opponent(), position.toMove(), stop);
+        SearchResult second = engine.search(position.own(), position.opponent(), position.toMove(), stop);
+
+        assertFalse(stop.get(), "The search must not raise the request's flag");
+        assertEquals(5, first.depth());
+        assertEquals(5, second.depth());
+    }
+
+    @Test
+    void squareWeightsAreTheOnesOfTheEvaluation() {
+        for (int square = 0; square < BitBoard.SQUARES; square++) {
+            // a lone disc has no move on either side: only its square weight counts
+            assertEquals(SearchEngine.evaluate(1L << square, 0), SearchEngine.squareWeight(square));
+        }
+        assertEquals(0, SearchEngine.CORNERS & (SearchEngine.X_SQUARES | SearchEngine.C_SQUARES | SearchEngine.EDGES));
+    }
+
+    @Test
+    void searchReturnsALegalMoveWithStatistics() {
+        SearchEngine engine = new SearchEngine(10_000, 4);
+
+        SearchResult result = engine.search(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE, Player.BLACK);
+
+        long legal = BitBoard.legalMoves(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE);
+        assertTrue((legal & (1L << result.square())) != 0, "Search should return a legal move");
+        assertEquals(4, result.depth(), "Search should complete the requested depth");
+        assertTrue(result.nodes() > 0, "Search should count visited nodes");
+        assertTrue(result.nodesPerSecond() > 0);
+        assertNotNull(result.move());
+    }
+
+    @Test
+    void searchReturnsNoMoveWhenPlayerMustPass() {
+        // Black has a single disc surrounded by nothing to capture
+        long black = 1L << BitBoard.square(0, 0);
+        long white = 1L << BitBoard.square(7, 7);
+
+        SearchResult result = new SearchEngine().search(black, white, Player.BLACK);
+
+        assertEquals(-1, result.square());
+        assertNull(result.move());
+    }
+
+    @Test
+    void alphaBetaScoreMatchesPlainMinimax() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            long[] position = randomPosition(random, 10 + random.nextInt(40));
+            if (BitBoard.legalMoves(position[0], position[1]) == 0) {
+                continue;
+            }
+            SearchEngine engine = new SearchEngine(60_000, 3);
+            engine.setEndgameEmpties(0);
+
+            SearchResult result = engine.search(position[0], position[1], Player.BLACK);
+
+            int empties = Long.bitCount(~(position[0] | position[1]));
+            assertEquals(minimax(position[0], position[1], Math.min(result.depth(), empties)), result.score(),
+                    "Alpha-beta must not change the minimax score");
+        }
+    }
+
+    @Test
+    void searchStopsWithinTimeBudget() {
+        SearchEngine engine = new SearchEngine(50, SearchEngine.DEFAULT_MAX_DEPTH);
+
+        SearchResult result = engine.search(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE, Player.BLACK);
+
+        assertTrue(result.depth() >= 1, "At least the first iteration should complete");
+        assertTrue(result.elapsedMillis() < 1000, "Search should stop close to its budget, took " + result.elapsedMillis());
+    }
+
+    @Test
+    void parallelSearchReturnsALegalMove() {
+        SearchEngine engine = new SearchEngine(60_000, 6);
+        engine.setThreads(4);
+        Position position = Position.randomSuite(1, 20, 5).get(0);
+
+        SearchResult result = engine.search(position.own(), position.opponent(), position.toMove());
+
+        assertTrue((position.legalMoves() & (1L << result.square())) != 0, "Search should return a legal move");
+        assertEquals(6, result.depth());
+        assertTrue(result.nodes() > 0);
+        assertTrue(engine.getTranspositionTable().getHits() > 0,
+                "Helpers should share the transposition table");
+    }
+
+    @Test
+    void parallelSearchFindsTheSameScoreAsASingleThread() {
+        for (Position position : Position.randomSuite(5, 30, 11)) {
+            SearchEngine single = new SearchEngine(60_000, 5);
+            SearchEngine parallel = new SearchEngine(60_000, 5);
+            parallel.setThreads(3);
+
+            int expected = single.search(position.own(), position.opponent(), position.toMove()).score();
+            int actual = parallel.search(position.own(), position.opponent(), position.toMove()).score();
+
+            assertEquals(expected, actual, "Sharing the table must not change the minimax score");
+        }
+    }
+
+    @Test
+    void cancelStopsTheSearchInProgress() throws InterruptedException {
+        SearchEngine engine = new SearchEngine(60_000, SearchEngine.DEFAULT_MAX_DEPTH);
+        engine.setThreads(2);
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            engine.cancel();
+        });
+        canceller.start();
+
+        long start = System.currentTimeMillis();
+        SearchResult result = engine.search(BitBoard.INITIAL_BLACK, BitBoard.INITIAL_WHITE, Player.BLACK);
+        canceller.join();
+
+        assertTrue(System.currentTimeMillis() - start < 5_000, "Cancel should stop the search");
+        assertTrue(result.depth() >= 1);
+    }
+
+    @Test
+    void endgameIsSolvedExactlyBelowTheThreshold() {
+        Position position = Position.randomSuite(1, 50, 9).get(0);
+        SearchEngine engine = new SearchEngine(60_000, 2);
+
+        SearchResult result = engine.search(position.own(), position.opponent(), position.toMove());
+        EndgameResult solved = new EndgameSolver().solve(position.own(), position.opponent());
+
+        assertEquals(position.empties(), result.depth(), "The solver searches to the end of the game");
+        assertEquals(Integer.signum(solved.score()), Integer.signum(result.score()));
+        assertEquals(solved.score(), result.score() - Integer.signum(result.score()) * SearchEngine.WIN_SCORE);
+        assertThrows(IllegalArgumentException.class, () -> engine.setEndgameEmpties(65));
+    }
+
+    @Test
+    void threadCountMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SearchEngine().setThreads(0));
+    }
+
+    @Test
+    void finalScorePrefersAnyWinOverEvaluation() {
+        assertTrue(SearchEngine.finalScore(0xFFL, 0xFL) > SearchEngine.evaluate(0x8100000000000081L, 0));
+        assertEquals(0, SearchEngine.finalScore(0xFL, 0xF0L));
+        assertTrue(SearchEngine.finalScore(0xFL, 0xFF0L) < 0);
+    }
+
+    /**
+     * Reference minimax without pruning, with the same pass and evaluation rules as the engine.
+     */
+    private static int minimax(long own, long opponent, int depth) {
+        long moves = BitBoard.legalMoves(own, opponent);
+        if (moves == 0) {
+            if (BitBoard.legalMoves(opponent, own) == 0) {
+                return SearchEngine.finalScore(own, opponent);
+            }
+            return -minimax(opponent, own, depth);
+        }
+        if (depth == 0) {
+            return SearchEngine.evaluate(own, opponent);
+        }
+        int best = Integer.MIN_VALUE;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            long flips = BitBoard.flips(square, own, opponent);
+            best = Math.max(best, -minimax(opponent ^ flips, own ^ (flips | (1L << square)), depth - 1));
+        }
+        return best;
+    }
+
+    /**
+     * Plays random moves from the start position and returns {own, opponent} for the player to move.
+     */
+    private static long[] randomPosition(Random random, int plies) {
+        long own = BitBoard.INITIAL_BLACK;
+        long opponent = BitBoard.INITIAL_WHITE;
+        for (int ply = 0; ply < plies; ply++) {
+            long moves = BitBoard.legalMoves(own, opponent);
+            if (moves != 0) {
+                int square = BitBoard.nthSquare(moves, random.nextInt(Long.bitCount(moves)));
+                long flips = BitBoard.flips(square, own, opponent);
+                own ^= flips | (1L << square);
+                opponent ^= flips;
+            }
+            long swap = own;
+            own = opponent;
+            opponent = swap;
+        }
+        return new long[] {own, opponent};
+    }
+}
@@ -0,0 +1,97 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the board symmetries.
+ */
+class SymmetryTest {
+
+    private static int expectedSquare(Symmetry symmetry, int row, int column) {
+        int[] coordinates = switch (symmetry) {
+            case IDENTITY -> new int[] {row, column};
+            case FLIP_HORIZONTAL -> new int[] {row, 7 - column};
+            case FLIP_VERTICAL -> new int[] {7 - row, column};
+            case ROTATE_180 -> new int[] {7 - row, 7 - column};
+            case TRANSPOSE -> new int[] {column, row};
+            case ANTI_TRANSPOSE -> new int[] {7 - column, 7 - row};
+            case ROTATE_90 -> new int[] {column, 7 - row};
+            case ROTATE_270 -> new int[] {7 - column, row};
+        };
+        return BitBoard.square(coordinates[0], coordinates[1]);
+    }
+
+    @Test
+    void everySymmetryMovesTheSquaresAsDescribed() {
+        for (Symmetry symmetry : Symmetry.values()) {
+            for (int row = 0; row < BitBoard.SIZE; row++) {
+                for (int column = 0; column < BitBoard.SIZE; column++) {
+                    assertEquals(expectedSquare(symmetry, row, column), symmetry.apply(BitBoard.square(row, column)),
+                            symmetry + " (" + row + ", " + column + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void masksAreTransformedSquareBySquare() {
+        SplittableRandom random = new SplittableRandom(21);
+        for (Symmetry symmetry : Symmetry.values()) {
+            for (int i = 0; i < 100; i++) {
+                long mask = random.nextLong();
+                long expected = 0;
+                for (int square = 0; square < BitBoard.SQUARES; square++) {
+                    if ((mask & (1L << square)) != 0) {
+                        expected |= 1L << symmetry.apply(square);
+                    }
+                }
+                assertEquals(expected, symmetry.apply(mask), symmetry.name());
+                assertEquals(mask, symmetry.inverse().apply(symmetry.apply(mask)), symmetry.name());
+            }
+        }
+    }
+
+    @Test
+    void gridsAreTransformedLikeTheMasks() {
+        Position position = Position.randomSuite(1, 25, 3).getFirst();
+        OthelloBoard board = new OthelloBoard();
+        board.getEngine().setMasks(position.black(), position.white());
+        for (Symmetry symmetry : Symmetry.values()) {
+            OthelloBoard transformed = new OthelloBoard();
+            transformed.setBoardFromSnapshot(symmetry.apply(board.getBoardSnapshot()));
+            assertEquals(symmetry.apply(position.black()), transformed.getEngine().black(), symmetry.name());
+            assertEquals(symmetry.apply(position.white()), transformed.getEngine().white(), symmetry.name());
+        }
+    }
+
+    @Test
+    void legalMovesFollowTheSymmetry() {
+        for (Position position : Position.randomSuite(20, 20, 4)) {
+            for (Symmetry symmetry : Symmetry.values()) {
+                assertEquals(symmetry.apply(position.legalMoves()),
+                        BitBoard.legalMoves(symmetry.apply(position.own()), symmetry.apply(position.opponent())),
+                        symmetry.name());
+            }
+        }
+    }
+
+    @Test
+    void symmetricPositionsHaveTheSameCanonicalForm() {
+        for (Position position : Position.randomSuite(50, 30, 7)) {
+            Symmetry canonical = Symmetry.canonical(position.black(), position.white());
+            long black = canonical.apply(position.black());
+            long white = canonical.apply(position.white());
+            for (Symmetry symmetry : Symmetry.values()) {
+                long otherBlack = symmetry.apply(position.black());
+                long otherWhite = symmetry.apply(position.white());
+                Symmetry other = Symmetry.canonical(otherBlack, otherWhite);
+                assertEquals(black, other.apply(otherBlack));
+                assertEquals(white, other.apply(otherWhite));
+            }
+        }
+    }
+}
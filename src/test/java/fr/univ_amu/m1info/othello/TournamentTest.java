@@ -0,0 +1,115 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Tournament runner and its statistics.
+ */
+class TournamentTest {
+
+    @Test
+    void everyGameIsPlayedToTheEnd() {
+        Tournament tournament = new Tournament(RobotDifficulty.EASY, RobotDifficulty.EASY);
+        tournament.setGames(40);
+        tournament.setThreads(4);
+
+        TournamentResult result = tournament.run();
+
+        assertEquals(40, result.games());
+        assertTrue(result.moves() >= 40 * 9, "A game needs at least 9 moves");
+        assertTrue(result.gamesPerSecond() > 0);
+    }
+
+    @Test
+    void hardBeatsEasyMostOfTheTime() {
+        Tournament tournament = new Tournament(RobotDifficulty.HARD, RobotDifficulty.EASY);
+        tournament.setGames(200);
+
+        TournamentResult result = tournament.run();
+
+        assertTrue(result.score() > 0.5, "Hard should score more than Easy: " + result);
+    }
+
+    @Test
+    void finishedGamesAreConsistent() {
+        Tournament tournament = new Tournament(RobotDifficulty.EXPERT, RobotDifficulty.HARD);
+        tournament.setExpertDepth(2);
+
+        GameRecord record = tournament.playGame(true);
+        OthelloGame game = tournament.threadGame();
+
+        assertNotEquals(GameStatus.IN_PROGRESS, game.getStatus());
+        assertEquals(game.getTotalMoves(), game.getHistory().size());
+        assertEquals(RobotDifficulty.EXPERT, record.blackRobot());
+        assertEquals(RobotDifficulty.HARD, record.whiteRobot());
+        assertEquals(game.getTotalMoves(), record.moveCount());
+        assertEquals(game.countPieces(Player.BLACK) - game.countPieces(Player.WHITE), record.discDifference());
+        assertEquals(0, record.replay().legalMoves() | record.replay().pass().legalMoves());
+    }
+
+    @Test
+    void mctsGamesAreConsistent() {
+        Tournament tournament = new Tournament(RobotDifficulty.MCTS, RobotDifficulty.EASY);
+        tournament.setMctsPlayouts(200);
+
+        GameRecord record = tournament.playGame(false);
+        OthelloGame game = tournament.threadGame();
+
+        assertNotEquals(GameStatus.IN_PROGRESS, game.getStatus());
+        assertEquals(game.getTotalMoves(), game.getHistory().size());
+        assertEquals(RobotDifficulty.MCTS, record.whiteRobot());
+        assertEquals(game.getTotalMoves(), record.moveCount());
+        assertTrue(game.getLastMctsResult().playouts() <= 200);
+    }
+
+    @Test
+    void everyThreadReusesOneGame() {
+        Tournament tournament = new Tournament(RobotDifficulty.EXPERT, RobotDifficulty.MCTS);
+        tournament.setGames(12);
+        tournament.setThreads(2);
+        tournament.setExpertDepth(2);
+        tournament.setMctsPlayouts(100);
+
+        TournamentResult result = tournament.run();
+
+        assertEquals(12, result.games());
+        assertTrue(tournament.createdGames() <= 2,
+                "The robots and their tables must be reused: " + tournament.createdGames() + " games created");
+    }
+
+    @Test
+    void aReusedGameDoesNotChangeTheNextGames() {
+        Tournament tournament = new Tournament(RobotDifficulty.EXPERT, RobotDifficulty.HARD);
+        tournament.setExpertDepth(3);
+
+        GameRecord firstGame = tournament.playGame(true);
+        tournament.playGame(false);
+        GameRecord again = tournament.playGame(true);
+
+        assertArrayEquals(firstGame.squares(), again.squares());
+        assertEquals(1, tournament.createdGames());
+    }
+
+    @Test
+    void statisticsFollowTheScore() {
+        TournamentResult even = new TournamentResult(RobotDifficulty.EASY, RobotDifficulty.HARD, 40, 20, 40, 0, 1000);
+        TournamentResult ahead = new TournamentResult(RobotDifficulty.HARD, RobotDifficulty.EASY, 75, 0, 25, 0, 1000);
+
+        assertEquals(0.5, even.score(), 1e-9);
+        assertEquals(0, even.eloDifference(), 1e-9);
+        assertEquals(100, even.gamesPerSecond(), 1e-9);
+        assertEquals(400 * Math.log10(3), ahead.eloDifference(), 1e-9);
+        assertTrue(ahead.eloLowerBound() < ahead.eloDifference() && ahead.eloDifference() < ahead.eloUpperBound());
+        assertTrue(ahead.scoreMargin() > 0 && ahead.scoreMargin() < 0.25);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        Tournament tournament = new Tournament(RobotDifficulty.EASY, RobotDifficulty.HARD);
+
+        assertThrows(IllegalArgumentException.class, () -> tournament.setGames(0));
+        assertThrows(IllegalArgumentException.class, () -> tournament.setThreads(0));
+    }
+}
@@ -0,0 +1,99 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the TranspositionTable.
+ */
+class TranspositionTableTest {
+
+    @Test
+    void storedEntryIsFoundAgain() {
+        TranspositionTable table = new TranspositionTable(4);
+
+        table.store(0x1234_5678_9ABC_DEF0L, 7, TranspositionTable.LOWER, -350, 63);
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+
+        assertNotEquals(0, entry);
+        assertEquals(-350, TranspositionTable.score(entry));
+        assertEquals(63, TranspositionTable.move(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(1, table.getHits());
+        assertEquals(1.0, table.getHitRate());
+    }
+
+    @Test
+    void missingMoveIsDecodedAsMinusOne() {
+        TranspositionTable table = new TranspositionTable(4);
+
+        table.store(42, 3, TranspositionTable.UPPER, 10, -1);
+
+        assertEquals(-1, TranspositionTable.move(table.probe(42)));
+    }
+
+    @Test
+    void otherPositionInTheSlotCountsAsCollision() {
+        TranspositionTable table = new TranspositionTable(4);
+        // same low bits, hence same slot
+        table.store(0x10, 3, TranspositionTable.EXACT, 1, 0);
+
+        assertEquals(0, table.probe(0x20));
+        assertEquals(0, table.probe(0x11)); // empty slot: a miss but not a collision
+        assertEquals(1, table.getCollisions());
+        assertEquals(0, table.getHits());
+    }
+
+    @Test
+    void deeperEntryOfTheCurrentSearchIsKept() {
+        TranspositionTable table = new TranspositionTable(4);
+        table.newSearch();
+        table.store(0x10, 8, TranspositionTable.EXACT, 1, 0);
+
+        table.store(0x20, 2, TranspositionTable.EXACT, 2, 0);
+        assertNotEquals(0, table.probe(0x10), "Shallower result should not replace a deeper one");
+
+        table.newSearch();
+        table.store(0x20, 2, TranspositionTable.EXACT, 2, 0);
+        assertNotEquals(0, table.probe(0x20), "Entries of an older search should be replaced");
+    }
+
+    @Test
+    void concurrentWritersNeverProduceTornEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(6);
+        AtomicInteger corrupted = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // every writer stores a score derived from the key, in a table much smaller than the key set
+                    long key = key(random.nextInt(1024));
+                    table.store(key, random.nextInt(60), TranspositionTable.EXACT, (int) (key >>> 40), -1);
+                    long probed = key(random.nextInt(1024));
+                    long entry = table.probe(probed);
+                    if (entry != 0 && TranspositionTable.score(entry) != (int) (probed >>> 40)) {
+                        corrupted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, corrupted.get());
+        assertTrue(table.getHits() > 0, "Readers should find entries of the writers");
+    }
+
+    private static long key(int index) {
+        return new SplittableRandom(index).nextLong();
+    }
+}
@@ -0,0 +1,122 @@
+package fr.univ_amu.m1info.othello;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the offline training of the pattern weights.
+ */
+class WeightTrainerTest {
+    private static final int GAMES = 20;
+
+    @TempDir
+    Path directory;
+
+    private Path gameFile;
+    private Path sampleFile;
+    private long moves;
+
+    @BeforeEach
+    void playGames() throws IOException {
+        gameFile = directory.resolve("games.otgr");
+        sampleFile = directory.resolve("samples.otds");
+        Tournament tournament = new Tournament(RobotDifficulty.EASY, RobotDifficulty.HARD);
+        tournament.setGames(GAMES);
+        tournament.setThreads(2);
+        tournament.setRecordFile(gameFile);
+        tournament.run();
+        try (GameRecordReader reader = new GameRecordReader(gameFile)) {
+            for (GameRecord game = reader.read(); game != null; game = reader.read()) {
+                moves += game.moveCount();
+            }
+        }
+    }
+
+    @Test
+    void everyMoveGivesOneSample() throws IOException {
+        assertEquals(moves, WeightTrainer.label(gameFile, sampleFile, 0));
+        assertEquals(8 + 18 * moves, Files.size(sampleFile));
+        // exact labels change the targets, not the samples
+        assertEquals(moves, WeightTrainer.label(gameFile, sampleFile, 8));
+    }
+
+    @Test
+    void trainingReducesTheError() throws IOException {
+        WeightTrainer.label(gameFile, sampleFile, 0);
+        WeightTrainer trainer = new WeightTrainer();
+        trainer.setEpochs(5);
+        trainer.setParallelism(2);
+
+        PatternEvaluator evaluator = trainer.train(sampleFile);
+
+        List<Double> errors = trainer.getErrors();
+        assertEquals(5, errors.size());
+        for (int epoch = 1; epoch < errors.size(); epoch++) {
+            assertTrue(errors.get(epoch) < errors.get(epoch - 1), errors.toString());
+        }
+        // the trained evaluation predicts the final differential of the games better than a constant 0
+        double squaredError = 0;
+        double squaredTarget = 0;
+        try (GameRecordReader reader = new GameRecordReader(gameFile)) {
+            for (GameRecord game = reader.read(); game != null; game = reader.read()) {
+                Position position = Position.initial();
+                for (int ply = 0; ply < game.moveCount(); ply++) {
+                    if (position.legalMoves() == 0) {
+                        position = position.pass();
+                    }
+                    int target = WeightTrainer.DISC_SCORE
+                            * (position.toMove() == Player.BLACK ? game.discDifference() : -game.discDifference());
+                    double error = evaluator.evaluate(position.own(), position.opponent()) - target;
+                    squaredError += error * error;
+                    squaredTarget += (double) target * target;
+                    position = position.play(game.square(ply));
+                }
+            }
+        }
+        assertTrue(squaredError < squaredTarget);
+    }
+
+    @Test
+    void theFittingDoesNotDependOnTheNumberOfThreads() throws IOException {
+        WeightTrainer.label(gameFile, sampleFile, 0);
+        WeightTrainer single = new WeightTrainer();
+        single.setEpochs(3);
+        single.setParallelism(1);
+        WeightTrainer parallel = new WeightTrainer();
+        parallel.setEpochs(3);
+        parallel.setParallelism(4);
+
+        single.train(sampleFile);
+        parallel.train(sampleFile);
+
+        for (int epoch = 0; epoch < 3; epoch++) {
+            assertEquals(single.getErrors().get(epoch), parallel.getErrors().get(epoch), 1e-9);
+        }
+    }
+
+    @Test
+    void onlySampleFilesAreTrainedOn() throws IOException {
+        WeightTrainer trainer = new WeightTrainer();
+        assertThrows(IOException.class, () -> trainer.train(gameFile));
+        Path empty = Files.createFile(directory.resolve("empty.otds"));
+        assertThrows(IOException.class, () -> trainer.train(empty));
+    }
+
+    @Test
+    void settingsMustBeValid() {
+        WeightTrainer trainer = new WeightTrainer();
+        assertThrows(IllegalArgumentException.class, () -> trainer.setEpochs(0));
+        assertThrows(IllegalArgumentException.class, () -> trainer.setLearningRate(0));
+        assertThrows(IllegalArgumentException.class, () -> trainer.setLearningRate(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> trainer.setRidge(-1));
+        assertThrows(IllegalArgumentException.class, () -> trainer.setParallelism(0));
+    }
+}
@@ -0,0 +1,55 @@
+package fr.univ_amu.m1info.othello;
+
+import fr.univ_amu.m1info.board_game_library.graphics.configuration.BoardGameDimensions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Zobrist hashing and its incremental maintenance.
+ */
+class ZobristTest {
+
+    @Test
+    void incrementalHashMatchesHashFromScratchDuringAGame() {
+        OthelloGame game = new OthelloGame(new BoardGameDimensions(8, 8));
+        while (game.getStatus() == GameStatus.IN_PROGRESS) {
+            game.playRobotMove(RobotDifficulty.EASY, 0);
+            BitBoard engine = game.getBoard().getEngine();
+            assertEquals(Zobrist.hash(engine.black(), engine.white()), game.getBoard().getHash());
+            assertEquals(Zobrist.hash(engine.black(), engine.white(), game.getCurrentPlayer()), game.getPositionHash());
+        }
+    }
+
+    @Test
+    void undoRestoresTheHash() {
+        OthelloGame game = new OthelloGame(new BoardGameDimensions(8, 8));
+        long initial = game.getPositionHash();
+
+        game.playMove(2, 3, 0);
+        assertNotEquals(initial, game.getPositionHash());
+        game.undo();
+
+        assertEquals(initial, game.getPositionHash());
+    }
+
+    @Test
+    void placingAndFlippingPiecesUpdatesTheHash() {
+        OthelloBoard board = new OthelloBoard();
+
+        board.placePiece(0, 0, Player.BLACK);
+        board.flipPiece(3, 3, Player.BLACK);
+
+        BitBoard engine = board.getEngine();
+        assertEquals(Zobrist.hash(engine.black(), engine.white()), board.getHash());
+    }
+
+    @Test
+    void sideToMoveChangesTheHash() {
+        long black = BitBoard.INITIAL_BLACK;
+        long white = BitBoard.INITIAL_WHITE;
+
+        assertNotEquals(Zobrist.hash(black, white, Player.BLACK), Zobrist.hash(black, white, Player.WHITE));
+        assertNotEquals(Zobrist.hash(black, white), Zobrist.hash(white, black));
+    }
+}